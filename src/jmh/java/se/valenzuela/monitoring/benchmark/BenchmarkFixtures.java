@@ -0,0 +1,96 @@
+package se.valenzuela.monitoring.benchmark;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Wiring shared by the benchmarks, which construct the services by hand instead of starting
+ * a Spring context and a database.
+ */
+final class BenchmarkFixtures {
+
+    static final int MAX_CONCURRENCY = 256;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Probe limits high enough that the local stub server, not the permits, is the bottleneck,
+     * no result reuse between rounds and fixed intervals.
+     */
+    static HealthCheckProperties healthCheckProperties() {
+        return new HealthCheckProperties(0, MAX_CONCURRENCY, MAX_CONCURRENCY,
+                Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3,
+                new HealthCheckProperties.Adaptive(false, Duration.ofHours(1), Duration.ofMinutes(5),
+                        Duration.ofSeconds(5)));
+    }
+
+    /**
+     * Pooled HttpComponents client configured like {@code AppConfig}'s, without TLS.
+     */
+    static CloseableHttpClient pooledHttpClient() {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofSeconds(2))
+                                .setSocketTimeout(Timeout.ofSeconds(5))
+                                .build())
+                        .setMaxConnTotal(MAX_CONCURRENCY)
+                        .setMaxConnPerRoute(MAX_CONCURRENCY)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofSeconds(5))
+                        .build())
+                .build();
+    }
+
+    /**
+     * In-memory stand-in for a Spring Data repository. Methods named in {@code answers} return
+     * the answer's result; {@code save} returns its argument; other methods return an empty
+     * Optional or list, {@code false} or {@code null}.
+     */
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "save" -> args[0];
+                case "toString" -> "Stub" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> defaultValue(method.getReturnType());
+            };
+        });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> returnType) {
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        if (List.class.isAssignableFrom(returnType)) {
+            return List.of();
+        }
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,178 @@
+package se.valenzuela.monitoring.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import se.valenzuela.monitoring.cluster.repository.ClusterLockRepository;
+import se.valenzuela.monitoring.cluster.repository.ClusterNodeRepository;
+import se.valenzuela.monitoring.cluster.service.ClusterMembership;
+import se.valenzuela.monitoring.cluster.service.LeaderElection;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.config.HistoryProperties;
+import se.valenzuela.monitoring.config.LeaseProperties;
+import se.valenzuela.monitoring.config.TransitionProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceJdbcRepository;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceRepository;
+import se.valenzuela.monitoring.core.service.LeaseTracker;
+import se.valenzuela.monitoring.core.service.MonitoringService;
+import se.valenzuela.monitoring.core.service.ProbeExecutor;
+import se.valenzuela.monitoring.core.service.ProbeLatencyTracker;
+import se.valenzuela.monitoring.core.service.RestClientProbeEngine;
+import se.valenzuela.monitoring.core.service.ServiceRegistry;
+import se.valenzuela.monitoring.history.repository.HealthHistoryRepository;
+import se.valenzuela.monitoring.history.service.HealthHistoryService;
+import se.valenzuela.monitoring.notification.model.HealthState;
+import se.valenzuela.monitoring.notification.repository.HealthStateRepository;
+import se.valenzuela.monitoring.notification.scheduler.HealthCheckScheduler;
+import se.valenzuela.monitoring.notification.scheduler.HealthStateStore;
+import se.valenzuela.monitoring.settings.repository.AppSettingRepository;
+import se.valenzuela.monitoring.settings.service.AppSettingService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * {@link HealthCheckScheduler#checkHealth()} against {@code services} services on a local
+ * actuator stub.
+ * <ul>
+ *   <li>{@code fullRound}: every service is due, so the tick probes all of them, publishes
+ *       their statuses and schedules their next deadlines.</li>
+ *   <li>{@code idleTick}: nothing is due, which is what almost every tick looks like.</li>
+ * </ul>
+ * History recording is disabled so the numbers do not depend on a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HealthCheckSchedulerBenchmark {
+
+    private static final ApplicationEventPublisher NO_OP_PUBLISHER = _ -> { };
+    private static final HealthStateRepository NO_STORED_STATES = new HealthStateRepository(null) {
+        @Override
+        public Map<Long, HealthState> findAll() {
+            return Map.of();
+        }
+    };
+    private static final ClusterProperties CLUSTER_DISABLED =
+            new ClusterProperties(false, "benchmark", Duration.ofSeconds(15), 128);
+
+    @Param({"100", "1000", "10000"})
+    public int services;
+
+    private StubActuatorServer server;
+    private CloseableHttpClient httpClient;
+    private MonitoringService monitoringService;
+    private HealthHistoryService historyService;
+    private HealthCheckProperties properties;
+
+    /**
+     * A scheduler that has just run a full round, so every service's deadline is in the future.
+     */
+    @State(Scope.Benchmark)
+    public static class IdleScheduler {
+        HealthCheckScheduler scheduler;
+
+        @Setup
+        public void setUp(HealthCheckSchedulerBenchmark benchmark) {
+            scheduler = benchmark.newScheduler();
+            scheduler.checkHealth();
+        }
+    }
+
+    /**
+     * A fresh scheduler per invocation: its first tick finds every service due.
+     */
+    @State(Scope.Thread)
+    public static class DueScheduler {
+        HealthCheckScheduler scheduler;
+
+        @Setup(Level.Invocation)
+        public void setUp(HealthCheckSchedulerBenchmark benchmark) {
+            scheduler = benchmark.newScheduler();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        server = new StubActuatorServer(0);
+        properties = BenchmarkFixtures.healthCheckProperties();
+        var meterRegistry = new SimpleMeterRegistry();
+
+        Instant now = Instant.now();
+        List<MonitoredService> fleet = LongStream.rangeClosed(1, services)
+                .mapToObj(id -> {
+                    var service = new MonitoredService(server.baseUrl());
+                    service.setId(id);
+                    // Name and version are fresh, so a round probes only the health endpoint
+                    service.setInfoCheckedAt(now.plus(Duration.ofDays(1)));
+                    // Long enough that no deadline comes round again during an idleTick run
+                    service.setHealthCheckIntervalSeconds(3600);
+                    return service;
+                })
+                .toList();
+        MonitoredServiceRepository repository = BenchmarkFixtures.repository(MonitoredServiceRepository.class,
+                Map.of("findAllWithEnvironments", _ -> fleet));
+        var appSettingService = new AppSettingService(
+                BenchmarkFixtures.repository(AppSettingRepository.class, Map.of()));
+
+        httpClient = BenchmarkFixtures.pooledHttpClient();
+        var restClient = RestClient.builder()
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+        var probeExecutor = new ProbeExecutor(properties, meterRegistry);
+        var jdbcRepository = new MonitoredServiceJdbcRepository(null);
+        monitoringService = new MonitoringService(restClient, repository,
+                jdbcRepository, NO_OP_PUBLISHER, appSettingService,
+                new ServiceRegistry(repository), probeExecutor,
+                new RestClientProbeEngine(restClient, probeExecutor),
+                new ProbeLatencyTracker(meterRegistry),
+                new LeaseTracker(jdbcRepository, new LeaseProperties(500), CLUSTER_DISABLED), meterRegistry, properties);
+        var leaderElection = new LeaderElection(new ClusterLockRepository(null), newClusterMembership(meterRegistry),
+                CLUSTER_DISABLED, meterRegistry);
+        historyService = new HealthHistoryService(new HealthHistoryRepository(null),
+                new HistoryProperties(false, 0, 0, Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO),
+                leaderElection, meterRegistry);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    HealthCheckScheduler newScheduler() {
+        var meterRegistry = new SimpleMeterRegistry();
+        return new HealthCheckScheduler(monitoringService, NO_OP_PUBLISHER, properties, historyService,
+                newClusterMembership(meterRegistry), new HealthStateStore(NO_STORED_STATES),
+                new TransitionProperties(3, 5, 2, 20, 0.5, 0.25), meterRegistry);
+    }
+
+    private ClusterMembership newClusterMembership(SimpleMeterRegistry meterRegistry) {
+        return new ClusterMembership(new ClusterNodeRepository(null), monitoringService, CLUSTER_DISABLED,
+                meterRegistry);
+    }
+
+    @Benchmark
+    public void fullRound(DueScheduler state) {
+        state.scheduler.checkHealth();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void idleTick(IdleScheduler state) {
+        state.scheduler.checkHealth();
+    }
+}
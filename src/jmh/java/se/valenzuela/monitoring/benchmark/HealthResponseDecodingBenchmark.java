@@ -0,0 +1,78 @@
+package se.valenzuela.monitoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import se.valenzuela.monitoring.core.client.HealthEndpointResponse;
+import se.valenzuela.monitoring.core.client.HealthResponseDecoder;
+import se.valenzuela.monitoring.core.client.HealthSummary;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a health response into what a poll needs: status, component statuses and
+ * the earliest certificate expiry.
+ * <ul>
+ *   <li>{@code summaryDecoder}: the token-level {@link HealthResponseDecoder} used when polling.</li>
+ *   <li>{@code fullTree}: binding the whole {@link HealthEndpointResponse}, as the details
+ *       dialog does, then walking the ssl chains for the expiry.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HealthResponseDecodingBenchmark {
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+    private static final byte[] MINIMAL_BODY = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"minimal", "ssl"})
+    public String payload;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        body = "ssl".equals(payload) ? StubActuatorServer.HEALTH_BODY : MINIMAL_BODY;
+    }
+
+    @Benchmark
+    public HealthSummary summaryDecoder() {
+        return HealthResponseDecoder.decode(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public void fullTree(Blackhole blackhole) {
+        HealthEndpointResponse response = JSON_MAPPER.readValue(body, HealthEndpointResponse.class);
+        blackhole.consume(response.status());
+        blackhole.consume(response.components() != null ? earliestExpiry(response.components().get("ssl")) : null);
+    }
+
+    private static Instant earliestExpiry(JsonNode ssl) {
+        if (ssl == null) {
+            return null;
+        }
+        Instant earliest = null;
+        for (String chains : new String[]{"validChains", "expiringChains", "invalidChains"}) {
+            for (JsonNode chain : ssl.path("details").path(chains)) {
+                for (JsonNode certificate : chain.path("certificates")) {
+                    String validityEnds = certificate.path("validityEnds").asString(null);
+                    if (validityEnds != null) {
+                        Instant expiry = Instant.parse(validityEnds);
+                        if (earliest == null || expiry.isBefore(earliest)) {
+                            earliest = expiry;
+                        }
+                    }
+                }
+            }
+        }
+        return earliest;
+    }
+}
@@ -0,0 +1,155 @@
+package se.valenzuela.monitoring.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import se.valenzuela.monitoring.cluster.repository.ClusterNodeRepository;
+import se.valenzuela.monitoring.cluster.repository.NotificationClaimRepository;
+import se.valenzuela.monitoring.cluster.service.ClusterMembership;
+import se.valenzuela.monitoring.cluster.service.TransitionClaims;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.notification.channel.NotificationChannel;
+import se.valenzuela.monitoring.notification.channel.SlackNotificationChannel;
+import se.valenzuela.monitoring.notification.event.MonitoringEvent;
+import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
+import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+import se.valenzuela.monitoring.notification.model.NotificationChannelConfig;
+import se.valenzuela.monitoring.notification.repository.NotificationChannelConfigRepository;
+import se.valenzuela.monitoring.notification.repository.NotificationServiceOverrideRepository;
+import se.valenzuela.monitoring.notification.service.NotificationConfigService;
+import se.valenzuela.monitoring.notification.service.NotificationDispatcher;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link NotificationDispatcher} fanning one outage out to {@code channels} channels for each
+ * of {@code services} services, as happens when a shared dependency goes down.
+ * <ul>
+ *   <li>{@code noop} channels measure routing alone: route lookup, enabled check, dispatch.</li>
+ *   <li>{@code slack} channels also build the message and post it to a local webhook stub.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NotificationDispatcherBenchmark {
+
+    @Param({"noop", "slack"})
+    public String channel;
+
+    @Param({"1", "4"})
+    public int channels;
+
+    @Param({"100", "1000"})
+    public int services;
+
+    private StubActuatorServer server;
+    private CloseableHttpClient httpClient;
+    private NotificationDispatcher dispatcher;
+    private List<MonitoringEventCarrier> outage;
+
+    @Setup
+    public void setUp() {
+        server = new StubActuatorServer(0);
+        var jsonMapper = JsonMapper.builder().build();
+        String configJson = "{\"webhookUrl\":\"" + server.baseUrl() + "/webhook\"}";
+
+        var channelConfigRepository = BenchmarkFixtures.repository(NotificationChannelConfigRepository.class,
+                Map.of("findByChannelType", args -> Optional.of(
+                        new NotificationChannelConfig((String) args[0], true, configJson))));
+        var overrideRepository = BenchmarkFixtures.repository(NotificationServiceOverrideRepository.class, Map.of());
+        var configService = new NotificationConfigService(channelConfigRepository, overrideRepository, jsonMapper);
+
+        List<NotificationChannel> channelList = new ArrayList<>();
+        for (int i = 0; i < channels; i++) {
+            channelList.add(switch (channel) {
+                case "noop" -> new NoOpChannel("NOOP_" + i);
+                case "slack" -> {
+                    if (httpClient == null) {
+                        httpClient = BenchmarkFixtures.pooledHttpClient();
+                    }
+                    var restClient = RestClient.builder()
+                            .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                            .build();
+                    yield new SlackNotificationChannel(restClient, jsonMapper);
+                }
+                default -> throw new IllegalArgumentException("Unknown channel " + channel);
+            });
+        }
+        var clusterMembership = new ClusterMembership(new ClusterNodeRepository(null), null,
+                new ClusterProperties(false, "benchmark", Duration.ofSeconds(15), 128), new SimpleMeterRegistry());
+        dispatcher = new NotificationDispatcher(channelList, configService,
+                new TransitionClaims(new NotificationClaimRepository(null), clusterMembership));
+
+        Instant now = Instant.now();
+        outage = IntStream.rangeClosed(1, services)
+                .mapToObj(id -> {
+                    var service = new MonitoredService(server.baseUrl());
+                    service.setId((long) id);
+                    service.setName("service-" + id);
+                    return new MonitoringEventCarrier(this, new ServiceHealthChangedEvent(service, true, false, now));
+                })
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public int outageFanOut() {
+        outage.forEach(dispatcher::onMonitoringEvent);
+        return outage.size();
+    }
+
+    private record NoOpChannel(String channelType) implements NotificationChannel {
+
+        @Override
+        public String displayName() {
+            return channelType;
+        }
+
+        @Override
+        public void send(MonitoringEvent event, String configJson) {
+        }
+
+        @Override
+        public void send(MonitoringEvent event, JsonNode config) {
+        }
+
+        @Override
+        public boolean validate(String configJson) {
+            return true;
+        }
+
+        @Override
+        public String configDescription() {
+            return "";
+        }
+
+        @Override
+        public List<ConfigField> configFields() {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package se.valenzuela.monitoring.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import se.valenzuela.monitoring.config.HttpClientProperties;
+import se.valenzuela.monitoring.core.service.HttpClientProbeEngine;
+import se.valenzuela.monitoring.core.service.ProbeEngine;
+import se.valenzuela.monitoring.core.service.ProbeExecutor;
+import se.valenzuela.monitoring.core.service.RestClientProbeEngine;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking RestClient probe engine with the non-blocking HttpClient one: one
+ * operation is a round of {@code services} health probes against a local actuator stub that
+ * answers after {@code responseDelayMillis}. Multiply the score by {@code services} for probes
+ * per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProbeEngineBenchmark {
+
+    @Param({"rest-client", "async"})
+    public String engine;
+
+    @Param({"100", "1000"})
+    public int services;
+
+    @Param({"0", "20"})
+    public int responseDelayMillis;
+
+    private StubActuatorServer server;
+    private CloseableHttpClient apacheClient;
+    private HttpClient javaClient;
+    private ProbeEngine probeEngine;
+    private String url;
+
+    @Setup
+    public void setUp() {
+        server = new StubActuatorServer(responseDelayMillis);
+        url = server.baseUrl() + "/actuator/health";
+        var probeExecutor = new ProbeExecutor(BenchmarkFixtures.healthCheckProperties(), new SimpleMeterRegistry());
+
+        probeEngine = switch (engine) {
+            case "rest-client" -> {
+                apacheClient = BenchmarkFixtures.pooledHttpClient();
+                var restClient = RestClient.builder()
+                        .requestFactory(new HttpComponentsClientHttpRequestFactory(apacheClient))
+                        .build();
+                yield new RestClientProbeEngine(restClient, probeExecutor);
+            }
+            case "async" -> {
+                javaClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(Duration.ofSeconds(2))
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .build();
+                var client = new HttpClientProperties.Client(BenchmarkFixtures.MAX_CONCURRENCY,
+                        BenchmarkFixtures.MAX_CONCURRENCY, Duration.ofSeconds(2), Duration.ofSeconds(5),
+                        Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(5), DataSize.ofMegabytes(1));
+                yield new HttpClientProbeEngine(javaClient, probeExecutor, new HttpClientProperties(client, client));
+            }
+            default -> throw new IllegalArgumentException("Unknown engine " + engine);
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (apacheClient != null) {
+            apacheClient.close();
+        }
+        if (javaClient != null) {
+            javaClient.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public int probeRound() {
+        CompletableFuture<?>[] probes = new CompletableFuture<?>[services];
+        for (int i = 0; i < services; i++) {
+            probes[i] = probeEngine.fetchHealth(url);
+        }
+        CompletableFuture.allOf(probes).join();
+        return probes.length;
+    }
+}
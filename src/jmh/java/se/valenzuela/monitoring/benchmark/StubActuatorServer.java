@@ -0,0 +1,120 @@
+package se.valenzuela.monitoring.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for a monitored Spring Boot service, so the benchmarks run offline.
+ * Serves {@code /actuator/health} and {@code /actuator/info}, and accepts Slack-style
+ * webhook posts on {@code /webhook}.
+ */
+final class StubActuatorServer implements AutoCloseable {
+
+    /**
+     * A health response as returned with {@code show-details: always}: a handful of
+     * components plus an ssl component with valid and expiring chains.
+     */
+    static final byte[] HEALTH_BODY = """
+            {"status":"UP","components":{
+              "db":{"status":"UP","details":{"database":"MariaDB","validationQuery":"isValid()"}},
+              "diskSpace":{"status":"UP","details":{"total":499963174912,"free":91490443264,"threshold":10485760,
+                "path":"/app/.","exists":true}},
+              "livenessState":{"status":"UP"},
+              "ping":{"status":"UP"},
+              "readinessState":{"status":"UP"},
+              "ssl":{"status":"UP","details":{
+                "validChains":[
+                  {"alias":"server","certificates":[
+                    {"subject":"CN=app.example.com","issuer":"CN=Example Intermediate CA","serialNumber":"4f2a",
+                     "version":"V3","signatureAlgorithmName":"SHA256withRSA",
+                     "validityStarts":"2025-06-01T00:00:00Z","validityEnds":"2026-12-01T00:00:00Z",
+                     "validity":{"status":"VALID"}},
+                    {"subject":"CN=Example Intermediate CA","issuer":"CN=Example Root CA","serialNumber":"1b07",
+                     "version":"V3","signatureAlgorithmName":"SHA256withRSA",
+                     "validityStarts":"2020-01-01T00:00:00Z","validityEnds":"2030-01-01T00:00:00Z",
+                     "validity":{"status":"VALID"}}]},
+                  {"alias":"client","certificates":[
+                    {"subject":"CN=client.example.com","issuer":"CN=Example Intermediate CA","serialNumber":"77c1",
+                     "version":"V3","signatureAlgorithmName":"SHA256withRSA",
+                     "validityStarts":"2025-09-01T00:00:00Z","validityEnds":"2027-03-01T00:00:00Z",
+                     "validity":{"status":"VALID"}}]}],
+                "expiringChains":[
+                  {"alias":"legacy","certificates":[
+                    {"subject":"CN=legacy.example.com","issuer":"CN=Example Intermediate CA","serialNumber":"09aa",
+                     "version":"V3","signatureAlgorithmName":"SHA256withRSA",
+                     "validityStarts":"2024-11-01T00:00:00Z","validityEnds":"2026-11-10T00:00:00Z",
+                     "validity":{"status":"WILL_EXPIRE_SOON","message":"Certificate will expire within threshold"}}]}],
+                "invalidChains":[]}}}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] INFO_BODY = """
+            {"name":"stub-service","description":"Benchmark stub","version":"1.0.0"}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong webhookPosts = new AtomicLong();
+
+    /**
+     * @param responseDelayMillis time the health endpoint takes to answer, to simulate slow services
+     */
+    StubActuatorServer(int responseDelayMillis) {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/actuator/health", exchange -> {
+            if (responseDelayMillis > 0) {
+                try {
+                    Thread.sleep(responseDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, HEALTH_BODY);
+        });
+        server.createContext("/actuator/info", exchange -> respond(exchange, INFO_BODY));
+        server.createContext("/webhook", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            webhookPosts.incrementAndGet();
+            respond(exchange, "ok".getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    long webhookPosts() {
+        return webhookPosts.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package se.valenzuela.monitoring.cluster.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Plain JDBC access to the {@code cluster_lock} table. Every statement is a single
+ * conditional write, so two nodes racing for a lock are serialised by the row lock and
+ * exactly one of them wins. Expiry is computed with the database clock.
+ */
+@Repository
+public class ClusterLockRepository {
+
+    private static final String INSERT = """
+            INSERT IGNORE INTO cluster_lock (lock_name, owner, fencing_token, expires_at)
+            VALUES (?, ?, 1, NOW(6) + INTERVAL ? MICROSECOND)""";
+
+    private static final String TAKE_OVER = """
+            UPDATE cluster_lock SET owner = ?, fencing_token = fencing_token + 1,
+                expires_at = NOW(6) + INTERVAL ? MICROSECOND
+            WHERE lock_name = ? AND (owner IS NULL OR expires_at < NOW(6))""";
+
+    private static final String RENEW = """
+            UPDATE cluster_lock SET expires_at = NOW(6) + INTERVAL ? MICROSECOND
+            WHERE lock_name = ? AND owner = ? AND fencing_token = ? AND expires_at >= NOW(6)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClusterLockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes the lock if nobody holds it or the holder let it expire.
+     *
+     * @return the new fencing token, or empty if another owner holds the lock
+     */
+    public OptionalLong tryAcquire(String lockName, String owner, Duration ttl) {
+        if (jdbcTemplate.update(INSERT, lockName, owner, micros(ttl)) == 1) {
+            return OptionalLong.of(1);
+        }
+        if (jdbcTemplate.update(TAKE_OVER, owner, micros(ttl), lockName) == 0) {
+            return OptionalLong.empty();
+        }
+        List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT fencing_token FROM cluster_lock WHERE lock_name = ? AND owner = ?",
+                Long.class, lockName, owner);
+        return tokens.isEmpty() ? OptionalLong.empty() : OptionalLong.of(tokens.getFirst());
+    }
+
+    /**
+     * Extends a lock that is still held under {@code token}.
+     *
+     * @return false if the lock expired or changed hands, in which case it must be acquired again
+     */
+    public boolean renew(String lockName, String owner, long token, Duration ttl) {
+        return jdbcTemplate.update(RENEW, micros(ttl), lockName, owner, token) == 1;
+    }
+
+    public void release(String lockName, String owner, long token) {
+        jdbcTemplate.update("UPDATE cluster_lock SET owner = NULL WHERE lock_name = ? AND owner = ? AND fencing_token = ?",
+                lockName, owner, token);
+    }
+
+    private static long micros(Duration duration) {
+        return duration.toNanos() / 1000;
+    }
+}
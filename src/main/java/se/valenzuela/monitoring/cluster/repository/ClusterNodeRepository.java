@@ -0,0 +1,54 @@
+package se.valenzuela.monitoring.cluster.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the {@code cluster_node} membership table. Every timestamp is taken
+ * from the database clock, so liveness never depends on the nodes' clocks agreeing.
+ */
+@Repository
+public class ClusterNodeRepository {
+
+    private static final String HEARTBEAT = """
+            INSERT INTO cluster_node (node_id, started_at, heartbeat_at) VALUES (?, NOW(6), NOW(6))
+            ON DUPLICATE KEY UPDATE heartbeat_at = NOW(6)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClusterNodeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the node's row on its first heartbeat and refreshes it afterwards.
+     */
+    public void heartbeat(String nodeId) {
+        jdbcTemplate.update(HEARTBEAT, nodeId);
+    }
+
+    /**
+     * Nodes that sent a heartbeat within {@code timeout}, ordered by id.
+     */
+    public List<String> findLiveNodeIds(Duration timeout) {
+        return jdbcTemplate.queryForList(
+                "SELECT node_id FROM cluster_node WHERE heartbeat_at >= NOW(6) - INTERVAL ? MICROSECOND ORDER BY node_id",
+                String.class, micros(timeout));
+    }
+
+    public int deleteSilentSince(Duration age) {
+        return jdbcTemplate.update("DELETE FROM cluster_node WHERE heartbeat_at < NOW(6) - INTERVAL ? MICROSECOND",
+                micros(age));
+    }
+
+    public void delete(String nodeId) {
+        jdbcTemplate.update("DELETE FROM cluster_node WHERE node_id = ?", nodeId);
+    }
+
+    private static long micros(Duration duration) {
+        return duration.toNanos() / 1000;
+    }
+}
@@ -0,0 +1,21 @@
+package se.valenzuela.monitoring.cluster.repository;
+
+/**
+ * Proof of holding a {@code cluster_lock}, carried into the statements of jobs that only the
+ * holder may run. Such a statement adds {@link #CONDITION} to its WHERE clause and binds
+ * {@link #lockName()} twice and then {@link #token()}, so the database itself refuses the
+ * write once the lock has expired or moved to another node, however long this node was
+ * paused between checking its leadership and writing.
+ *
+ * @param lockName the lock the writer holds, or {@code null} for {@link #NONE}
+ * @param token    the fencing token the lock was acquired with
+ */
+public record Fence(String lockName, long token) {
+
+    /** For a node that runs without a cluster, whose writes need no guard. */
+    public static final Fence NONE = new Fence(null, 0);
+
+    public static final String CONDITION = """
+            (? IS NULL OR EXISTS (SELECT 1 FROM cluster_lock
+                WHERE lock_name = ? AND fencing_token = ? AND expires_at >= NOW(6)))""";
+}
@@ -0,0 +1,69 @@
+package se.valenzuela.monitoring.cluster.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Plain JDBC access to the {@code notification_claim} table, one row per service holding
+ * the health state and the flapping state that were last notified.
+ */
+@Repository
+public class NotificationClaimRepository {
+
+    private static final String INSERT = """
+            INSERT IGNORE INTO notification_claim (service_id, healthy, claimed_by, claimed_at)
+            VALUES (?, ?, ?, NOW(6))""";
+
+    private static final String FLIP = """
+            UPDATE notification_claim SET healthy = ?, claimed_by = ?, claimed_at = NOW(6)
+            WHERE service_id = ? AND healthy <> ?""";
+
+    private static final String INSERT_FLAPPING = """
+            INSERT IGNORE INTO notification_claim
+                (service_id, healthy, flapping, flapping_changed_at, claimed_by, claimed_at)
+            VALUES (?, ?, ?, ?, ?, NOW(6))""";
+
+    private static final String FLIP_FLAPPING = """
+            UPDATE notification_claim
+            SET flapping = ?, healthy = ?, flapping_changed_at = ?, claimed_by = ?, claimed_at = NOW(6)
+            WHERE service_id = ? AND flapping <> ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationClaimRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records that the service's change to {@code healthy} is being notified by {@code nodeId}.
+     *
+     * @return false if another node already claimed the same change
+     */
+    public boolean claim(long serviceId, boolean healthy, String nodeId) {
+        if (jdbcTemplate.update(INSERT, serviceId, healthy, nodeId) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update(FLIP, healthy, nodeId, serviceId, healthy) == 1;
+    }
+
+    /**
+     * Records that the service starting or stopping to flap at {@code changedAt} is being
+     * notified by {@code nodeId}, together with the health state it was in. That state is the
+     * one the next health transition is compared with, as the transitions while it flapped
+     * were not claimed.
+     *
+     * @return false if another node already claimed the same start or stop
+     */
+    public boolean claimFlapping(long serviceId, boolean flapping, boolean healthy, Instant changedAt,
+                                 String nodeId) {
+        Timestamp changedAtTimestamp = Timestamp.from(changedAt);
+        if (jdbcTemplate.update(INSERT_FLAPPING, serviceId, healthy, flapping, changedAtTimestamp, nodeId) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update(FLIP_FLAPPING, flapping, healthy, changedAtTimestamp, nodeId,
+                serviceId, flapping) == 1;
+    }
+}
@@ -0,0 +1,168 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.cluster.repository.ClusterNodeRepository;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.service.MonitoringService;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which services this node checks when several BootGuard nodes share a database.
+ * <p>
+ * Each node keeps its row in {@code cluster_node} fresh. From the rows that are still fresh,
+ * every node builds the same {@link HashRing} and checks only the services that hash to it.
+ * A node that joins, shuts down or stops heartbeating changes the ring on the next
+ * heartbeat, and its share of the services moves to its neighbours. Because each service
+ * is checked by one node, it is also notified by one node.
+ * <p>
+ * When clustering is disabled this node owns every service and the database is never
+ * touched.
+ */
+@Slf4j
+@Component
+public class ClusterMembership {
+
+    /** Rows silent for this many node timeouts are deleted rather than just ignored. */
+    private static final int PRUNE_AFTER_TIMEOUTS = 10;
+
+    private final ClusterNodeRepository repository;
+    private final MonitoringService monitoringService;
+    private final ClusterProperties properties;
+    private final String nodeId;
+    private final AtomicLong version = new AtomicLong();
+    private final Counter rebalances;
+    private volatile HashRing ring;
+
+    public ClusterMembership(ClusterNodeRepository repository, MonitoringService monitoringService,
+                             ClusterProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.monitoringService = monitoringService;
+        this.properties = properties;
+        this.nodeId = properties.nodeId() != null && !properties.nodeId().isBlank()
+                ? properties.nodeId() : defaultNodeId();
+        this.ring = HashRing.of(List.of(nodeId), properties.virtualNodes());
+        this.rebalances = Counter.builder("bootguard.cluster.rebalances")
+                .description("Membership changes that moved services between nodes")
+                .register(meterRegistry);
+        Gauge.builder("bootguard.cluster.nodes", this, membership -> membership.ring.nodes().size())
+                .description("Live BootGuard nodes sharing the health checks")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Set<String> getNodes() {
+        return ring.nodes();
+    }
+
+    /**
+     * Whether this node checks the service. Always true when clustering is disabled.
+     */
+    public boolean owns(MonitoredService service) {
+        return !properties.enabled() || service.getId() == null || nodeId.equals(ring.ownerOf(service.getId()));
+    }
+
+    /**
+     * Bumped whenever the ring changes, so the scheduler can cheaply tell that ownership moved.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Refreshes this node's row and rebuilds the ring if the set of live nodes changed. If the
+     * database cannot be reached the previous ring is kept. Other nodes may then take over
+     * this node's services before it notices, so for a short while a service can be checked
+     * twice, but it is never left unchecked.
+     */
+    @Scheduled(fixedDelayString = "${bootguard.cluster.heartbeat-interval:5000}")
+    public void heartbeat() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            repository.heartbeat(nodeId);
+            Set<String> live = new TreeSet<>(repository.findLiveNodeIds(properties.nodeTimeout()));
+            live.add(nodeId);
+            updateRing(live);
+            repository.deleteSilentSince(properties.nodeTimeout().multipliedBy(PRUNE_AFTER_TIMEOUTS));
+        } catch (Exception e) {
+            log.warn("Cluster heartbeat of node {} failed, keeping {} nodes: {}",
+                    nodeId, ring.nodes().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Picks up services that were registered or removed through other nodes. Every node needs
+     * the full service list to compute ownership and to serve the dashboard.
+     */
+    @Scheduled(fixedDelayString = "${bootguard.cluster.registry-sync-interval:30000}",
+            initialDelayString = "${bootguard.cluster.registry-sync-interval:30000}")
+    public void syncRegistry() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            monitoringService.syncRegistry();
+        } catch (Exception e) {
+            log.warn("Failed to sync the service registry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Leaves the cluster on shutdown, so the other nodes take over without waiting for the
+     * node timeout.
+     */
+    @PreDestroy
+    public void leave() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            repository.delete(nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to remove node {} from the cluster: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void updateRing(Set<String> live) {
+        Set<String> previous = ring.nodes();
+        if (previous.equals(live)) {
+            return;
+        }
+        ring = HashRing.of(live, properties.virtualNodes());
+        version.incrementAndGet();
+        rebalances.increment();
+        log.info("Cluster membership changed from {} to {} nodes: {}", previous.size(), live.size(), live);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
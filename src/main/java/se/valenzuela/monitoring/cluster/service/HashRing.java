@@ -0,0 +1,81 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring mapping service ids to node ids. Each node is placed on the
+ * ring at several points, and a key belongs to the first node point at or after the key's
+ * hash. When a node joins or leaves, only the keys next to its points change owner; every
+ * other service stays where it is.
+ * <p>
+ * The hashes depend only on the node ids and the number of points. Every node builds the
+ * same ring from the same membership, so they agree on ownership without coordinating.
+ */
+public final class HashRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final NavigableMap<Long, String> points;
+    private final Set<String> nodes;
+
+    private HashRing(NavigableMap<Long, String> points, Set<String> nodes) {
+        this.points = points;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @param virtualNodes points per node; at least one is always used
+     */
+    public static HashRing of(Collection<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        NavigableMap<Long, String> points = new TreeMap<>();
+        for (String nodeId : new TreeSet<>(nodeIds)) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                // On the rare collision the smaller node id keeps the point, on every node alike
+                points.putIfAbsent(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+        return new HashRing(points, Set.copyOf(nodeIds));
+    }
+
+    public String ownerOf(long key) {
+        Map.Entry<Long, String> entry = points.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : points.firstEntry().getValue();
+    }
+
+    public Set<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with {@link #mix} because FNV alone leaves
+     * similar ids ({@code node-1}, {@code node-2}) close together on the ring.
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads sequential service ids evenly over the ring.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,118 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.cluster.repository.ClusterLockRepository;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.config.ClusterProperties;
+
+import java.util.Optional;
+
+/**
+ * Elects one node of the cluster to run the jobs that must happen once cluster-wide: the
+ * history rollups and purges and the eviction of expired leases.
+ * <p>
+ * Leadership is the {@value #LEADER_LOCK} row in {@code cluster_lock}, held for
+ * {@code node-timeout} and renewed on every cluster heartbeat. Each new leader gets a higher
+ * fencing token. A node only considers itself leader until its lease would run out by its own
+ * clock, counted from before the last successful renewal. So a node that was paused, for
+ * example by a long GC, stops acting as leader before another node can take over. Because
+ * a pause can also fall between that check and a write, the singleton jobs write under the
+ * {@link Fence} from {@link #fence()}, which the database checks against the lock row.
+ * <p>
+ * When clustering is disabled this node is always the leader.
+ */
+@Slf4j
+@Component
+public class LeaderElection {
+
+    static final String LEADER_LOCK = "leader";
+
+    private final ClusterLockRepository repository;
+    private final ClusterMembership clusterMembership;
+    private final ClusterProperties properties;
+    private volatile long fencingToken;
+    private volatile long leaseDeadlineNanos;
+
+    public LeaderElection(ClusterLockRepository repository, ClusterMembership clusterMembership,
+                          ClusterProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.clusterMembership = clusterMembership;
+        this.properties = properties;
+        Gauge.builder("bootguard.cluster.leader", this, election -> election.isLeader() ? 1 : 0)
+                .description("1 while this node runs the cluster-wide singleton jobs")
+                .register(meterRegistry);
+    }
+
+    public boolean isLeader() {
+        return !properties.enabled() || (fencingToken != 0 && System.nanoTime() - leaseDeadlineNanos < 0);
+    }
+
+    /**
+     * The token leadership was acquired with, or 0 when this node is not leader.
+     */
+    public long getFencingToken() {
+        return isLeader() ? fencingToken : 0;
+    }
+
+    /**
+     * @return the fence the singleton jobs must write under, {@link Fence#NONE} when clustering
+     *         is disabled, or empty when this node is not leader
+     */
+    public Optional<Fence> fence() {
+        if (!properties.enabled()) {
+            return Optional.of(Fence.NONE);
+        }
+        long token = getFencingToken();
+        return token != 0 ? Optional.of(new Fence(LEADER_LOCK, token)) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${bootguard.cluster.heartbeat-interval:5000}")
+    public void renewOrAcquire() {
+        if (!properties.enabled()) {
+            return;
+        }
+        String nodeId = clusterMembership.getNodeId();
+        long startedNanos = System.nanoTime();
+        try {
+            long token = fencingToken;
+            if (token != 0 && repository.renew(LEADER_LOCK, nodeId, token, properties.nodeTimeout())) {
+                leaseDeadlineNanos = startedNanos + properties.nodeTimeout().toNanos();
+                return;
+            }
+            if (token != 0) {
+                log.info("Node {} lost leadership (token {})", nodeId, token);
+                fencingToken = 0;
+            }
+            repository.tryAcquire(LEADER_LOCK, nodeId, properties.nodeTimeout()).ifPresent(acquired -> {
+                leaseDeadlineNanos = startedNanos + properties.nodeTimeout().toNanos();
+                fencingToken = acquired;
+                log.info("Node {} is now leader (token {})", nodeId, acquired);
+            });
+        } catch (Exception e) {
+            // Leadership lapses by itself once the deadline passes without a renewal
+            log.warn("Leader election on node {} failed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Hands leadership over on shutdown instead of making the others wait for it to expire.
+     */
+    @PreDestroy
+    public void resign() {
+        long token = fencingToken;
+        if (!properties.enabled() || token == 0) {
+            return;
+        }
+        fencingToken = 0;
+        try {
+            repository.release(LEADER_LOCK, clusterMembership.getNodeId(), token);
+        } catch (Exception e) {
+            log.warn("Failed to release leadership: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.cluster.repository.NotificationClaimRepository;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
+import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+
+/**
+ * Makes sure a health transition, or a service starting or stopping to flap, is notified by
+ * one node, even when two nodes observed it, for instance while a service moves between nodes
+ * after a rebalance.
+ * <p>
+ * Without clustering every transition is claimed without touching the database.
+ */
+@Slf4j
+@Component
+public class TransitionClaims {
+
+    private final NotificationClaimRepository repository;
+    private final ClusterMembership clusterMembership;
+
+    public TransitionClaims(NotificationClaimRepository repository, ClusterMembership clusterMembership) {
+        this.repository = repository;
+        this.clusterMembership = clusterMembership;
+    }
+
+    /**
+     * @return whether this node should send the notifications for the transition. If the claim
+     *         cannot be recorded the answer is yes: a duplicate alert beats a lost one.
+     */
+    public boolean claim(ServiceHealthChangedEvent event) {
+        if (!clusterMembership.isEnabled() || event.service().getId() == null) {
+            return true;
+        }
+        try {
+            return repository.claim(event.service().getId(), event.currentlyHealthy(), clusterMembership.getNodeId());
+        } catch (Exception e) {
+            log.warn("Failed to claim health transition of service id={}, notifying anyway: {}",
+                    event.service().getId(), e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Claims a service starting or stopping to flap. The claim also records the state the
+     * service is in: its transitions were not claimed while it flapped, and the next one must
+     * be compared with the state it settled in, not the one before.
+     *
+     * @return whether this node should send the notifications for the change; yes if the claim
+     *         cannot be recorded
+     */
+    public boolean claimFlapping(ServiceFlappingEvent event) {
+        if (!clusterMembership.isEnabled() || event.service().getId() == null) {
+            return true;
+        }
+        try {
+            return repository.claimFlapping(event.service().getId(), event.flapping(), event.currentlyHealthy(),
+                    event.timestamp(), clusterMembership.getNodeId());
+        } catch (Exception e) {
+            log.warn("Failed to claim flapping change of service id={}, notifying anyway: {}",
+                    event.service().getId(), e.getMessage());
+            return true;
+        }
+    }
+}
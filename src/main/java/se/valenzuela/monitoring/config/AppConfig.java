@@ -1,8 +1,15 @@
 package se.valenzuela.monitoring.config;
 
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,26 +19,93 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestClient;
 
 import javax.net.ssl.*;
+import java.net.http.HttpClient;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 @Configuration
 @EnableScheduling
 @EnableAsync
+@EnableConfigurationProperties({HealthCheckProperties.class, HttpClientProperties.class, HistoryProperties.class,
+        LeaseProperties.class, ClusterProperties.class, TransitionProperties.class})
 public class AppConfig {
 
+    /**
+     * Threads the {@code async} probe client completes its requests on. The client does not
+     * close an executor it was given, so the context does, after closing the client.
+     */
+    private ExecutorService probeHttpClientExecutor;
+
+    @Bean
+    public RestClient probeRestClient(SslBundles sslBundles, HttpClientProperties properties)
+            throws NoSuchAlgorithmException, KeyStoreException {
+        return buildRestClient(sslBundles, properties.probe());
+    }
+
+    /**
+     * Non-blocking client for the {@code async} probe engine. It has no pool limits of its own;
+     * the probe executor's permits bound the requests in flight.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "bootguard.probe.engine", havingValue = "async")
+    public HttpClient probeHttpClient(SslBundles sslBundles, HttpClientProperties properties)
+            throws NoSuchAlgorithmException, KeyStoreException {
+        probeHttpClientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .sslContext(buildCompositeSslContext(sslBundles))
+                .connectTimeout(properties.probe().connectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(probeHttpClientExecutor)
+                .build();
+    }
+
+    /**
+     * Runs after the client's own close, since beans are destroyed before the configuration
+     * that created them.
+     */
+    @PreDestroy
+    void closeProbeHttpClientExecutor() {
+        if (probeHttpClientExecutor != null) {
+            probeHttpClientExecutor.close();
+        }
+    }
+
     @Bean
-    public RestClient restClient(SslBundles sslBundles) throws NoSuchAlgorithmException, KeyStoreException {
+    public RestClient notificationRestClient(SslBundles sslBundles, HttpClientProperties properties)
+            throws NoSuchAlgorithmException, KeyStoreException {
+        return buildRestClient(sslBundles, properties.notification());
+    }
+
+    private RestClient buildRestClient(SslBundles sslBundles, HttpClientProperties.Client client)
+            throws NoSuchAlgorithmException, KeyStoreException {
         SSLContext sslContext = buildCompositeSslContext(sslBundles);
         var tlsStrategy = new DefaultClientTlsStrategy(sslContext);
+        var connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(client.connectTimeout().toMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(client.readTimeout().toMillis()))
+                .setTimeToLive(TimeValue.ofMilliseconds(client.timeToLive().toMillis()))
+                .build();
         var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
                 .setTlsSocketStrategy(tlsStrategy)
+                .setDefaultConnectionConfig(connectionConfig)
+                .setMaxConnTotal(client.maxTotal())
+                .setMaxConnPerRoute(client.maxPerRoute())
+                .build();
+        var requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(client.connectionRequestTimeout().toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(client.readTimeout().toMillis()))
                 .build();
         var httpClient = HttpClients.custom()
                 .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(client.idleEviction().toMillis()))
                 .build();
         var requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
         return RestClient.builder().requestFactory(requestFactory).build();
@@ -0,0 +1,24 @@
+package se.valenzuela.monitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Cluster settings, bound from {@code bootguard.cluster.*}.
+ *
+ * @param enabled      whether health checks are partitioned across the nodes sharing the database;
+ *                     when disabled every node checks every service
+ * @param nodeId       this node's name in the {@code cluster_node} table; defaults to the host name
+ *                     plus a random suffix, so a restarted node joins as a new member
+ * @param nodeTimeout  how long a node may miss heartbeats before its services move to other nodes
+ * @param virtualNodes points per node on the hash ring; more points spread services more evenly
+ */
+@ConfigurationProperties("bootguard.cluster")
+public record ClusterProperties(
+        @DefaultValue("false") boolean enabled,
+        String nodeId,
+        @DefaultValue("15s") Duration nodeTimeout,
+        @DefaultValue("128") int virtualNodes) {
+}
@@ -0,0 +1,58 @@
+package se.valenzuela.monitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Tuning for the health check scheduler and probe executor, bound from {@code bootguard.health-check.*}.
+ *
+ * @param jitter                 fraction of a service's interval added as a random offset to each deadline,
+ *                               so services registered together drift apart instead of being probed in bursts
+ * @param maxConcurrency         upper bound on probes in flight across all monitored services
+ * @param maxConcurrencyPerHost  upper bound on probes in flight against a single host
+ * @param infoRefreshInterval    how long a service's name and version are trusted before the info
+ *                               endpoint is probed again alongside the health endpoint
+ * @param manualRefreshInterval  minimum time between two user-requested refreshes of every service;
+ *                               requests in between share the previous refresh
+ * @param probeResultTtl         how long a completed probe of a service is shared with callers that ask
+ *                               for the same service again, on top of sharing probes that are in flight
+ * @param tickInterval           delay between scheduler ticks; a round that takes longer than this is
+ *                               counted as an overrun, since deadlines after it slip
+ * @param heartbeatTimeoutFactor how many heartbeat intervals a push service may stay silent before
+ *                               it is considered DOWN
+ * @param adaptive               how a pull service's interval follows its recent health
+ */
+@ConfigurationProperties("bootguard.health-check")
+public record HealthCheckProperties(
+        @DefaultValue("0.1") double jitter,
+        @DefaultValue("64") int maxConcurrency,
+        @DefaultValue("8") int maxConcurrencyPerHost,
+        @DefaultValue("10m") Duration infoRefreshInterval,
+        @DefaultValue("10s") Duration manualRefreshInterval,
+        @DefaultValue("2s") Duration probeResultTtl,
+        @DefaultValue("1000ms") Duration tickInterval,
+        @DefaultValue("3") double heartbeatTimeoutFactor,
+        @DefaultValue Adaptive adaptive) {
+
+    /**
+     * Adaptive intervals, bound from {@code bootguard.health-check.adaptive.*}. A service's
+     * configured interval stays the reference: stable services stretch it, failing ones shorten it.
+     *
+     * @param enabled        whether intervals adapt; when disabled every service is checked at its
+     *                       configured interval
+     * @param stableAfter    time a healthy service must go without a state change before its interval
+     *                       doubles; it doubles again after every further {@code stableAfter}
+     * @param maxInterval    longest interval a stable service backs off to
+     * @param failureRecheck delay before re-checking a service whose last check failed, or whose
+     *                       recovery is not confirmed yet; it doubles with every further failure
+     *                       until it reaches the configured interval
+     */
+    public record Adaptive(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("1h") Duration stableAfter,
+            @DefaultValue("5m") Duration maxInterval,
+            @DefaultValue("5s") Duration failureRecheck) {
+    }
+}
@@ -0,0 +1,29 @@
+package se.valenzuela.monitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Health check history settings, bound from {@code bootguard.history.*}.
+ *
+ * @param enabled            whether probe outcomes are recorded at all
+ * @param maxBufferedSamples samples held in memory between flushes; further samples are dropped
+ *                           (and counted) if the database cannot keep up
+ * @param batchSize          rows per JDBC batch insert
+ * @param rawRetention       how long individual samples are kept
+ * @param minuteRetention    how long 1-minute rollups are kept
+ * @param hourRetention      how long 1-hour rollups are kept
+ * @param dayRetention       how long 1-day rollups are kept
+ */
+@ConfigurationProperties("bootguard.history")
+public record HistoryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maxBufferedSamples,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("2d") Duration rawRetention,
+        @DefaultValue("14d") Duration minuteRetention,
+        @DefaultValue("90d") Duration hourRetention,
+        @DefaultValue("730d") Duration dayRetention) {
+}
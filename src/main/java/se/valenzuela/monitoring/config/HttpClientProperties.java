@@ -0,0 +1,40 @@
+package se.valenzuela.monitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeout settings for the outbound HTTP clients, bound from {@code bootguard.http.*}.
+ * Probes against monitored services and notification webhooks use separate pools so a slow
+ * Slack webhook can never starve health checks of connections, and vice versa.
+ */
+@ConfigurationProperties("bootguard.http")
+public record HttpClientProperties(
+        @DefaultValue Client probe,
+        @DefaultValue Client notification) {
+
+    /**
+     * @param maxTotal                 connections kept in the pool across all routes
+     * @param maxPerRoute              connections kept in the pool per target host and port
+     * @param connectTimeout           time allowed to establish a TCP/TLS connection
+     * @param readTimeout              time allowed between response bytes, and for the response to start
+     * @param connectionRequestTimeout time a request may wait for a pooled connection
+     * @param idleEviction             idle connections older than this are closed in the background
+     * @param timeToLive               connections are never reused past this age
+     * @param maxBodySize              responses with a larger body fail instead of being buffered;
+     *                                 applies to the async probe engine, which buffers whole bodies
+     */
+    public record Client(
+            @DefaultValue("100") int maxTotal,
+            @DefaultValue("20") int maxPerRoute,
+            @DefaultValue("2s") Duration connectTimeout,
+            @DefaultValue("5s") Duration readTimeout,
+            @DefaultValue("5s") Duration connectionRequestTimeout,
+            @DefaultValue("30s") Duration idleEviction,
+            @DefaultValue("5m") Duration timeToLive,
+            @DefaultValue("1MB") DataSize maxBodySize) {
+    }
+}
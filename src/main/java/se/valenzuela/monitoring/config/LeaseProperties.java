@@ -0,0 +1,15 @@
+package se.valenzuela.monitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Lease settings for self-registered services, bound from {@code bootguard.lease.*}.
+ *
+ * @param batchSize rows per JDBC batch when renewals are written, and services per delete when
+ *                  expired ones are evicted
+ */
+@ConfigurationProperties("bootguard.lease")
+public record LeaseProperties(
+        @DefaultValue("500") int batchSize) {
+}
@@ -0,0 +1,28 @@
+package se.valenzuela.monitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * When an observed health change becomes a notified transition, bound from
+ * {@code bootguard.transitions.*}. Windows count checks, up to 64 of them.
+ *
+ * @param failureThreshold  failed checks within the last {@code failureWindow} checks before an UP
+ *                          service is considered DOWN
+ * @param failureWindow     checks that {@code failureThreshold} is counted over
+ * @param recoveryThreshold consecutive successful checks before a DOWN service is considered UP again
+ * @param flapWindow        checks the state-change rate is measured over; below 2 disables flap detection
+ * @param flapStartRate     share of the checks in the window that changed state at which a service
+ *                          starts flapping and its UP/DOWN notifications are held back
+ * @param flapStopRate      change rate below which a flapping service is considered settled again;
+ *                          lower than {@code flapStartRate} so a service on the edge does not toggle
+ */
+@ConfigurationProperties("bootguard.transitions")
+public record TransitionProperties(
+        @DefaultValue("3") int failureThreshold,
+        @DefaultValue("5") int failureWindow,
+        @DefaultValue("2") int recoveryThreshold,
+        @DefaultValue("20") int flapWindow,
+        @DefaultValue("0.5") double flapStartRate,
+        @DefaultValue("0.25") double flapStopRate) {
+}
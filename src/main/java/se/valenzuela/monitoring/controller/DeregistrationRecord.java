@@ -0,0 +1,9 @@
+package se.valenzuela.monitoring.controller;
+
+import jakarta.validation.constraints.NotBlank;
+import org.hibernate.validator.constraints.URL;
+
+public record DeregistrationRecord(
+        @NotBlank @URL String url) {
+
+}
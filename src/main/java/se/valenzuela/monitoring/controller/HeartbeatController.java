@@ -0,0 +1,29 @@
+package se.valenzuela.monitoring.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import se.valenzuela.monitoring.core.service.MonitoringService;
+
+/**
+ * Push-mode health reporting: services post their own status on an interval instead of being
+ * polled, which also works for services BootGuard cannot reach.
+ */
+@RestController
+public class HeartbeatController {
+
+    private final MonitoringService monitoringService;
+
+    public HeartbeatController(MonitoringService monitoringService) {
+        this.monitoringService = monitoringService;
+    }
+
+    @PostMapping("/heartbeat")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void heartbeat(@Valid @RequestBody HeartbeatRecord heartbeat) {
+        monitoringService.recordHeartbeat(heartbeat.toHeartbeat());
+    }
+}
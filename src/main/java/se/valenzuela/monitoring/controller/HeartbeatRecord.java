@@ -0,0 +1,22 @@
+package se.valenzuela.monitoring.controller;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import org.hibernate.validator.constraints.URL;
+import se.valenzuela.monitoring.core.service.Heartbeat;
+
+import java.util.Map;
+
+public record HeartbeatRecord(
+        @NotBlank @URL String url,
+        @NotBlank String status,
+        Map<String, @NotBlank String> components,
+        String name,
+        String version,
+        @Positive Integer intervalSeconds,
+        @Positive Integer leaseSeconds) {
+
+    Heartbeat toHeartbeat() {
+        return new Heartbeat(url, status, components, name, version, intervalSeconds, leaseSeconds);
+    }
+}
@@ -1,26 +1,101 @@
 package se.valenzuela.monitoring.controller;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import se.valenzuela.monitoring.core.service.MonitoringService;
+import se.valenzuela.monitoring.core.service.RegistrationResult;
+import se.valenzuela.monitoring.core.service.ServiceRegistration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
 public class ServiceRegistrationController {
 
+    static final int MAX_BATCH_SIZE = 5000;
+
     private final MonitoringService monitoringService;
+    private final Validator validator;
 
-    public ServiceRegistrationController(MonitoringService monitoringService) {
+    public ServiceRegistrationController(MonitoringService monitoringService, Validator validator) {
         this.monitoringService = monitoringService;
+        this.validator = validator;
     }
 
+    /**
+     * Stores the service and returns 202 without calling it back; its name and version are
+     * fetched in the background. Registering again renews the service's lease.
+     */
     @PostMapping("/register")
+    @ResponseStatus(HttpStatus.ACCEPTED)
     public void register(@Valid @RequestBody ServiceRegistrationRecord service) {
         log.info("Register service: {}", service);
-        monitoringService.addService(service.url());
+        monitoringService.addService(service.url(), service.leaseSeconds());
+    }
+
+    /**
+     * Registers many services in one request. Entries are validated one by one, so a bad
+     * entry is reported in its result instead of rejecting the whole batch.
+     *
+     * @return one result per entry, in request order
+     */
+    @PostMapping("/register/batch")
+    public List<RegistrationResult> registerBatch(
+            @Size(max = MAX_BATCH_SIZE) @RequestBody List<ServiceRegistrationRecord> services) {
+        log.info("Register batch of {} services", services.size());
+        RegistrationResult[] results = new RegistrationResult[services.size()];
+        List<ServiceRegistration> valid = new ArrayList<>();
+        for (int i = 0; i < services.size(); i++) {
+            ServiceRegistrationRecord service = services.get(i);
+            String violations = service != null ? violations(service) : "entry is null";
+            if (violations.isEmpty()) {
+                valid.add(service.toRegistration());
+            } else {
+                results[i] = RegistrationResult.invalid(service != null ? service.url() : null, violations);
+            }
+        }
+
+        Iterator<RegistrationResult> registered = monitoringService.addServices(valid).iterator();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = registered.next();
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Removes the service registered under the URL, for instances shutting down cleanly.
+     *
+     * @return 204 if it was removed, 404 if no service is registered under the URL
+     */
+    @PostMapping("/deregister")
+    public ResponseEntity<Void> deregister(@Valid @RequestBody DeregistrationRecord service) {
+        log.info("Deregister service: {}", service);
+        return monitoringService.deregister(service.url())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
+    private String violations(ServiceRegistrationRecord service) {
+        Set<ConstraintViolation<ServiceRegistrationRecord>> violations = validator.validate(service);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
 }
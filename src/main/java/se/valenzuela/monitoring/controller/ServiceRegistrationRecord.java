@@ -1,9 +1,15 @@
 package se.valenzuela.monitoring.controller;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import org.hibernate.validator.constraints.URL;
+import se.valenzuela.monitoring.core.service.ServiceRegistration;
 
 public record ServiceRegistrationRecord(
-        @NotBlank @URL String url) {
+        @NotBlank @URL String url,
+        @Positive Integer leaseSeconds) {
 
+    ServiceRegistration toRegistration() {
+        return new ServiceRegistration(url, leaseSeconds);
+    }
 }
@@ -0,0 +1,10 @@
+package se.valenzuela.monitoring.core.client;
+
+/**
+ * Outcome of one request to a health endpoint.
+ *
+ * @param httpStatus status code of the response
+ * @param summary    decoded body, or {@code null} if the body could not be decoded
+ */
+public record HealthProbeResult(int httpStatus, HealthSummary summary) {
+}
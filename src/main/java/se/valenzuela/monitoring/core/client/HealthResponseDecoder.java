@@ -0,0 +1,138 @@
+package se.valenzuela.monitoring.core.client;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token-level decoder for actuator health responses.
+ * <p>
+ * Reads only the overall status, each component's status and the certificate expiry dates
+ * of the ssl component; everything else (disk space, datasource details, full certificate
+ * entries) is skipped without being materialised. Use {@link HealthEndpointResponse} when
+ * the whole tree is needed.
+ */
+public final class HealthResponseDecoder {
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+    private static final String SSL_COMPONENT = "ssl";
+    private static final Set<String> CHAIN_TYPES = Set.of("validChains", "expiringChains", "invalidChains");
+
+    private final JsonParser parser;
+    private final Map<String, String> components = new LinkedHashMap<>();
+    private String status;
+    private Instant earliestCertExpiry;
+
+    private HealthResponseDecoder(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    public static HealthSummary decode(InputStream body) {
+        try (JsonParser parser = JSON_MAPPER.createParser(body)) {
+            return new HealthResponseDecoder(parser).readRoot();
+        }
+    }
+
+    public static HealthSummary decode(byte[] body) {
+        try (JsonParser parser = JSON_MAPPER.createParser(body)) {
+            return new HealthResponseDecoder(parser).readRoot();
+        }
+    }
+
+    private HealthSummary readRoot() {
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("status".equals(name) && value == JsonToken.VALUE_STRING) {
+                    status = parser.getString();
+                } else if ("components".equals(name) && value == JsonToken.START_OBJECT) {
+                    readComponents();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new HealthSummary(status, components, earliestCertExpiry);
+    }
+
+    private void readComponents() {
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String component = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("status".equals(name) && value == JsonToken.VALUE_STRING) {
+                    components.put(component, parser.getString());
+                } else if ("details".equals(name) && value == JsonToken.START_OBJECT
+                        && SSL_COMPONENT.equals(component)) {
+                    readSslDetails();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readSslDetails() {
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (CHAIN_TYPES.contains(name) && value == JsonToken.START_ARRAY) {
+                scanValidityEnds();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Walks the array the parser is positioned at, up to its matching end token, and keeps
+     * the earliest {@code validityEnds} value found at any depth.
+     */
+    private void scanValidityEnds() {
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return;
+            }
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> depth++;
+                case END_OBJECT, END_ARRAY -> depth--;
+                case PROPERTY_NAME -> {
+                    if ("validityEnds".equals(parser.currentName())) {
+                        if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                            keepEarliest(parser.getString());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void keepEarliest(String validityEnds) {
+        try {
+            Instant expiry = Instant.parse(validityEnds);
+            if (earliestCertExpiry == null || expiry.isBefore(earliestCertExpiry)) {
+                earliestCertExpiry = expiry;
+            }
+        } catch (DateTimeParseException ignored) {
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package se.valenzuela.monitoring.core.client;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The parts of an actuator health response needed on every poll.
+ *
+ * @param status             overall status, or {@code null} if the body had none
+ * @param components         status of each top-level component, in response order
+ * @param earliestCertExpiry earliest {@code validityEnds} across the ssl component's chains, or {@code null}
+ */
+public record HealthSummary(String status, Map<String, String> components, Instant earliestCertExpiry) {
+}
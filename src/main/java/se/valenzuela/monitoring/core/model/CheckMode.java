@@ -0,0 +1,11 @@
+package se.valenzuela.monitoring.core.model;
+
+/**
+ * How BootGuard learns a service's health.
+ */
+public enum CheckMode {
+    /** BootGuard polls the service's health endpoint. */
+    PULL,
+    /** The service posts heartbeats; missing ones count as DOWN. */
+    PUSH
+}
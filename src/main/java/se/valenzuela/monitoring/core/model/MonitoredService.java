@@ -7,6 +7,7 @@ import se.valenzuela.monitoring.core.client.InfoEndpointResponse;
 
 import java.time.Instant;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -33,18 +34,33 @@ public class MonitoredService {
     @Transient
     private boolean infoStatus;
 
+    @Transient
+    private Instant infoCheckedAt;
+
     @Transient
     private boolean healthStatus;
 
     @Transient
     private String healthResponseStatus;
 
+    @Transient
+    private Integer healthHttpStatus;
+
+    @Transient
+    private Map<String, String> healthComponents = Map.of();
+
+    @Transient
+    private long healthLatencyMillis;
+
     @Transient
     private Instant earliestCertExpiry;
 
     @Transient
     private boolean certExpiringSoon;
 
+    @Transient
+    private boolean flapping;
+
     @Column(nullable = false)
     private String infoEndpoint;
 
@@ -54,6 +70,22 @@ public class MonitoredService {
     @Column(name = "health_check_interval_seconds")
     private Integer healthCheckIntervalSeconds;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CheckMode checkMode = CheckMode.PULL;
+
+    @Column(name = "heartbeat_interval_seconds")
+    private Integer heartbeatIntervalSeconds;
+
+    @Transient
+    private Instant lastHeartbeatAt;
+
+    @Column(name = "lease_seconds")
+    private Integer leaseSeconds;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "service_environment",
             joinColumns = @JoinColumn(name = "service_id"),
@@ -76,7 +108,51 @@ public class MonitoredService {
         this.lastUpdated = Instant.now();
     }
 
+    /**
+     * @return a detached copy to edit, with the persisted fields, the environments and what the
+     * checks observed, so a form can change it freely and hand it to a single save
+     */
+    public MonitoredService copy() {
+        var copy = new MonitoredService();
+        copy.id = id;
+        copy.url = url;
+        copy.name = name;
+        copy.version = version;
+        copy.lastUpdated = lastUpdated;
+        copy.infoEndpoint = infoEndpoint;
+        copy.healthEndpoint = healthEndpoint;
+        copy.healthCheckIntervalSeconds = healthCheckIntervalSeconds;
+        copy.checkMode = checkMode;
+        copy.heartbeatIntervalSeconds = heartbeatIntervalSeconds;
+        copy.leaseSeconds = leaseSeconds;
+        copy.leaseExpiresAt = leaseExpiresAt;
+        copy.environments = new HashSet<>(environments);
+        copy.copyObservedState(this);
+        return copy;
+    }
+
+    /**
+     * Copies what the last checks observed, none of which is persisted, from another instance
+     * of the same service, e.g. onto the entity a merge returned.
+     */
+    public void copyObservedState(MonitoredService other) {
+        this.infoStatus = other.infoStatus;
+        this.infoCheckedAt = other.infoCheckedAt;
+        this.healthStatus = other.healthStatus;
+        this.healthResponseStatus = other.healthResponseStatus;
+        this.healthHttpStatus = other.healthHttpStatus;
+        this.healthComponents = other.healthComponents;
+        this.healthLatencyMillis = other.healthLatencyMillis;
+        this.earliestCertExpiry = other.earliestCertExpiry;
+        this.certExpiringSoon = other.certExpiringSoon;
+        this.flapping = other.flapping;
+        this.lastHeartbeatAt = other.lastHeartbeatAt;
+    }
+
     public int getEffectiveHealthCheckIntervalSeconds() {
+        if (checkMode == CheckMode.PUSH && heartbeatIntervalSeconds != null) {
+            return heartbeatIntervalSeconds;
+        }
         if (healthCheckIntervalSeconds != null) {
             return healthCheckIntervalSeconds;
         }
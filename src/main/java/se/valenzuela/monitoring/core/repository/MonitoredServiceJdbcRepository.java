@@ -0,0 +1,130 @@
+package se.valenzuela.monitoring.core.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain JDBC access to {@code monitored_service} for bulk registration, lease and heartbeat
+ * updates and eviction, where saving one entity at a time would cost a round trip per service.
+ */
+@Repository
+public class MonitoredServiceJdbcRepository {
+
+    /**
+     * {@code IGNORE} turns a URL registered concurrently by another request or instance into a
+     * no-op instead of failing the whole batch on the unique key.
+     */
+    private static final String INSERT_SERVICE = """
+            INSERT IGNORE INTO monitored_service (url, name, version, last_updated, info_endpoint, health_endpoint,
+                health_check_interval_seconds, lease_seconds, lease_expires_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String UPDATE_LEASE = """
+            UPDATE monitored_service SET lease_seconds = ?, lease_expires_at = ? WHERE id = ?""";
+
+    /**
+     * Never moves a heartbeat back: another node may have stored a newer one since.
+     */
+    private static final String UPDATE_HEARTBEAT = """
+            UPDATE monitored_service SET last_heartbeat_at = ?, last_heartbeat_status = ?
+            WHERE id = ? AND (last_heartbeat_at IS NULL OR last_heartbeat_at < ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MonitoredServiceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<MonitoredService> services, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SERVICE, services, batchSize, (ps, service) -> {
+            ps.setString(1, service.getUrl());
+            ps.setString(2, service.getName());
+            ps.setString(3, service.getVersion());
+            ps.setTimestamp(4, timestamp(service.getLastUpdated()));
+            ps.setString(5, service.getInfoEndpoint());
+            ps.setString(6, service.getHealthEndpoint());
+            setNullableInt(ps, 7, service.getHealthCheckIntervalSeconds());
+            setNullableInt(ps, 8, service.getLeaseSeconds());
+            ps.setTimestamp(9, timestamp(service.getLeaseExpiresAt()));
+        });
+    }
+
+    /**
+     * Writes the current lease of each service, one batch statement per {@code batchSize} services.
+     */
+    public void updateLeases(List<MonitoredService> services, int batchSize) {
+        jdbcTemplate.batchUpdate(UPDATE_LEASE, services, batchSize, (ps, service) -> {
+            setNullableInt(ps, 1, service.getLeaseSeconds());
+            ps.setTimestamp(2, timestamp(service.getLeaseExpiresAt()));
+            ps.setLong(3, service.getId());
+        });
+    }
+
+    /**
+     * Stores the latest heartbeat of each service, one batch statement per {@code batchSize} heartbeats.
+     */
+    public void updateHeartbeats(List<ReceivedHeartbeat> heartbeats, int batchSize) {
+        jdbcTemplate.batchUpdate(UPDATE_HEARTBEAT, heartbeats, batchSize, (ps, heartbeat) -> {
+            ps.setTimestamp(1, timestamp(heartbeat.receivedAt()));
+            ps.setString(2, heartbeat.status());
+            ps.setLong(3, heartbeat.serviceId());
+            ps.setTimestamp(4, timestamp(heartbeat.receivedAt()));
+        });
+    }
+
+    /**
+     * @return the stored heartbeats of those of the given services that have sent one
+     */
+    public List<ReceivedHeartbeat> findHeartbeats(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query("SELECT id, last_heartbeat_at, last_heartbeat_status FROM monitored_service"
+                        + " WHERE id IN (" + placeholders + ") AND last_heartbeat_at IS NOT NULL",
+                (rs, _) -> new ReceivedHeartbeat(rs.getLong("id"), rs.getTimestamp("last_heartbeat_at").toInstant(),
+                        rs.getString("last_heartbeat_status")),
+                ids.toArray());
+    }
+
+    /**
+     * Deletes the given services in one statement, or nothing once {@code fence} no longer holds.
+     *
+     * @return the number of services deleted
+     */
+    public int deleteAll(List<Long> ids, Fence fence) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids);
+        args.add(fence.lockName());
+        args.add(fence.lockName());
+        args.add(fence.token());
+        return jdbcTemplate.update("DELETE FROM monitored_service WHERE id IN (" + placeholders + ") AND "
+                + Fence.CONDITION, args.toArray());
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
@@ -1,9 +1,14 @@
 package se.valenzuela.monitoring.core.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import se.valenzuela.monitoring.core.model.CheckMode;
 import se.valenzuela.monitoring.core.model.MonitoredService;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +23,17 @@ public interface MonitoredServiceRepository extends JpaRepository<MonitoredServi
 
     @Query("SELECT DISTINCT s FROM MonitoredService s LEFT JOIN FETCH s.environments")
     List<MonitoredService> findAllWithEnvironments();
+
+    @Query("SELECT DISTINCT s FROM MonitoredService s LEFT JOIN FETCH s.environments WHERE s.url IN :urls")
+    List<MonitoredService> findAllWithEnvironmentsByUrlIn(Collection<String> urls);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MonitoredService s SET s.name = :name, s.version = :version, s.lastUpdated = :lastUpdated WHERE s.id = :id")
+    int updateInfo(Long id, String name, String version, Instant lastUpdated);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MonitoredService s SET s.checkMode = :checkMode, s.heartbeatIntervalSeconds = :heartbeatIntervalSeconds WHERE s.id = :id")
+    int updateHeartbeatSettings(Long id, CheckMode checkMode, Integer heartbeatIntervalSeconds);
 }
@@ -0,0 +1,12 @@
+package se.valenzuela.monitoring.core.repository;
+
+import java.time.Instant;
+
+/**
+ * The latest heartbeat a node received from a push-mode service, as stored for the other nodes.
+ *
+ * @param serviceId  the service that sent it
+ * @param receivedAt when it arrived
+ * @param status     the overall health status it reported, upper case
+ */
+public record ReceivedHeartbeat(long serviceId, Instant receivedAt, String status) {}
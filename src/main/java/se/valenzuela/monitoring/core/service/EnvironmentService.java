@@ -16,11 +16,14 @@ public class EnvironmentService {
 
     private final EnvironmentRepository environmentRepository;
     private final MonitoredServiceRepository serviceRepository;
+    private final ServiceRegistry registry;
 
     public EnvironmentService(EnvironmentRepository environmentRepository,
-                              MonitoredServiceRepository serviceRepository) {
+                              MonitoredServiceRepository serviceRepository,
+                              ServiceRegistry registry) {
         this.environmentRepository = environmentRepository;
         this.serviceRepository = serviceRepository;
+        this.registry = registry;
     }
 
     public List<Environment> getAllEnvironments() {
@@ -33,24 +36,39 @@ public class EnvironmentService {
     }
 
     public Environment updateEnvironment(Environment environment) {
-        return environmentRepository.save(environment);
+        Environment saved = environmentRepository.save(environment);
+        registry.environmentUpdated(saved);
+        return saved;
     }
 
     public void deleteEnvironment(Environment environment) {
         environmentRepository.delete(environment);
+        registry.environmentRemoved(environment);
     }
 
     public boolean existsByName(String name) {
         return environmentRepository.existsByName(name);
     }
 
+    /**
+     * Replaces the service's environments and registers the saved entity in place of the
+     * instance the registry held, carrying over what the checks observed.
+     *
+     * @return the saved service
+     */
     @Transactional
-    public void updateServiceEnvironments(MonitoredService service, Set<Environment> environments) {
+    public MonitoredService updateServiceEnvironments(MonitoredService service, Set<Environment> environments) {
         MonitoredService managed = serviceRepository.findByIdWithEnvironments(service.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Service not found: " + service.getId()));
         managed.getEnvironments().clear();
         managed.getEnvironments().addAll(environments);
-        serviceRepository.save(managed);
+        MonitoredService saved = serviceRepository.save(managed);
+        MonitoredService observed = registry.get(saved.getId()).orElse(service);
+        if (observed != saved) {
+            saved.copyObservedState(observed);
+        }
+        registry.put(saved);
+        return saved;
     }
 
     @Transactional(readOnly = true)
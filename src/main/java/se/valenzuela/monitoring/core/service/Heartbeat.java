@@ -0,0 +1,22 @@
+package se.valenzuela.monitoring.core.service;
+
+import java.util.Map;
+
+/**
+ * Health reported by a push-mode service itself.
+ *
+ * @param url             the service's registered URL, which identifies it
+ * @param status          overall health status, e.g. {@code UP} or {@code DOWN}
+ * @param components      status per health component; may be empty
+ * @param name            application name, or {@code null} to keep the known one
+ * @param version         application version, or {@code null} to keep the known one
+ * @param intervalSeconds how often the service sends heartbeats, or {@code null} to keep the known interval
+ * @param leaseSeconds    lease length to renew the registration with, or {@code null} to keep the known one
+ */
+public record Heartbeat(String url, String status, Map<String, String> components,
+                        String name, String version, Integer intervalSeconds, Integer leaseSeconds) {
+
+    public Heartbeat {
+        components = components != null ? Map.copyOf(components) : Map.of();
+    }
+}
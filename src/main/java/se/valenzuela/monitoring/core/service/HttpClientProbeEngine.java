@@ -0,0 +1,150 @@
+package se.valenzuela.monitoring.core.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.config.HttpClientProperties;
+import se.valenzuela.monitoring.core.client.HealthProbeResult;
+import se.valenzuela.monitoring.core.client.HealthResponseDecoder;
+import se.valenzuela.monitoring.core.client.HealthSummary;
+import se.valenzuela.monitoring.core.client.InfoEndpointResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Probes through the non-blocking {@code probeHttpClient}, which negotiates HTTP/2 where the
+ * target supports it so concurrent probes against one host share a connection.
+ * <p>
+ * No thread is held while a request is in flight: {@link ProbeExecutor#submitAsync} keeps the
+ * concurrency permits until the response arrives, which also bounds the number of buffered
+ * response bodies. Each body is capped at {@code bootguard.http.probe.max-body-size}; a larger
+ * one fails the probe rather than being held in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "bootguard.probe.engine", havingValue = "async")
+public class HttpClientProbeEngine implements ProbeEngine {
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+    private final HttpClient httpClient;
+    private final ProbeExecutor probeExecutor;
+    private final Duration readTimeout;
+    private final long maxBodyBytes;
+
+    public HttpClientProbeEngine(@Qualifier("probeHttpClient") HttpClient httpClient, ProbeExecutor probeExecutor,
+                                 HttpClientProperties properties) {
+        this.httpClient = httpClient;
+        this.probeExecutor = probeExecutor;
+        this.readTimeout = properties.probe().readTimeout();
+        this.maxBodyBytes = properties.probe().maxBodySize().toBytes();
+    }
+
+    @Override
+    public CompletableFuture<HealthProbeResult> fetchHealth(String url, ProbeTimer timer) {
+        return send(url, timer).thenApply(response -> {
+            HealthSummary summary;
+            try {
+                summary = HealthResponseDecoder.decode(response.body());
+            } catch (RuntimeException e) {
+                summary = null;
+            }
+            return new HealthProbeResult(response.statusCode(), summary);
+        });
+    }
+
+    @Override
+    public CompletableFuture<InfoEndpointResponse> fetchInfo(String url, ProbeTimer timer) {
+        return send(url, timer).thenApply(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Info endpoint " + url + " returned " + response.statusCode());
+            }
+            return JSON_MAPPER.readValue(response.body(), InfoEndpointResponse.class);
+        });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(String url, ProbeTimer timer) {
+        return probeExecutor.submitAsync(url, timer, () -> {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(readTimeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            return httpClient.sendAsync(request, _ -> new LimitedBodySubscriber(maxBodyBytes));
+        });
+    }
+
+    /**
+     * Buffers the body like {@link HttpResponse.BodySubscribers#ofByteArray()}, but cancels the
+     * response and fails once more than {@code maxBytes} have arrived.
+     */
+    private static final class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final long maxBytes;
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long received;
+
+        LimitedBodySubscriber(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                received += item.remaining();
+                buffers.add(item);
+            }
+            if (received > maxBytes) {
+                subscription.cancel();
+                buffers.clear();
+                body.completeExceptionally(new IOException("Response body exceeds " + maxBytes + " bytes"));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            buffers.clear();
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            byte[] bytes = new byte[(int) received];
+            int offset = 0;
+            for (ByteBuffer buffer : buffers) {
+                int length = buffer.remaining();
+                buffer.get(bytes, offset, length);
+                offset += length;
+            }
+            buffers.clear();
+            body.complete(bytes);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package se.valenzuela.monitoring.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.cluster.service.ClusterMembership;
+import se.valenzuela.monitoring.cluster.service.LeaderElection;
+import se.valenzuela.monitoring.config.LeaseProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Evicts services whose lease ran out, so instances that went away without deregistering
+ * stop being polled. Eviction works from the registry and deletes in batches. In a cluster
+ * only the leader evicts, under its fencing token, so every eviction is announced once even
+ * while nodes disagree about who owns which service.
+ */
+@Slf4j
+@Component
+public class LeaseReaper {
+
+    private final MonitoringService monitoringService;
+    private final ClusterMembership clusterMembership;
+    private final LeaderElection leaderElection;
+    private final LeaseProperties properties;
+    private final Counter evicted;
+    private final Instant startedAt = Instant.now();
+
+    public LeaseReaper(MonitoringService monitoringService, ClusterMembership clusterMembership,
+                       LeaderElection leaderElection, LeaseProperties properties, MeterRegistry meterRegistry) {
+        this.monitoringService = monitoringService;
+        this.clusterMembership = clusterMembership;
+        this.leaderElection = leaderElection;
+        this.properties = properties;
+        this.evicted = Counter.builder("bootguard.lease.evicted")
+                .description("Services removed because their lease expired")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bootguard.lease.reap-interval:30000}",
+            initialDelayString = "${bootguard.lease.reap-interval:30000}")
+    public void reap() {
+        leaderElection.fence().ifPresent(fence -> reap(Instant.now(), fence));
+    }
+
+    void reap(Instant now, Fence fence) {
+        List<MonitoredService> expired = findExpired(now);
+        if (!expired.isEmpty() && clusterMembership.isEnabled()) {
+            // The lease may have been renewed through another node since the last sync
+            monitoringService.syncRegistry();
+            expired = findExpired(now);
+        }
+        int batchSize = Math.max(1, properties.batchSize());
+        int removed = 0;
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<MonitoredService> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            if (!monitoringService.removeServices(batch, fence)) {
+                log.info("Stopped evicting expired leases: leadership moved to another node");
+                break;
+            }
+            removed += batch.size();
+            evicted.increment(batch.size());
+        }
+        if (removed > 0) {
+            log.info("Evicted {} services whose lease expired", removed);
+        }
+    }
+
+    private List<MonitoredService> findExpired(Instant now) {
+        return monitoringService.getServices().stream()
+                .filter(service -> isExpired(service, now))
+                .toList();
+    }
+
+    /**
+     * A service gets at least one full lease after startup: while BootGuard was down it had
+     * nowhere to renew.
+     */
+    private boolean isExpired(MonitoredService service, Instant now) {
+        if (service.getLeaseExpiresAt() == null || service.getLeaseSeconds() == null) {
+            return false;
+        }
+        Instant renewableFrom = startedAt.plusSeconds(service.getLeaseSeconds());
+        return service.getLeaseExpiresAt().isBefore(now) && renewableFrom.isBefore(now);
+    }
+}
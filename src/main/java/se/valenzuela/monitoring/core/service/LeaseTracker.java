@@ -0,0 +1,154 @@
+package se.valenzuela.monitoring.core.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.config.LeaseProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceJdbcRepository;
+import se.valenzuela.monitoring.core.repository.ReceivedHeartbeat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the leases of self-registered services. A renewal only updates the service in memory;
+ * the renewed leases are written in one JDBC batch per flush, so a fleet re-registering or
+ * sending heartbeats does not cost a database write per request. In a cluster the latest
+ * heartbeat of each push-mode service is written the same way, for the node that times the
+ * service out; a single node keeps heartbeats in memory only.
+ */
+@Slf4j
+@Component
+public class LeaseTracker {
+
+    private final MonitoredServiceJdbcRepository jdbcRepository;
+    private final LeaseProperties properties;
+    private final ClusterProperties clusterProperties;
+    private final Map<Long, MonitoredService> renewed = new ConcurrentHashMap<>();
+    private final Map<Long, ReceivedHeartbeat> heartbeats = new ConcurrentHashMap<>();
+
+    public LeaseTracker(MonitoredServiceJdbcRepository jdbcRepository, LeaseProperties properties,
+                        ClusterProperties clusterProperties) {
+        this.jdbcRepository = jdbcRepository;
+        this.properties = properties;
+        this.clusterProperties = clusterProperties;
+    }
+
+    /**
+     * @return whether heartbeats are stored for the other nodes, which is only needed in a cluster
+     */
+    public boolean sharesHeartbeats() {
+        return clusterProperties.enabled();
+    }
+
+    /**
+     * Starts the service's lease when it was not yet stored, so the lease is written with it.
+     */
+    public void start(MonitoredService service, Integer leaseSeconds) {
+        if (leaseSeconds != null) {
+            service.setLeaseSeconds(leaseSeconds);
+            service.setLeaseExpiresAt(Instant.now().plusSeconds(leaseSeconds));
+        }
+    }
+
+    /**
+     * Extends the service's lease by its length from now.
+     *
+     * @param leaseSeconds a new lease length, or {@code null} to keep the current one; services
+     *                     without a lease are left alone
+     */
+    public void renew(MonitoredService service, Integer leaseSeconds) {
+        if (leaseSeconds != null) {
+            service.setLeaseSeconds(leaseSeconds);
+        }
+        if (service.getLeaseSeconds() == null || service.getId() == null) {
+            return;
+        }
+        service.setLeaseExpiresAt(Instant.now().plusSeconds(service.getLeaseSeconds()));
+        renewed.put(service.getId(), service);
+    }
+
+    /**
+     * Queues the heartbeat to be stored; only the latest one per service is written. Does
+     * nothing unless heartbeats are {@linkplain #sharesHeartbeats() shared}.
+     */
+    public void heartbeat(ReceivedHeartbeat heartbeat) {
+        if (!sharesHeartbeats()) {
+            return;
+        }
+        heartbeats.merge(heartbeat.serviceId(), heartbeat,
+                (queued, latest) -> latest.receivedAt().isBefore(queued.receivedAt()) ? queued : latest);
+    }
+
+    /**
+     * Takes over a lease written by another node if it runs longer than the one known here.
+     */
+    public void merge(MonitoredService service, MonitoredService stored) {
+        Instant storedExpiry = stored.getLeaseExpiresAt();
+        if (storedExpiry != null
+                && (service.getLeaseExpiresAt() == null || storedExpiry.isAfter(service.getLeaseExpiresAt()))) {
+            service.setLeaseSeconds(stored.getLeaseSeconds());
+            service.setLeaseExpiresAt(storedExpiry);
+        }
+    }
+
+    public void forget(MonitoredService service) {
+        if (service.getId() != null) {
+            renewed.remove(service.getId());
+            heartbeats.remove(service.getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bootguard.lease.flush-interval:10000}")
+    @PreDestroy
+    public synchronized void flush() {
+        flushLeases();
+        flushHeartbeats();
+    }
+
+    private void flushLeases() {
+        List<MonitoredService> services = new ArrayList<>(renewed.size());
+        for (Long id : List.copyOf(renewed.keySet())) {
+            MonitoredService service = renewed.remove(id);
+            if (service != null) {
+                services.add(service);
+            }
+        }
+        if (services.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcRepository.updateLeases(services, properties.batchSize());
+        } catch (Exception e) {
+            // Retried with the next flush; a renewal that arrived meanwhile takes precedence
+            services.forEach(service -> renewed.putIfAbsent(service.getId(), service));
+            log.warn("Failed to write {} lease renewals: {}", services.size(), e.getMessage());
+        }
+    }
+
+    private void flushHeartbeats() {
+        List<ReceivedHeartbeat> pending = new ArrayList<>(heartbeats.size());
+        for (Long id : List.copyOf(heartbeats.keySet())) {
+            ReceivedHeartbeat heartbeat = heartbeats.remove(id);
+            if (heartbeat != null) {
+                pending.add(heartbeat);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcRepository.updateHeartbeats(pending, properties.batchSize());
+        } catch (Exception e) {
+            // Retried with the next flush; a heartbeat that arrived meanwhile takes precedence
+            pending.forEach(heartbeat -> heartbeats.putIfAbsent(heartbeat.serviceId(), heartbeat));
+            log.warn("Failed to write {} heartbeats: {}", pending.size(), e.getMessage());
+        }
+    }
+}
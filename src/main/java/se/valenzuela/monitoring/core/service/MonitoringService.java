@@ -1,31 +1,53 @@
 package se.valenzuela.monitoring.core.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
 import se.valenzuela.monitoring.core.client.HealthEndpointResponse;
-import se.valenzuela.monitoring.core.client.InfoEndpointResponse;
+import se.valenzuela.monitoring.core.client.HealthSummary;
 import se.valenzuela.monitoring.core.client.HealthStatus;
 import se.valenzuela.monitoring.core.client.LoggersResponse;
+import se.valenzuela.monitoring.core.model.CheckMode;
 import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceJdbcRepository;
 import se.valenzuela.monitoring.core.repository.MonitoredServiceRepository;
+import se.valenzuela.monitoring.core.repository.ReceivedHeartbeat;
 import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
 import se.valenzuela.monitoring.notification.event.ServiceAddedEvent;
 import se.valenzuela.monitoring.notification.event.ServiceRemovedEvent;
+import se.valenzuela.monitoring.notification.model.HealthState;
 import se.valenzuela.monitoring.settings.service.AppSettingService;
-import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.json.JsonMapper;
 import tools.jackson.databind.node.ObjectNode;
 
 import org.springframework.http.MediaType;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 @Slf4j
@@ -33,26 +55,93 @@ import java.util.function.Consumer;
 public class MonitoringService {
 
     private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+    private static final int INSERT_BATCH_SIZE = 500;
 
     private final RestClient restClient;
     private final MonitoredServiceRepository repository;
+    private final MonitoredServiceJdbcRepository jdbcRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final AppSettingService appSettingService;
-    private final CopyOnWriteArrayList<Consumer<MonitoredService>> listeners = new CopyOnWriteArrayList<>();
+    private final ServiceRegistry registry;
+    private final ProbeExecutor probeExecutor;
+    private final ProbeEngine probeEngine;
+    private final ProbeLatencyTracker latencyTracker;
+    private final LeaseTracker leaseTracker;
+    private final HealthCheckProperties properties;
+    private final CopyOnWriteArrayList<Consumer<ServiceChangeSet>> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<Long, ServiceStatus> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingRegistrations = new AtomicInteger();
+    private final Counter heartbeats;
+    private final Instant startedAt = Instant.now();
+    private final Object pushRegistrationLock = new Object();
+    private final SingleFlight<Long, ServiceStatus> statusProbes;
+    private final SingleFlight<Long, HealthEndpointResponse> detailProbes;
+    private final Executor refreshExecutor = task -> Thread.ofVirtual().name("manual-refresh").start(task);
+    private final Object refreshLock = new Object();
+    private CompletableFuture<Void> lastRefresh;
+    private long lastRefreshStartedNanos;
 
-    public MonitoringService(RestClient restClient, MonitoredServiceRepository repository,
-                             ApplicationEventPublisher eventPublisher, AppSettingService appSettingService) {
+    public MonitoringService(@Qualifier("probeRestClient") RestClient restClient,
+                             MonitoredServiceRepository repository, MonitoredServiceJdbcRepository jdbcRepository,
+                             ApplicationEventPublisher eventPublisher, AppSettingService appSettingService,
+                             ServiceRegistry registry, ProbeExecutor probeExecutor, ProbeEngine probeEngine,
+                             ProbeLatencyTracker latencyTracker, LeaseTracker leaseTracker,
+                             MeterRegistry meterRegistry,
+                             HealthCheckProperties properties) {
         this.restClient = restClient;
         this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
         this.eventPublisher = eventPublisher;
         this.appSettingService = appSettingService;
+        this.registry = registry;
+        this.probeExecutor = probeExecutor;
+        this.probeEngine = probeEngine;
+        this.latencyTracker = latencyTracker;
+        this.leaseTracker = leaseTracker;
+        this.properties = properties;
+        this.statusProbes = new SingleFlight<>(properties.probeResultTtl());
+        this.detailProbes = new SingleFlight<>(properties.probeResultTtl());
+        appSettingService.addListener(this::onSettingChanged);
+        Gauge.builder("bootguard.registration.pending", pendingRegistrations, AtomicInteger::get)
+                .description("Registered services whose first info fetch has not completed")
+                .register(meterRegistry);
+        this.heartbeats = Counter.builder("bootguard.heartbeat.received")
+                .description("Heartbeats posted by push-mode services")
+                .register(meterRegistry);
     }
 
     public boolean addService(String url) {
-        return addServiceWithEndpoints(url, null, null) != null;
+        return addService(url, null);
     }
 
+    /**
+     * Registers a service or, if it is already registered, renews its lease.
+     *
+     * @param leaseSeconds lease length, or {@code null} for a registration without expiry
+     * @return whether the service was new
+     */
+    public boolean addService(String url, Integer leaseSeconds) {
+        Optional<MonitoredService> existing = registry.findByUrl(url);
+        if (existing.isPresent()) {
+            leaseTracker.renew(existing.get(), leaseSeconds);
+            return false;
+        }
+        return addServiceWithEndpoints(url, null, null, leaseSeconds) != null;
+    }
+
+    /**
+     * Stores the service and returns without contacting it: a service registering itself
+     * at startup may not answer yet. Name and version are fetched in the background through
+     * the probe engine; if that fails, the service's next health check tries again.
+     *
+     * @return the stored service, or {@code null} if the URL is already registered
+     */
     public MonitoredService addServiceWithEndpoints(String url, String infoEndpoint, String healthEndpoint) {
+        return addServiceWithEndpoints(url, infoEndpoint, healthEndpoint, null);
+    }
+
+    private MonitoredService addServiceWithEndpoints(String url, String infoEndpoint, String healthEndpoint,
+                                                     Integer leaseSeconds) {
         if (repository.existsByUrl(url)) {
             return null;
         }
@@ -63,96 +152,550 @@ public class MonitoringService {
         if (healthEndpoint != null && !healthEndpoint.isBlank()) {
             service.setHealthEndpoint(healthEndpoint);
         }
-        try {
-            InfoEndpointResponse info = restClient.get()
-                    .uri(url + service.getInfoEndpoint())
-                    .retrieve()
-                    .body(InfoEndpointResponse.class);
-            service.updateInfo(info);
-        } catch (Exception e) {
-            log.warn("Could not fetch info for {}", url, e);
-        }
+        leaseTracker.start(service, leaseSeconds);
         repository.save(service);
-        listeners.forEach(listener -> listener.accept(service));
+        registry.put(service);
+        recordStatus(service);
+        notifyListeners(ServiceChangeSet.of(ServiceChange.added(published(service))));
         eventPublisher.publishEvent(new MonitoringEventCarrier(this,
                 new ServiceAddedEvent(service, Instant.now())));
+        fetchInfoInBackground(service);
+        return service;
+    }
+
+    private void fetchInfoInBackground(MonitoredService service) {
+        pendingRegistrations.incrementAndGet();
+        fetchInfo(service).whenComplete((_, _) -> {
+            try {
+                if (!service.isInfoStatus()) {
+                    log.warn("Could not fetch info for {}; retrying with its next health check", service.getUrl());
+                    // Leaves the info due, so the first scheduled probe fetches it again
+                    service.setInfoCheckedAt(null);
+                }
+                Set<ServiceChange.Field> fields = recordStatus(service);
+                if (!fields.isEmpty()) {
+                    notifyListeners(ServiceChangeSet.of(ServiceChange.updated(published(service), fields)));
+                }
+            } finally {
+                pendingRegistrations.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * @return the number of registered services whose first info fetch is still queued or running
+     */
+    public int getPendingRegistrations() {
+        return pendingRegistrations.get();
+    }
+
+    /**
+     * Registers many services at once, as happens when a cluster is redeployed. URLs are
+     * checked against the registry instead of the database, new services are written with
+     * batched inserts, and their info endpoints are left to their first scheduled probe, so
+     * the call never waits on the services themselves. Services that are already registered
+     * have their leases renewed.
+     *
+     * @return one result per registration, in the order given
+     */
+    public List<RegistrationResult> addServices(List<ServiceRegistration> registrations) {
+        RegistrationResult[] results = new RegistrationResult[registrations.size()];
+        Map<String, Integer> pending = new LinkedHashMap<>();
+        List<MonitoredService> newServices = new ArrayList<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            ServiceRegistration registration = registrations.get(i);
+            String url = registration.url();
+            Optional<MonitoredService> existing = registry.findByUrl(url);
+            if (existing.isPresent()) {
+                leaseTracker.renew(existing.get(), registration.leaseSeconds());
+                results[i] = RegistrationResult.alreadyRegistered(url, existing.get().getId());
+            } else if (pending.containsKey(url)) {
+                results[i] = RegistrationResult.duplicate(url);
+            } else {
+                pending.put(url, i);
+                MonitoredService service = new MonitoredService(url);
+                leaseTracker.start(service, registration.leaseSeconds());
+                newServices.add(service);
+            }
+        }
+        if (newServices.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        jdbcRepository.insertAll(newServices, INSERT_BATCH_SIZE);
+        List<MonitoredService> added = new ArrayList<>();
+        for (MonitoredService service : repository.findAllWithEnvironmentsByUrlIn(pending.keySet())) {
+            Integer index = pending.remove(service.getUrl());
+            if (index == null) {
+                continue;
+            }
+            Optional<MonitoredService> concurrent = registry.get(service.getId());
+            if (concurrent.isPresent()) {
+                results[index] = RegistrationResult.alreadyRegistered(service.getUrl(), service.getId());
+            } else {
+                results[index] = RegistrationResult.registered(service);
+                added.add(service);
+            }
+        }
+        // Rows the insert ignored because the database considers the URL taken
+        pending.forEach((url, index) -> results[index] = RegistrationResult.alreadyRegistered(url, null));
+
+        registry.putAll(added);
+        Instant now = Instant.now();
+        List<ServiceChange> changes = new ArrayList<>(added.size());
+        for (MonitoredService service : added) {
+            recordStatus(service);
+            changes.add(ServiceChange.added(published(service)));
+            eventPublisher.publishEvent(new MonitoringEventCarrier(this, new ServiceAddedEvent(service, now)));
+        }
+        notifyListeners(new ServiceChangeSet(changes));
+        log.info("Registered {} of {} services in batch", added.size(), registrations.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies a heartbeat posted by a service. Costs a map lookup and a few field writes; the
+     * database is only touched the first time a service reports, or when it reports a new
+     * name, version or interval. The heartbeat itself is stored with the next lease flush, so
+     * in a cluster the node that owns the service sees it too. A service that has not
+     * registered is registered in push mode, and a pull-mode service that starts sending
+     * heartbeats is switched to push mode.
+     */
+    public MonitoredService recordHeartbeat(Heartbeat heartbeat) {
+        heartbeats.increment();
+        MonitoredService service = registry.findByUrl(heartbeat.url())
+                .orElseGet(() -> registerPushService(heartbeat.url(), heartbeat.leaseSeconds()));
+        leaseTracker.renew(service, heartbeat.leaseSeconds());
+
+        boolean configurationChanged = false;
+        if (service.getCheckMode() != CheckMode.PUSH) {
+            service.setCheckMode(CheckMode.PUSH);
+            configurationChanged = true;
+        }
+        if (heartbeat.intervalSeconds() != null
+                && !heartbeat.intervalSeconds().equals(service.getHeartbeatIntervalSeconds())) {
+            service.setHeartbeatIntervalSeconds(heartbeat.intervalSeconds());
+            configurationChanged = true;
+        }
+        if (configurationChanged) {
+            repository.updateHeartbeatSettings(service.getId(), service.getCheckMode(),
+                    service.getHeartbeatIntervalSeconds());
+            // Lets the scheduler pick up the heartbeat interval as the service's deadline interval
+            registry.put(service);
+        }
+
+        Instant now = Instant.now();
+        boolean infoChanged = (heartbeat.name() != null && !heartbeat.name().equals(service.getName()))
+                || (heartbeat.version() != null && !heartbeat.version().equals(service.getVersion()));
+        if (infoChanged) {
+            if (heartbeat.name() != null) {
+                service.setName(heartbeat.name());
+            }
+            if (heartbeat.version() != null) {
+                service.setVersion(heartbeat.version());
+            }
+            service.setLastUpdated(now);
+            persistInfo(service);
+        }
+        service.setInfoStatus(service.getName() != null);
+        service.setInfoCheckedAt(now);
+        service.setLastHeartbeatAt(now);
+        service.setHealthStatus(HealthStatus.UP.equalsIgnoreCase(heartbeat.status()));
+        service.setHealthResponseStatus(heartbeat.status().toUpperCase(Locale.ROOT));
+        if (service.getId() != null) {
+            leaseTracker.heartbeat(new ReceivedHeartbeat(service.getId(), now, service.getHealthResponseStatus()));
+        }
+        service.setHealthComponents(heartbeat.components());
+        service.setHealthHttpStatus(null);
+        service.setHealthLatencyMillis(0);
+        service.setLastUpdated(now);
+
+        // A heartbeat that only moves the check time is published by the service's next
+        // scheduler round, so a steady stream of heartbeats does not update every view each time
+        Set<ServiceChange.Field> fields = EnumSet.noneOf(ServiceChange.Field.class);
+        fields.addAll(ServiceStatus.of(service).changedFieldsSince(statuses.get(service.getId())));
+        fields.remove(ServiceChange.Field.CHECKED_AT);
+        if (configurationChanged) {
+            fields.add(ServiceChange.Field.CONFIGURATION);
+        }
+        if (!fields.isEmpty()) {
+            fields.addAll(recordStatus(service));
+            notifyListeners(ServiceChangeSet.of(ServiceChange.updated(published(service), fields)));
+        }
         return service;
     }
 
-    public void addListener(Consumer<MonitoredService> listener) {
+    private MonitoredService registerPushService(String url, Integer leaseSeconds) {
+        synchronized (pushRegistrationLock) {
+            Optional<MonitoredService> existing = registry.findByUrl(url);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            MonitoredService service = new MonitoredService(url);
+            service.setCheckMode(CheckMode.PUSH);
+            leaseTracker.start(service, leaseSeconds);
+            repository.save(service);
+            registry.put(service);
+            recordStatus(service);
+            notifyListeners(ServiceChangeSet.of(ServiceChange.added(published(service))));
+            eventPublisher.publishEvent(new MonitoringEventCarrier(this,
+                    new ServiceAddedEvent(service, Instant.now())));
+            log.info("Registered push-mode service {} on its first heartbeat", url);
+            return service;
+        }
+    }
+
+    /**
+     * Takes over a heartbeat that another node received and stored, if it is newer than the
+     * latest one received here. Its components were only reported to that node, so they are
+     * dropped if the status changed. Heartbeats from before this node started are ignored, so
+     * a service still gets a full timeout to report after a restart.
+     */
+    private void mergeHeartbeat(MonitoredService service, ReceivedHeartbeat stored) {
+        if (stored == null || stored.receivedAt().isBefore(startedAt) || (service.getLastHeartbeatAt() != null
+                && !stored.receivedAt().isAfter(service.getLastHeartbeatAt()))) {
+            return;
+        }
+        if (!stored.status().equals(service.getHealthResponseStatus())) {
+            service.setHealthComponents(Map.of());
+        }
+        service.setLastHeartbeatAt(stored.receivedAt());
+        service.setHealthStatus(HealthStatus.UP.equals(stored.status()));
+        service.setHealthResponseStatus(stored.status());
+        service.setHealthHttpStatus(null);
+        service.setLastUpdated(stored.receivedAt());
+    }
+
+    /**
+     * Reads the stored heartbeats of the given push-mode services with one query. If the
+     * database cannot be reached, the services are timed out on the heartbeats received here.
+     */
+    private Map<Long, ReceivedHeartbeat> loadStoredHeartbeats(List<MonitoredService> services) {
+        if (!leaseTracker.sharesHeartbeats()) {
+            return Map.of();
+        }
+        List<Long> ids = services.stream()
+                .map(MonitoredService::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<Long, ReceivedHeartbeat> stored = new HashMap<>();
+            jdbcRepository.findHeartbeats(ids).forEach(heartbeat -> stored.put(heartbeat.serviceId(), heartbeat));
+            return stored;
+        } catch (Exception e) {
+            log.warn("Could not read stored heartbeats of {} services: {}", ids.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Marks a push-mode service DOWN once it has been silent for
+     * {@code heartbeat-timeout-factor} heartbeat intervals. Services that have not reported
+     * since startup are measured from startup.
+     */
+    private void expireHeartbeat(MonitoredService service) {
+        Instant lastHeartbeat = service.getLastHeartbeatAt() != null ? service.getLastHeartbeatAt() : startedAt;
+        long timeoutMillis = (long) (service.getEffectiveHealthCheckIntervalSeconds() * 1000L
+                * properties.heartbeatTimeoutFactor());
+        if (lastHeartbeat.plusMillis(timeoutMillis).isAfter(Instant.now())) {
+            return;
+        }
+        log.debug("No heartbeat from {} since {}; marking it DOWN", service.getUrl(), lastHeartbeat);
+        service.setHealthStatus(false);
+        service.setHealthResponseStatus(HealthStatus.DOWN);
+        service.setHealthComponents(Map.of());
+        service.setHealthHttpStatus(null);
+    }
+
+    /**
+     * Registers a listener for changes to monitored services. Listeners are called on the
+     * thread that made the change and receive every change of a batch at once.
+     */
+    public void addListener(Consumer<ServiceChangeSet> listener) {
         listeners.add(listener);
     }
 
-    public void removeListener(Consumer<MonitoredService> listener) {
+    public void removeListener(Consumer<ServiceChangeSet> listener) {
         listeners.remove(listener);
     }
 
+    /**
+     * Returns the registered services as last checked by the scheduler. Never probes, so
+     * views can call this on the request thread; use {@link #refreshNow()} for fresh results.
+     */
     public List<MonitoredService> getServices() {
-        List<MonitoredService> services = repository.findAll();
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            for (MonitoredService service : services) {
-                executor.submit(() -> fetchStatus(service));
-            }
-        }
-        return services;
+        return registry.getAll();
     }
 
     public List<MonitoredService> getServicesWithEnvironments() {
-        return repository.findAllWithEnvironments();
+        return registry.getAll();
+    }
+
+    public Optional<MonitoredService> getService(Long id) {
+        return registry.get(id);
+    }
+
+    public long getRegistryVersion() {
+        return registry.version();
+    }
+
+    /**
+     * Returns what views show of every registered service: the status published by its last
+     * completed check, or a copy of its stored state if it has not been checked yet.
+     */
+    public List<ServiceStatus> getStatuses() {
+        return registry.getAll().stream()
+                .map(this::published)
+                .toList();
     }
 
-    public List<MonitoredService> getServicesForDisplay() {
-        List<MonitoredService> services = repository.findAllWithEnvironments();
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            for (MonitoredService service : services) {
-                executor.submit(() -> fetchStatus(service));
+    /**
+     * @return the service's state as published by its last completed check
+     */
+    public Optional<ServiceStatus> getStatus(Long serviceId) {
+        return serviceId != null ? Optional.ofNullable(statuses.get(serviceId)) : Optional.empty();
+    }
+
+    /**
+     * Probes the given services, publishes their new statuses and notifies listeners of
+     * whatever changed. Blocks until every probe has completed. Push-mode services are not
+     * probed; they are marked DOWN if their heartbeats have stopped arriving at every node.
+     */
+    public void fetchHealthStatuses(List<MonitoredService> services) {
+        List<MonitoredService> pushed = new ArrayList<>();
+        List<MonitoredService> pulled = new ArrayList<>(services.size());
+        for (MonitoredService service : services) {
+            (service.getCheckMode() == CheckMode.PUSH ? pushed : pulled).add(service);
+        }
+        if (!pushed.isEmpty()) {
+            Map<Long, ReceivedHeartbeat> stored = loadStoredHeartbeats(pushed);
+            for (MonitoredService service : pushed) {
+                mergeHeartbeat(service, stored.get(service.getId()));
+                expireHeartbeat(service);
+            }
+        }
+        probeAll(pulled);
+        List<ServiceChange> changes = new ArrayList<>();
+        for (MonitoredService service : services) {
+            Set<ServiceChange.Field> fields = recordStatus(service);
+            if (!fields.isEmpty()) {
+                changes.add(ServiceChange.updated(published(service), fields));
             }
         }
-        return services;
+        notifyListeners(new ServiceChangeSet(changes));
     }
 
-    public void fetchHealthStatuses(List<MonitoredService> services) {
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            for (MonitoredService service : services) {
-                executor.submit(() -> fetchStatus(service));
+    /**
+     * Shows the health another node confirmed for each of the given services, which this node
+     * does not check itself, so its dashboard covers every service. Only the UP/DOWN state is
+     * shared; components and latency stay with the node that checked.
+     *
+     * @param states the stored health states by service id
+     */
+    public void applyHealthCheckedElsewhere(List<MonitoredService> services, Map<Long, HealthState> states) {
+        List<ServiceChange> changes = new ArrayList<>();
+        for (MonitoredService service : services) {
+            HealthState state = states.get(service.getId());
+            if (state == null || (service.getHealthResponseStatus() != null
+                    && service.isHealthStatus() == state.healthy())) {
+                continue;
+            }
+            service.setHealthStatus(state.healthy());
+            service.setHealthResponseStatus(state.healthy() ? HealthStatus.UP : HealthStatus.DOWN);
+            service.setHealthComponents(Map.of());
+            service.setHealthHttpStatus(null);
+            Set<ServiceChange.Field> fields = recordStatus(service);
+            if (!fields.isEmpty()) {
+                changes.add(ServiceChange.updated(published(service), fields));
             }
         }
+        notifyListeners(new ServiceChangeSet(changes));
     }
 
+    /**
+     * Probes every service now instead of waiting for their deadlines. Callers from any
+     * number of sessions share one refresh: while it runs, and for
+     * {@code bootguard.health-check.manual-refresh-interval} after it started, they get the
+     * same future instead of starting another round of probes.
+     */
+    public CompletableFuture<Void> refreshNow() {
+        synchronized (refreshLock) {
+            long now = System.nanoTime();
+            boolean recent = lastRefresh != null
+                    && (!lastRefresh.isDone()
+                    || now - lastRefreshStartedNanos < properties.manualRefreshInterval().toNanos());
+            if (!recent) {
+                lastRefreshStartedNanos = now;
+                lastRefresh = CompletableFuture.runAsync(() -> fetchHealthStatuses(registry.getAll()), refreshExecutor);
+            }
+            return lastRefresh.copy();
+        }
+    }
+
+    /**
+     * Stores a service the user edited and notifies listeners of its new configuration.
+     */
     public MonitoredService saveService(MonitoredService service) {
-        return repository.save(service);
+        MonitoredService saved = repository.save(service);
+        // A merge returns a new managed instance without what the checks observed, and an edited
+        // copy may be older than the registered instance the checks have kept updating
+        MonitoredService observed = Optional.ofNullable(saved.getId()).flatMap(registry::get).orElse(service);
+        if (observed != saved) {
+            saved.copyObservedState(observed);
+        }
+        registry.put(saved);
+        Set<ServiceChange.Field> fields = EnumSet.of(ServiceChange.Field.CONFIGURATION);
+        fields.addAll(recordStatus(saved));
+        notifyListeners(ServiceChangeSet.of(ServiceChange.updated(published(saved), fields)));
+        return saved;
     }
 
-    private void fetchStatus(MonitoredService service) {
-        String baseUrl = service.getUrl();
-        try {
-            InfoEndpointResponse info = restClient.get()
-                    .uri(baseUrl + service.getInfoEndpoint())
-                    .retrieve()
-                    .body(InfoEndpointResponse.class);
-            service.setInfoStatus(true);
-            if (info != null) {
-                service.setName(info.name());
-                service.setVersion(info.version());
-            }
-        } catch (Exception e) {
-            service.setInfoStatus(false);
+    private void probeAll(List<MonitoredService> services) {
+        CompletableFuture.allOf(services.stream()
+                        .map(this::probeShared)
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    /**
+     * Probes the service unless a probe of it is already in flight or has just completed, in
+     * which case the caller shares that probe. The scheduler, a manual refresh and any number
+     * of sessions therefore cause at most one round of requests per service.
+     */
+    private CompletableFuture<?> probeShared(MonitoredService service) {
+        if (service.getId() == null) {
+            return probe(service);
+        }
+        return statusProbes.run(service.getId(), () -> probe(service).thenApply(_ -> ServiceStatus.of(service)));
+    }
+
+    /**
+     * Probes the health endpoint and, when the cached name/version are stale, the info
+     * endpoint in parallel. Each call is a separate request so neither waits on the other's
+     * concurrency permit.
+     */
+    private CompletableFuture<Void> probe(MonitoredService service) {
+        boolean wasDown = service.getHealthResponseStatus() != null && !service.isHealthStatus();
+        CompletableFuture<Void> health = fetchHealth(service);
+        CompletableFuture<Void> info;
+        if (isInfoDue(service)) {
+            info = fetchInfo(service);
+        } else {
+            // Coming back UP usually means a restart or redeploy, so the version may have changed.
+            info = health.thenCompose(_ -> wasDown && service.isHealthStatus()
+                    ? fetchInfo(service)
+                    : CompletableFuture.<Void>completedFuture(null));
         }
+        return CompletableFuture.allOf(health, info)
+                .thenRun(() -> service.setLastUpdated(Instant.now()));
+    }
+
+    private boolean isInfoDue(MonitoredService service) {
+        Instant infoCheckedAt = service.getInfoCheckedAt();
+        return infoCheckedAt == null
+                || !infoCheckedAt.plus(properties.infoRefreshInterval()).isAfter(Instant.now());
+    }
+
+    private CompletableFuture<Void> fetchInfo(MonitoredService service) {
+        ProbeTimer timer = new ProbeTimer();
+        return probeEngine.fetchInfo(service.getUrl() + service.getInfoEndpoint(), timer)
+                .handle((info, failure) -> {
+                    service.setInfoStatus(failure == null);
+                    if (failure == null && info != null) {
+                        boolean changed = !Objects.equals(service.getName(), info.name())
+                                || !Objects.equals(service.getVersion(), info.version());
+                        service.updateInfo(info);
+                        if (changed && service.getId() != null) {
+                            persistInfo(service);
+                        }
+                    }
+                    if (timer.isStarted()) {
+                        latencyTracker.record(service, ProbeLatencyTracker.Endpoint.INFO, timer.elapsedNanos());
+                    }
+                    service.setInfoCheckedAt(Instant.now());
+                    return null;
+                });
+    }
+
+    /**
+     * Writes just name, version and update time, without loading the entity or touching rows
+     * the user may be editing at the same time.
+     */
+    private void persistInfo(MonitoredService service) {
         try {
-            HealthEndpointResponse health = restClient.get()
-                    .uri(baseUrl + service.getHealthEndpoint())
-                    .retrieve()
-                    .body(HealthEndpointResponse.class);
-            service.setHealthResponseStatus(health != null ? health.status() : null);
-            service.setHealthStatus(health != null && HealthStatus.UP.equalsIgnoreCase(health.status()));
-            if (health != null) {
-                extractCertificateExpiry(service, health);
-            }
+            repository.updateInfo(service.getId(), service.getName(), service.getVersion(), service.getLastUpdated());
         } catch (Exception e) {
-            service.setHealthStatus(false);
-            service.setHealthResponseStatus(HealthStatus.DOWN);
+            log.warn("Could not store info for {}", service.getUrl(), e);
+        }
+    }
+
+    private CompletableFuture<Void> fetchHealth(MonitoredService service) {
+        ProbeTimer timer = new ProbeTimer();
+        service.setHealthHttpStatus(null);
+        return probeEngine.fetchHealth(service.getUrl() + service.getHealthEndpoint(), timer)
+                .handle((result, failure) -> {
+                    HealthSummary health = failure == null ? result.summary() : null;
+                    if (failure == null) {
+                        service.setHealthHttpStatus(result.httpStatus());
+                    }
+                    if (health != null) {
+                        service.setHealthResponseStatus(health.status());
+                        service.setHealthStatus(HealthStatus.UP.equalsIgnoreCase(health.status()));
+                        service.setHealthComponents(health.components());
+                        updateCertificateExpiry(service, health.earliestCertExpiry());
+                    } else {
+                        service.setHealthStatus(false);
+                        service.setHealthResponseStatus(HealthStatus.DOWN);
+                        service.setHealthComponents(Map.of());
+                    }
+                    // Only the exchange itself; time queued for permits is not the service's latency
+                    long elapsed = timer.elapsedNanos();
+                    if (timer.isStarted()) {
+                        latencyTracker.record(service, ProbeLatencyTracker.Endpoint.HEALTH, elapsed);
+                    }
+                    service.setHealthLatencyMillis(Duration.ofNanos(elapsed).toMillis());
+                    return null;
+                });
+    }
+
+    /**
+     * Fetches the full health response, including every component's details. Polling only
+     * decodes a {@link HealthSummary}; this is for views that show the details on demand.
+     */
+    public HealthEndpointResponse fetchHealthDetails(MonitoredService service) {
+        if (service.getId() == null) {
+            return requestHealthDetails(service);
         }
-        service.setLastUpdated(Instant.now());
+        return detailProbes.run(service.getId(),
+                () -> probeExecutor.submit(service.getUrl(), () -> requestHealthDetails(service))).join();
+    }
+
+    private HealthEndpointResponse requestHealthDetails(MonitoredService service) {
+        return restClient.get()
+                .uri(service.getUrl() + service.getHealthEndpoint())
+                .exchange((_, response) -> response.bodyTo(HealthEndpointResponse.class));
+    }
+
+    /**
+     * Fetches the full health response of a registered service; see {@link #fetchHealthDetails(MonitoredService)}.
+     *
+     * @return the response, or {@code null} if the service is no longer registered
+     */
+    public HealthEndpointResponse fetchHealthDetails(Long serviceId) {
+        return registry.get(serviceId).map(this::fetchHealthDetails).orElse(null);
+    }
+
+    public Optional<ProbeLatencyTracker.Percentiles> getLatencyPercentiles(MonitoredService service,
+                                                                          ProbeLatencyTracker.Endpoint endpoint) {
+        return latencyTracker.getPercentiles(service, endpoint);
+    }
+
+    public Optional<ProbeLatencyTracker.Percentiles> getLatencyPercentiles(Long serviceId,
+                                                                          ProbeLatencyTracker.Endpoint endpoint) {
+        return registry.get(serviceId).flatMap(service -> latencyTracker.getPercentiles(service, endpoint));
     }
 
     public LoggersResponse fetchLoggers(MonitoredService service) {
@@ -174,58 +717,183 @@ public class MonitoringService {
                 .toBodilessEntity();
     }
 
-    public void notifyListeners(MonitoredService service) {
-        listeners.forEach(listener -> listener.accept(service));
+    public void notifyListeners(ServiceChangeSet changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        listeners.forEach(listener -> listener.accept(changes));
     }
 
     public void updateServiceUrl(MonitoredService service, String newUrl) {
         service.setUrl(newUrl);
-        repository.save(service);
-        listeners.forEach(listener -> listener.accept(service));
+        saveService(service);
     }
 
     public void removeService(MonitoredService service) {
         eventPublisher.publishEvent(new MonitoringEventCarrier(this,
                 new ServiceRemovedEvent(service, Instant.now())));
         repository.delete(service);
-        listeners.forEach(listener -> listener.accept(service));
+        registry.remove(service);
+        forget(service);
+        notifyListeners(ServiceChangeSet.of(ServiceChange.removed(ServiceStatus.of(service))));
+    }
+
+    /**
+     * Removes several services with one delete statement, e.g. when their leases expired.
+     * Nothing is removed or announced if the delete was refused because {@code fence} no
+     * longer holds.
+     *
+     * @return whether the services were removed
+     */
+    public boolean removeServices(List<MonitoredService> services, Fence fence) {
+        if (services.isEmpty()) {
+            return true;
+        }
+        List<Long> ids = services.stream()
+                .map(MonitoredService::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!ids.isEmpty() && jdbcRepository.deleteAll(ids, fence) == 0) {
+            return false;
+        }
+        Instant now = Instant.now();
+        for (MonitoredService service : services) {
+            eventPublisher.publishEvent(new MonitoringEventCarrier(this, new ServiceRemovedEvent(service, now)));
+        }
+        registry.removeAll(services);
+        List<ServiceChange> changes = new ArrayList<>(services.size());
+        for (MonitoredService service : services) {
+            forget(service);
+            changes.add(ServiceChange.removed(ServiceStatus.of(service)));
+        }
+        notifyListeners(new ServiceChangeSet(changes));
+        return true;
     }
 
-    private void extractCertificateExpiry(MonitoredService service, HealthEndpointResponse health) {
-        Map<String, JsonNode> components = health.components();
-        if (components == null) {
+    /**
+     * Brings the registry in line with the database after other nodes of a cluster added or
+     * removed services. No events are published: the node that made the change already did.
+     * Leases renewed through another node are merged, so they are not evicted here.
+     */
+    public void syncRegistry() {
+        Set<Long> knownIds = new HashSet<>();
+        registry.getAll().forEach(service -> knownIds.add(service.getId()));
+        List<MonitoredService> stored = repository.findAllWithEnvironments();
+
+        Set<Long> storedIds = new HashSet<>(stored.size());
+        List<MonitoredService> added = new ArrayList<>();
+        for (MonitoredService service : stored) {
+            storedIds.add(service.getId());
+            Optional<MonitoredService> known = registry.get(service.getId());
+            if (known.isPresent()) {
+                leaseTracker.merge(known.get(), service);
+            } else if (!knownIds.contains(service.getId())) {
+                // Known before the query but gone now means it was removed here meanwhile
+                added.add(service);
+            }
+        }
+        List<MonitoredService> removed = knownIds.stream()
+                .filter(id -> !storedIds.contains(id))
+                .map(registry::get)
+                .flatMap(Optional::stream)
+                .toList();
+        if (added.isEmpty() && removed.isEmpty()) {
             return;
         }
-        JsonNode sslNode = components.get("ssl");
-        if (sslNode == null || !sslNode.has("details")) {
+
+        registry.putAll(added);
+        registry.removeAll(removed);
+        List<ServiceChange> changes = new ArrayList<>(added.size() + removed.size());
+        for (MonitoredService service : added) {
+            recordStatus(service);
+            changes.add(ServiceChange.added(published(service)));
+        }
+        for (MonitoredService service : removed) {
+            forget(service);
+            changes.add(ServiceChange.removed(ServiceStatus.of(service)));
+        }
+        notifyListeners(new ServiceChangeSet(changes));
+        log.info("Synced registry: {} services added and {} removed by other nodes", added.size(), removed.size());
+    }
+
+    /**
+     * Removes the service registered under the URL, as a service does when it shuts down.
+     *
+     * @return whether a service was registered under the URL
+     */
+    public boolean deregister(String url) {
+        Optional<MonitoredService> service = registry.findByUrl(url);
+        service.ifPresent(this::removeService);
+        return service.isPresent();
+    }
+
+    private void forget(MonitoredService service) {
+        latencyTracker.remove(service);
+        leaseTracker.forget(service);
+        if (service.getId() != null) {
+            statuses.remove(service.getId());
+            statusProbes.forget(service.getId());
+            detailProbes.forget(service.getId());
+        }
+    }
+
+    /**
+     * Re-evaluates the expiring-soon flag of every service when the warning threshold changes,
+     * instead of waiting for each service's next poll.
+     */
+    private void onSettingChanged(String key) {
+        if (!AppSettingService.CERT_EXPIRY_WARNING_DAYS.equals(key)) {
             return;
         }
-        JsonNode details = sslNode.get("details");
-        Instant earliest = null;
-        for (String chainType : new String[]{"validChains", "expiringChains", "invalidChains"}) {
-            JsonNode chains = details.get(chainType);
-            if (chains == null || !chains.isArray()) {
-                continue;
-            }
-            for (JsonNode chain : chains) {
-                JsonNode certificates = chain.get("certificates");
-                if (certificates == null || !certificates.isArray()) {
-                    continue;
-                }
-                for (JsonNode cert : certificates) {
-                    JsonNode validityEnds = cert.get("validityEnds");
-                    if (validityEnds != null && validityEnds.isString()) {
-                        try {
-                            Instant expiry = Instant.parse(validityEnds.asString());
-                            if (earliest == null || expiry.isBefore(earliest)) {
-                                earliest = expiry;
-                            }
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
+        List<ServiceChange> changes = new ArrayList<>();
+        for (MonitoredService service : registry.getAll()) {
+            boolean wasExpiringSoon = service.isCertExpiringSoon();
+            updateCertificateExpiry(service, service.getEarliestCertExpiry());
+            if (service.isCertExpiringSoon() != wasExpiringSoon) {
+                recordStatus(service);
+                changes.add(ServiceChange.updated(published(service), Set.of(ServiceChange.Field.CERTIFICATE)));
             }
         }
+        notifyListeners(new ServiceChangeSet(changes));
+    }
+
+    /**
+     * Marks the service as flapping or not, as the scheduler decided after its latest check,
+     * and notifies listeners if that changed.
+     */
+    public void updateFlapping(MonitoredService service, boolean flapping) {
+        if (service.isFlapping() == flapping) {
+            return;
+        }
+        service.setFlapping(flapping);
+        Set<ServiceChange.Field> fields = recordStatus(service);
+        if (!fields.isEmpty()) {
+            notifyListeners(ServiceChangeSet.of(ServiceChange.updated(published(service), fields)));
+        }
+    }
+
+    /**
+     * @return the status last published for the service, or a copy of its current state if none was
+     */
+    private ServiceStatus published(MonitoredService service) {
+        ServiceStatus status = service.getId() != null ? statuses.get(service.getId()) : null;
+        return status != null ? status : ServiceStatus.of(service);
+    }
+
+    /**
+     * Publishes the service's current state as its status.
+     *
+     * @return the fields that changed since the previously published status
+     */
+    private Set<ServiceChange.Field> recordStatus(MonitoredService service) {
+        if (service.getId() == null) {
+            return Set.of();
+        }
+        ServiceStatus status = ServiceStatus.of(service);
+        return status.changedFieldsSince(statuses.put(service.getId(), status));
+    }
+
+    private void updateCertificateExpiry(MonitoredService service, Instant earliest) {
         if (earliest != null) {
             service.setEarliestCertExpiry(earliest);
             int warningDays = appSettingService.getCertExpiryWarningDays();
@@ -0,0 +1,38 @@
+package se.valenzuela.monitoring.core.service;
+
+import se.valenzuela.monitoring.core.client.HealthProbeResult;
+import se.valenzuela.monitoring.core.client.InfoEndpointResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Performs the HTTP requests of a health check. Implementations must bound the number of
+ * requests in flight through {@link ProbeExecutor}, and complete the futures exceptionally
+ * when a service cannot be reached.
+ * <p>
+ * Selected with {@code bootguard.probe.engine}: {@code rest-client} (default) or {@code async}.
+ */
+public interface ProbeEngine {
+
+    /**
+     * Completes with the status code and decoded body of any response, including 5xx.
+     *
+     * @param timer started when the request is about to be sent, after any queueing
+     */
+    CompletableFuture<HealthProbeResult> fetchHealth(String url, ProbeTimer timer);
+
+    /**
+     * Completes exceptionally for non-2xx responses.
+     *
+     * @param timer started when the request is about to be sent, after any queueing
+     */
+    CompletableFuture<InfoEndpointResponse> fetchInfo(String url, ProbeTimer timer);
+
+    default CompletableFuture<HealthProbeResult> fetchHealth(String url) {
+        return fetchHealth(url, new ProbeTimer());
+    }
+
+    default CompletableFuture<InfoEndpointResponse> fetchInfo(String url) {
+        return fetchInfo(url, new ProbeTimer());
+    }
+}
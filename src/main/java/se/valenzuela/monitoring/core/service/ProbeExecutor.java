@@ -0,0 +1,195 @@
+package se.valenzuela.monitoring.core.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived executor for outbound probes against monitored services.
+ * <p>
+ * Every task runs on its own virtual thread, but only after it holds a permit for its target
+ * host and a global permit. This keeps the number of open requests within what the HTTP
+ * connection pool can serve, so a large batch of due services queues up here instead of
+ * timing out waiting for a pooled connection and showing up as false DOWNs.
+ * <p>
+ * A host's semaphore only exists while probes against it are queued or in flight, so hosts of
+ * services that were deregistered or moved do not accumulate.
+ */
+@Component
+public class ProbeExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore globalPermits;
+    private final int permitsPerHost;
+    private final ConcurrentHashMap<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+
+    /**
+     * A host's semaphore and the number of probes holding or waiting for it. The count is only
+     * changed inside the map's atomic compute, so an entry is never dropped while in use.
+     */
+    private static final class HostPermits {
+        private final String host;
+        private final Semaphore semaphore;
+        private int users;
+
+        private HostPermits(String host, int permits) {
+            this.host = host;
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    public ProbeExecutor(HealthCheckProperties properties, MeterRegistry meterRegistry) {
+        this.globalPermits = new Semaphore(Math.max(1, properties.maxConcurrency()), true);
+        this.permitsPerHost = Math.max(1, properties.maxConcurrencyPerHost());
+        Gauge.builder("bootguard.probe.queue.depth", waiting, AtomicInteger::get)
+                .description("Probes waiting for a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("bootguard.probe.active", active, AtomicInteger::get)
+                .description("Probes currently in flight")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("bootguard.probe.wait")
+                .description("Time a probe waited for a concurrency permit")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(String url, Supplier<T> task) {
+        return submit(url, new ProbeTimer(), task);
+    }
+
+    /**
+     * Like {@link #submit(String, Supplier)}, starting {@code timer} once the permits are held.
+     */
+    public <T> CompletableFuture<T> submit(String url, ProbeTimer timer, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> runWithPermits(hostOf(url), timer, task), executor);
+    }
+
+    public CompletableFuture<Void> submit(String url, Runnable task) {
+        return submit(url, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Like {@link #submit(String, Supplier)} for tasks that complete asynchronously. The permits
+     * are held until the returned future completes rather than while {@code task} runs, so
+     * non-blocking probes are bounded the same way without holding a thread each.
+     */
+    public <T> CompletableFuture<T> submitAsync(String url, Supplier<CompletableFuture<T>> task) {
+        return submitAsync(url, new ProbeTimer(), task);
+    }
+
+    /**
+     * Like {@link #submitAsync(String, Supplier)}, starting {@code timer} once the permits are held.
+     */
+    public <T> CompletableFuture<T> submitAsync(String url, ProbeTimer timer, Supplier<CompletableFuture<T>> task) {
+        String host = hostOf(url);
+        return CompletableFuture.supplyAsync(() -> acquirePermits(host), executor)
+                .thenCompose(permits -> {
+                    CompletableFuture<T> result;
+                    timer.start();
+                    try {
+                        result = task.get();
+                    } catch (RuntimeException e) {
+                        result = CompletableFuture.failedFuture(e);
+                    }
+                    return result.whenComplete((_, _) -> releasePermits(permits));
+                });
+    }
+
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    /**
+     * @return the number of hosts with probes queued or in flight
+     */
+    int getTrackedHosts() {
+        return hostPermits.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T runWithPermits(String host, ProbeTimer timer, Supplier<T> task) {
+        HostPermits permits = acquirePermits(host);
+        timer.start();
+        try {
+            return task.get();
+        } finally {
+            releasePermits(permits);
+        }
+    }
+
+    /**
+     * @return the host's permits, to be passed to {@link #releasePermits}
+     */
+    private HostPermits acquirePermits(String host) {
+        HostPermits permits = hostPermits.compute(host, (_, current) -> {
+            HostPermits entry = current != null ? current : new HostPermits(host, permitsPerHost);
+            entry.users++;
+            return entry;
+        });
+        long waitStart = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            // Take the host permit first so a slow host cannot sit on global permits
+            // while its own probes are queued behind each other.
+            permits.semaphore.acquire();
+            try {
+                globalPermits.acquire();
+            } catch (InterruptedException e) {
+                permits.semaphore.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            unuse(permits);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        waitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        active.incrementAndGet();
+        return permits;
+    }
+
+    private void releasePermits(HostPermits permits) {
+        active.decrementAndGet();
+        globalPermits.release();
+        permits.semaphore.release();
+        unuse(permits);
+    }
+
+    private void unuse(HostPermits permits) {
+        hostPermits.computeIfPresent(permits.host, (_, current) -> --current.users == 0 ? null : current);
+    }
+
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
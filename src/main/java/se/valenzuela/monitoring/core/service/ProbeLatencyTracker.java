@@ -0,0 +1,97 @@
+package se.valenzuela.monitoring.core.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-service latency distribution of info and health probes.
+ * <p>
+ * Each service and endpoint gets a Micrometer timer publishing p50/p95/p99. Micrometer keeps
+ * these in rotating HdrHistogram-backed buckets, so memory per service is fixed and the
+ * percentiles describe roughly the last {@link #PERCENTILE_WINDOW} rather than all time. The
+ * same timers are scraped by Prometheus as {@code bootguard_probe_latency_seconds}.
+ */
+@Component
+public class ProbeLatencyTracker {
+
+    static final String METRIC_NAME = "bootguard.probe.latency";
+    static final Duration PERCENTILE_WINDOW = Duration.ofMinutes(10);
+
+    public enum Endpoint { INFO, HEALTH }
+
+    /**
+     * Latency percentiles in milliseconds over the recent window.
+     */
+    public record Percentiles(double p50, double p95, double p99, long count) {}
+
+    private record Key(long serviceId, Endpoint endpoint) {}
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Timer> timers = new ConcurrentHashMap<>();
+
+    public ProbeLatencyTracker(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(MonitoredService service, Endpoint endpoint, long nanos) {
+        if (service.getId() == null) {
+            return;
+        }
+        timers.computeIfAbsent(new Key(service.getId(), endpoint), this::register)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Optional<Percentiles> getPercentiles(MonitoredService service, Endpoint endpoint) {
+        if (service.getId() == null) {
+            return Optional.empty();
+        }
+        Timer timer = timers.get(new Key(service.getId(), endpoint));
+        if (timer == null || timer.count() == 0) {
+            return Optional.empty();
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        double[] values = new double[3];
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            int index = percentile.percentile() < 0.9 ? 0 : percentile.percentile() < 0.99 ? 1 : 2;
+            values[index] = percentile.value(TimeUnit.MILLISECONDS);
+        }
+        return Optional.of(new Percentiles(values[0], values[1], values[2], snapshot.count()));
+    }
+
+    /**
+     * Drops the service's timers so removed services stop being exported.
+     */
+    public void remove(MonitoredService service) {
+        if (service.getId() == null) {
+            return;
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            Timer timer = timers.remove(new Key(service.getId(), endpoint));
+            if (timer != null) {
+                meterRegistry.remove(timer);
+            }
+        }
+    }
+
+    private Timer register(Key key) {
+        return Timer.builder(METRIC_NAME)
+                .description("Latency of info and health probes against a monitored service")
+                .tag("service", String.valueOf(key.serviceId()))
+                .tag("endpoint", key.endpoint().name().toLowerCase(Locale.ROOT))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(PERCENTILE_WINDOW)
+                .distributionStatisticBufferLength(5)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package se.valenzuela.monitoring.core.service;
+
+/**
+ * Measures one probe from the moment {@link ProbeExecutor} has granted its permits, so the
+ * time it spent queued behind other probes does not count as the service's latency.
+ */
+public final class ProbeTimer {
+
+    private volatile long startNanos;
+    private volatile boolean started;
+
+    void start() {
+        startNanos = System.nanoTime();
+        started = true;
+    }
+
+    /**
+     * @return whether the probe got its permits; a probe rejected or interrupted while
+     *         queued has no latency to report
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    public long elapsedNanos() {
+        return started ? System.nanoTime() - startNanos : 0;
+    }
+}
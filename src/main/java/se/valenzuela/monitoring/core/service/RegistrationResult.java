@@ -0,0 +1,39 @@
+package se.valenzuela.monitoring.core.service;
+
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+/**
+ * Outcome of one entry of a batch registration.
+ *
+ * @param serviceId the id of the registered or already known service; {@code null} otherwise
+ * @param message   why the entry was rejected; {@code null} unless {@link Status#INVALID}
+ */
+public record RegistrationResult(String url, Status status, Long serviceId, String message) {
+
+    public enum Status {
+        /** Stored by this request. */
+        REGISTERED,
+        /** A service with this URL was already monitored. */
+        ALREADY_REGISTERED,
+        /** The URL appeared earlier in the same batch. */
+        DUPLICATE,
+        /** The entry did not pass validation and was skipped. */
+        INVALID
+    }
+
+    public static RegistrationResult registered(MonitoredService service) {
+        return new RegistrationResult(service.getUrl(), Status.REGISTERED, service.getId(), null);
+    }
+
+    public static RegistrationResult alreadyRegistered(String url, Long serviceId) {
+        return new RegistrationResult(url, Status.ALREADY_REGISTERED, serviceId, null);
+    }
+
+    public static RegistrationResult duplicate(String url) {
+        return new RegistrationResult(url, Status.DUPLICATE, null, null);
+    }
+
+    public static RegistrationResult invalid(String url, String message) {
+        return new RegistrationResult(url, Status.INVALID, null, message);
+    }
+}
@@ -0,0 +1,55 @@
+package se.valenzuela.monitoring.core.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import se.valenzuela.monitoring.core.client.HealthProbeResult;
+import se.valenzuela.monitoring.core.client.HealthResponseDecoder;
+import se.valenzuela.monitoring.core.client.HealthSummary;
+import se.valenzuela.monitoring.core.client.InfoEndpointResponse;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Probes through the pooled blocking {@code probeRestClient}. Each request occupies a
+ * virtual thread for its whole duration.
+ */
+@Component
+@ConditionalOnProperty(name = "bootguard.probe.engine", havingValue = "rest-client", matchIfMissing = true)
+public class RestClientProbeEngine implements ProbeEngine {
+
+    private final RestClient restClient;
+    private final ProbeExecutor probeExecutor;
+
+    public RestClientProbeEngine(@Qualifier("probeRestClient") RestClient restClient, ProbeExecutor probeExecutor) {
+        this.restClient = restClient;
+        this.probeExecutor = probeExecutor;
+    }
+
+    @Override
+    public CompletableFuture<HealthProbeResult> fetchHealth(String url, ProbeTimer timer) {
+        // exchange() rather than retrieve() so a 503 with a DOWN body is decoded too
+        return probeExecutor.submit(url, timer, () -> restClient.get()
+                .uri(url)
+                .exchange((_, response) -> {
+                    int status = response.getStatusCode().value();
+                    HealthSummary summary;
+                    try (InputStream body = response.getBody()) {
+                        summary = HealthResponseDecoder.decode(body);
+                    } catch (RuntimeException e) {
+                        summary = null;
+                    }
+                    return new HealthProbeResult(status, summary);
+                }));
+    }
+
+    @Override
+    public CompletableFuture<InfoEndpointResponse> fetchInfo(String url, ProbeTimer timer) {
+        return probeExecutor.submit(url, timer, () -> restClient.get()
+                .uri(url)
+                .retrieve()
+                .body(InfoEndpointResponse.class));
+    }
+}
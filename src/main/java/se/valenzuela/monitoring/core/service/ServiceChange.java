@@ -0,0 +1,55 @@
+package se.valenzuela.monitoring.core.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * What happened to one monitored service, as delivered to {@link MonitoringService} listeners.
+ *
+ * @param status the service's status after the change, or its last status if it was removed
+ * @param fields the parts of the service that changed; empty for {@link Type#ADDED} and {@link Type#REMOVED}
+ */
+public record ServiceChange(ServiceStatus status, Type type, Set<Field> fields) {
+
+    public enum Type { ADDED, UPDATED, REMOVED }
+
+    public enum Field {
+        /** Health flag, health status, component statuses or flapping. */
+        HEALTH,
+        /** Name, version or info endpoint reachability. */
+        INFO,
+        /** Certificate expiry date or the expiring-soon flag. */
+        CERTIFICATE,
+        /** Time of the last completed check. */
+        CHECKED_AT,
+        /** URL, endpoints, interval or environments, i.e. anything a user edits. */
+        CONFIGURATION
+    }
+
+    public ServiceChange {
+        fields = fields.isEmpty() ? Set.of() : Set.copyOf(EnumSet.copyOf(fields));
+    }
+
+    public static ServiceChange added(ServiceStatus status) {
+        return new ServiceChange(status, Type.ADDED, Set.of());
+    }
+
+    public static ServiceChange updated(ServiceStatus status, Set<Field> fields) {
+        return new ServiceChange(status, Type.UPDATED, fields);
+    }
+
+    public static ServiceChange removed(ServiceStatus status) {
+        return new ServiceChange(status, Type.REMOVED, Set.of());
+    }
+
+    public Long serviceId() {
+        return status.serviceId();
+    }
+
+    /**
+     * @return whether the change can alter how the service is presented beyond its last-checked time
+     */
+    public boolean affectsAppearance() {
+        return type != Type.UPDATED || fields.stream().anyMatch(field -> field != Field.CHECKED_AT);
+    }
+}
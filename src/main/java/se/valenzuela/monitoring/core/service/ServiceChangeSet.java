@@ -0,0 +1,22 @@
+package se.valenzuela.monitoring.core.service;
+
+import java.util.List;
+
+/**
+ * Changes applied together, e.g. the results of one health check round, so listeners can
+ * patch their state once per batch instead of once per service.
+ */
+public record ServiceChangeSet(List<ServiceChange> changes) {
+
+    public ServiceChangeSet {
+        changes = List.copyOf(changes);
+    }
+
+    public static ServiceChangeSet of(ServiceChange... changes) {
+        return new ServiceChangeSet(List.of(changes));
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+}
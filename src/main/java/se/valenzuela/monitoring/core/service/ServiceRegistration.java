@@ -0,0 +1,10 @@
+package se.valenzuela.monitoring.core.service;
+
+/**
+ * One service registering itself.
+ *
+ * @param leaseSeconds how long the registration lasts unless renewed, or {@code null} for a
+ *                     registration that lasts until the service is removed
+ */
+public record ServiceRegistration(String url, Integer leaseSeconds) {
+}
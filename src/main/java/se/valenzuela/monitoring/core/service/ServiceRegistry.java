@@ -0,0 +1,203 @@
+package se.valenzuela.monitoring.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.core.model.Environment;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-through, in-memory view of all monitored services and their environments.
+ * <p>
+ * The full service list is loaded once with a single {@code JOIN FETCH} query and is
+ * afterwards kept in sync by the services that write to the database. Readers such as
+ * the health check scheduler and the Vaadin views never touch the database.
+ * <p>
+ * Services are also indexed by URL, so registrations can be deduplicated without a query.
+ */
+@Slf4j
+@Component
+public class ServiceRegistry {
+
+    private final MonitoredServiceRepository repository;
+    private final Map<Long, MonitoredService> servicesById = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByUrl = new ConcurrentHashMap<>();
+    private final Map<Long, String> urlsById = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean loaded;
+
+    public ServiceRegistry(MonitoredServiceRepository repository) {
+        this.repository = repository;
+    }
+
+    public List<MonitoredService> getAll() {
+        ensureLoaded();
+        return List.copyOf(servicesById.values());
+    }
+
+    public Optional<MonitoredService> get(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(servicesById.get(id));
+    }
+
+    public Optional<MonitoredService> findByUrl(String url) {
+        ensureLoaded();
+        Long id = idsByUrl.get(url);
+        return id != null ? Optional.ofNullable(servicesById.get(id)) : Optional.empty();
+    }
+
+    public boolean containsUrl(String url) {
+        return findByUrl(url).isPresent();
+    }
+
+    public int size() {
+        ensureLoaded();
+        return servicesById.size();
+    }
+
+    /**
+     * Monotonic counter bumped on every write, so readers can cheaply detect that the
+     * service set (or a service's configuration) changed since they last looked.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public void put(MonitoredService service) {
+        if (service.getId() == null) {
+            return;
+        }
+        ensureLoaded();
+        servicesById.put(service.getId(), service);
+        indexUrl(service);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Adds several services with a single version bump, so the scheduler reconciles a bulk
+     * registration once.
+     */
+    public void putAll(List<MonitoredService> services) {
+        ensureLoaded();
+        for (MonitoredService service : services) {
+            if (service.getId() != null) {
+                servicesById.put(service.getId(), service);
+                indexUrl(service);
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    public void remove(MonitoredService service) {
+        removeAll(List.of(service));
+    }
+
+    /**
+     * Removes several services with a single version bump.
+     */
+    public void removeAll(List<MonitoredService> services) {
+        if (services.stream().allMatch(service -> service.getId() == null)) {
+            return;
+        }
+        ensureLoaded();
+        for (MonitoredService service : services) {
+            if (service.getId() == null) {
+                continue;
+            }
+            servicesById.remove(service.getId());
+            String url = urlsById.remove(service.getId());
+            if (url != null) {
+                idsByUrl.remove(url, service.getId());
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Replaces the environment sets of the registered services so they reference the
+     * updated environment (its interval drives {@code getEffectiveHealthCheckIntervalSeconds}).
+     * Sets are swapped rather than mutated so concurrent readers never see a half-updated set.
+     */
+    public void environmentUpdated(Environment environment) {
+        replaceEnvironment(environment, true);
+    }
+
+    public void environmentRemoved(Environment environment) {
+        replaceEnvironment(environment, false);
+    }
+
+    /**
+     * Replaces the in-memory state with every service in the database. Stored services are
+     * put over the registered ones before services that no longer exist are dropped, so
+     * readers, which take no lock, never see the registry empty or half-filled.
+     */
+    public synchronized void reload() {
+        List<MonitoredService> services = repository.findAllWithEnvironments();
+        Set<Long> storedIds = new HashSet<>();
+        services.forEach(service -> {
+            servicesById.put(service.getId(), service);
+            indexUrl(service);
+            storedIds.add(service.getId());
+        });
+        for (Long id : List.copyOf(servicesById.keySet())) {
+            if (!storedIds.contains(id)) {
+                servicesById.remove(id);
+                String url = urlsById.remove(id);
+                if (url != null) {
+                    idsByUrl.remove(url, id);
+                }
+            }
+        }
+        loaded = true;
+        version.incrementAndGet();
+        log.debug("Loaded {} monitored services into the registry", services.size());
+    }
+
+    /**
+     * Points the service's URL at it, dropping the entry for its previous URL if it was edited.
+     */
+    private void indexUrl(MonitoredService service) {
+        String previousUrl = urlsById.put(service.getId(), service.getUrl());
+        if (previousUrl != null && !previousUrl.equals(service.getUrl())) {
+            idsByUrl.remove(previousUrl, service.getId());
+        }
+        idsByUrl.put(service.getUrl(), service.getId());
+    }
+
+    private void replaceEnvironment(Environment environment, boolean keep) {
+        if (environment.getId() == null) {
+            return;
+        }
+        ensureLoaded();
+        for (MonitoredService service : servicesById.values()) {
+            if (!service.getEnvironments().contains(environment)) {
+                continue;
+            }
+            Set<Environment> environments = new HashSet<>(service.getEnvironments());
+            environments.remove(environment);
+            if (keep) {
+                environments.add(environment);
+            }
+            service.setEnvironments(environments);
+        }
+        version.incrementAndGet();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+}
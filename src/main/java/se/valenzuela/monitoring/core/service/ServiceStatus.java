@@ -0,0 +1,89 @@
+package se.valenzuela.monitoring.core.service;
+
+import se.valenzuela.monitoring.core.model.Environment;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable copy of a service's last observed state and of the configuration shown with it. The
+ * probe threads mutate {@link MonitoredService} in place; this is what they publish once a
+ * check has completed, so readers on other threads, views in particular, always see the fields
+ * of one check together.
+ *
+ * @param healthCheckIntervalSeconds the configured interval, or {@code null} for the default
+ * @param effectiveIntervalSeconds   the interval the service is actually checked at
+ * @param environments               the environments the service belongs to, so views can show
+ *                                   and filter by them without a query
+ */
+public record ServiceStatus(Long serviceId, String url, boolean healthy, String healthStatus, Integer httpStatus,
+                            Map<String, String> components, long latencyMillis, boolean flapping,
+                            boolean infoStatus, String name, String version,
+                            Instant certExpiry, boolean certExpiringSoon, Instant checkedAt,
+                            String infoEndpoint, String healthEndpoint,
+                            Integer healthCheckIntervalSeconds, int effectiveIntervalSeconds,
+                            Set<Environment> environments) {
+
+    public ServiceStatus {
+        components = components != null ? Map.copyOf(components) : Map.of();
+        environments = environments != null ? Set.copyOf(environments) : Set.of();
+    }
+
+    public static ServiceStatus of(MonitoredService service) {
+        return new ServiceStatus(service.getId(), service.getUrl(), service.isHealthStatus(),
+                service.getHealthResponseStatus(), service.getHealthHttpStatus(), service.getHealthComponents(),
+                service.getHealthLatencyMillis(), service.isFlapping(),
+                service.isInfoStatus(), service.getName(), service.getVersion(),
+                service.getEarliestCertExpiry(), service.isCertExpiringSoon(), service.getLastUpdated(),
+                service.getInfoEndpoint(), service.getHealthEndpoint(),
+                service.getHealthCheckIntervalSeconds(), service.getEffectiveHealthCheckIntervalSeconds(),
+                service.getEnvironments());
+    }
+
+    /**
+     * @return the service's name, or its URL until the name is known
+     */
+    public String displayName() {
+        return name != null ? name : url;
+    }
+
+    /**
+     * @param previous the status this one replaces, or {@code null} if the service had none yet
+     * @return the fields that differ from {@code previous}; every observed field when there was none
+     */
+    public Set<ServiceChange.Field> changedFieldsSince(ServiceStatus previous) {
+        if (previous == null) {
+            return EnumSet.of(ServiceChange.Field.HEALTH, ServiceChange.Field.INFO,
+                    ServiceChange.Field.CERTIFICATE, ServiceChange.Field.CHECKED_AT);
+        }
+        Set<ServiceChange.Field> fields = EnumSet.noneOf(ServiceChange.Field.class);
+        if (healthy != previous.healthy || flapping != previous.flapping
+                || !Objects.equals(healthStatus, previous.healthStatus)
+                || !Objects.equals(httpStatus, previous.httpStatus)
+                || !Objects.equals(components, previous.components)) {
+            fields.add(ServiceChange.Field.HEALTH);
+        }
+        if (infoStatus != previous.infoStatus || !Objects.equals(name, previous.name)
+                || !Objects.equals(version, previous.version)) {
+            fields.add(ServiceChange.Field.INFO);
+        }
+        if (certExpiringSoon != previous.certExpiringSoon || !Objects.equals(certExpiry, previous.certExpiry)) {
+            fields.add(ServiceChange.Field.CERTIFICATE);
+        }
+        if (!Objects.equals(checkedAt, previous.checkedAt)) {
+            fields.add(ServiceChange.Field.CHECKED_AT);
+        }
+        if (!Objects.equals(url, previous.url) || !Objects.equals(infoEndpoint, previous.infoEndpoint)
+                || !Objects.equals(healthEndpoint, previous.healthEndpoint)
+                || !Objects.equals(healthCheckIntervalSeconds, previous.healthCheckIntervalSeconds)
+                || effectiveIntervalSeconds != previous.effectiveIntervalSeconds
+                || !environments.equals(previous.environments)) {
+            fields.add(ServiceChange.Field.CONFIGURATION);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,65 @@
+package se.valenzuela.monitoring.core.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with the same key into one. Callers that arrive while a call
+ * is in flight share its future, and callers that arrive within {@code resultTtl} of it
+ * completing successfully get its result instead of starting another call.
+ */
+final class SingleFlight<K, V> {
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile long completedAtNanos;
+
+        boolean isReusable(long nowNanos, long ttlNanos) {
+            if (!result.isDone()) {
+                return true;
+            }
+            return !result.isCompletedExceptionally() && nowNanos - completedAtNanos < ttlNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long resultTtlNanos;
+
+    SingleFlight(Duration resultTtl) {
+        this.resultTtlNanos = resultTtl.toNanos();
+    }
+
+    /**
+     * @param call starts the call; only invoked when there is no reusable flight for the key
+     */
+    CompletableFuture<V> run(K key, Supplier<CompletableFuture<V>> call) {
+        long now = System.nanoTime();
+        Flight<V> flight = flights.compute(key, (_, current) ->
+                current != null && current.isReusable(now, resultTtlNanos) ? current : new Flight<>());
+        // compute() must stay cheap, so the caller that installed the flight starts it afterwards
+        if (flight.started.compareAndSet(false, true)) {
+            try {
+                call.get().whenComplete((value, failure) -> {
+                    flight.completedAtNanos = System.nanoTime();
+                    if (failure != null) {
+                        flight.result.completeExceptionally(failure);
+                    } else {
+                        flight.result.complete(value);
+                    }
+                });
+            } catch (RuntimeException e) {
+                flight.completedAtNanos = System.nanoTime();
+                flight.result.completeExceptionally(e);
+            }
+        }
+        return flight.result.copy();
+    }
+
+    void forget(K key) {
+        flights.remove(key);
+    }
+}
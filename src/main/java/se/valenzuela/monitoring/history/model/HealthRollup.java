@@ -0,0 +1,18 @@
+package se.valenzuela.monitoring.history.model;
+
+import java.time.Instant;
+
+/**
+ * Aggregated health samples of one service over one bucket.
+ */
+public record HealthRollup(long serviceId, Resolution resolution, Instant bucketStart, int sampleCount,
+                           int upCount, int transitionCount, long latencySumMillis, int latencyMaxMillis) {
+
+    public double availability() {
+        return sampleCount == 0 ? 0 : (double) upCount / sampleCount;
+    }
+
+    public long averageLatencyMillis() {
+        return sampleCount == 0 ? 0 : latencySumMillis / sampleCount;
+    }
+}
@@ -0,0 +1,13 @@
+package se.valenzuela.monitoring.history.model;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a single health probe.
+ *
+ * @param httpStatus HTTP status code of the health response, or {@code null} when no response was received
+ * @param transition whether the healthy flag differs from the previous sample of the same service
+ */
+public record HealthSample(long serviceId, Instant sampledAt, boolean healthy, String status,
+                           Integer httpStatus, long latencyMillis, boolean transition) {
+}
@@ -0,0 +1,51 @@
+package se.valenzuela.monitoring.history.model;
+
+import java.time.Duration;
+
+/**
+ * Rollup granularities. Each resolution is aggregated from the one before it, and the
+ * finest one from the raw samples.
+ */
+public enum Resolution {
+    MINUTE(Duration.ofMinutes(1)),
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1));
+
+    private final Duration bucket;
+
+    Resolution(Duration bucket) {
+        this.bucket = bucket;
+    }
+
+    public long bucketMillis() {
+        return bucket.toMillis();
+    }
+
+    /**
+     * @return the start of the (UTC) bucket containing {@code epochMillis}
+     */
+    public long bucketStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, bucketMillis());
+    }
+
+    /**
+     * @return the resolution this one is aggregated from, or {@code null} for raw samples
+     */
+    public Resolution source() {
+        return ordinal() == 0 ? null : values()[ordinal() - 1];
+    }
+
+    /**
+     * Picks the finest resolution that keeps a query over {@code range} to a few thousand
+     * buckets per service.
+     */
+    public static Resolution forRange(Duration range) {
+        if (range.compareTo(Duration.ofDays(2)) <= 0) {
+            return MINUTE;
+        }
+        if (range.compareTo(Duration.ofDays(90)) <= 0) {
+            return HOUR;
+        }
+        return DAY;
+    }
+}
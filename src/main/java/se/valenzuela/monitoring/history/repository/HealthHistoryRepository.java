@@ -0,0 +1,152 @@
+package se.valenzuela.monitoring.history.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.history.model.HealthRollup;
+import se.valenzuela.monitoring.history.model.HealthSample;
+import se.valenzuela.monitoring.history.model.Resolution;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the history tables. Samples are written in batches and never
+ * updated; rollups are (re)computed in the database with {@code INSERT ... SELECT}, so
+ * no sample rows are ever pulled into the application to be aggregated.
+ */
+@Repository
+public class HealthHistoryRepository {
+
+    private static final String INSERT_SAMPLE = """
+            INSERT INTO health_sample (service_id, sampled_at, healthy, status, http_status, latency_ms, transition)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String UPSERT_SUFFIX = """
+             ON DUPLICATE KEY UPDATE sample_count = VALUES(sample_count), up_count = VALUES(up_count),
+                transition_count = VALUES(transition_count), latency_sum_ms = VALUES(latency_sum_ms),
+                latency_max_ms = VALUES(latency_max_ms)""";
+
+    private static final String ROLLUP_FROM_SAMPLES = """
+            INSERT INTO health_rollup (service_id, resolution, bucket_start, sample_count, up_count,
+                transition_count, latency_sum_ms, latency_max_ms)
+            SELECT service_id, ?, sampled_at - MOD(sampled_at, ?) AS bucket, COUNT(*), SUM(healthy),
+                SUM(transition), SUM(latency_ms), MAX(latency_ms)
+            FROM health_sample
+            WHERE sampled_at >= ? AND sampled_at < ? AND %s
+            GROUP BY service_id, bucket""".formatted(Fence.CONDITION) + UPSERT_SUFFIX;
+
+    private static final String ROLLUP_FROM_ROLLUPS = """
+            INSERT INTO health_rollup (service_id, resolution, bucket_start, sample_count, up_count,
+                transition_count, latency_sum_ms, latency_max_ms)
+            SELECT service_id, ?, bucket_start - MOD(bucket_start, ?) AS bucket, SUM(sample_count), SUM(up_count),
+                SUM(transition_count), SUM(latency_sum_ms), MAX(latency_max_ms)
+            FROM health_rollup
+            WHERE resolution = ? AND bucket_start >= ? AND bucket_start < ? AND %s
+            GROUP BY service_id, bucket""".formatted(Fence.CONDITION) + UPSERT_SUFFIX;
+
+    private static final String DELETE_SAMPLES =
+            "DELETE FROM health_sample WHERE sampled_at < ? AND %s LIMIT ?".formatted(Fence.CONDITION);
+
+    private static final String DELETE_ROLLUPS =
+            "DELETE FROM health_rollup WHERE resolution = ? AND bucket_start < ? AND %s LIMIT ?".formatted(Fence.CONDITION);
+
+    private static final RowMapper<HealthSample> SAMPLE_MAPPER = (rs, _) -> new HealthSample(
+            rs.getLong("service_id"),
+            Instant.ofEpochMilli(rs.getLong("sampled_at")),
+            rs.getBoolean("healthy"),
+            rs.getString("status"),
+            rs.getObject("http_status", Integer.class),
+            rs.getLong("latency_ms"),
+            rs.getBoolean("transition"));
+
+    private static final RowMapper<HealthRollup> ROLLUP_MAPPER = (rs, _) -> new HealthRollup(
+            rs.getLong("service_id"),
+            Resolution.valueOf(rs.getString("resolution")),
+            Instant.ofEpochMilli(rs.getLong("bucket_start")),
+            rs.getInt("sample_count"),
+            rs.getInt("up_count"),
+            rs.getInt("transition_count"),
+            rs.getLong("latency_sum_ms"),
+            rs.getInt("latency_max_ms"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HealthHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertSamples(List<HealthSample> samples, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SAMPLE, samples, batchSize, (ps, sample) -> {
+            ps.setLong(1, sample.serviceId());
+            ps.setLong(2, sample.sampledAt().toEpochMilli());
+            ps.setBoolean(3, sample.healthy());
+            ps.setString(4, sample.status());
+            if (sample.httpStatus() != null) {
+                ps.setInt(5, sample.httpStatus());
+            } else {
+                ps.setNull(5, Types.SMALLINT);
+            }
+            ps.setLong(6, Math.min(sample.latencyMillis(), Integer.MAX_VALUE));
+            ps.setBoolean(7, sample.transition());
+        });
+    }
+
+    /**
+     * Recomputes every {@code resolution} bucket starting in {@code [fromMillis, toMillis)} from
+     * its source, replacing buckets that were already rolled up. Both bounds must be aligned to
+     * {@code resolution} so partial buckets are never written. Writes nothing once
+     * {@code fence} no longer holds.
+     */
+    public int rollUp(Resolution resolution, long fromMillis, long toMillis, Fence fence) {
+        Resolution source = resolution.source();
+        if (source == null) {
+            return jdbcTemplate.update(ROLLUP_FROM_SAMPLES, resolution.name(), resolution.bucketMillis(),
+                    fromMillis, toMillis, fence.lockName(), fence.lockName(), fence.token());
+        }
+        return jdbcTemplate.update(ROLLUP_FROM_ROLLUPS, resolution.name(), resolution.bucketMillis(), source.name(),
+                fromMillis, toMillis, fence.lockName(), fence.lockName(), fence.token());
+    }
+
+    /**
+     * Deletes at most {@code limit} samples older than {@code beforeMillis}. Callers loop until
+     * fewer rows come back, so a large purge never holds locks for long. Deletes nothing once
+     * {@code fence} no longer holds.
+     */
+    public int deleteSamplesBefore(long beforeMillis, int limit, Fence fence) {
+        return jdbcTemplate.update(DELETE_SAMPLES, beforeMillis, fence.lockName(), fence.lockName(), fence.token(), limit);
+    }
+
+    public int deleteRollupsBefore(Resolution resolution, long beforeMillis, int limit, Fence fence) {
+        return jdbcTemplate.update(DELETE_ROLLUPS, resolution.name(), beforeMillis,
+                fence.lockName(), fence.lockName(), fence.token(), limit);
+    }
+
+    public List<HealthSample> findSamples(long serviceId, long fromMillis, long toMillis) {
+        return jdbcTemplate.query("""
+                SELECT service_id, sampled_at, healthy, status, http_status, latency_ms, transition
+                FROM health_sample
+                WHERE service_id = ? AND sampled_at >= ? AND sampled_at < ?
+                ORDER BY sampled_at""", SAMPLE_MAPPER, serviceId, fromMillis, toMillis);
+    }
+
+    public int countTransitions(long serviceId, long fromMillis, long toMillis) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*)
+                FROM health_sample
+                WHERE service_id = ? AND sampled_at >= ? AND sampled_at < ? AND transition""",
+                Integer.class, serviceId, fromMillis, toMillis);
+        return count != null ? count : 0;
+    }
+
+    public List<HealthRollup> findRollups(long serviceId, Resolution resolution, long fromMillis, long toMillis) {
+        return jdbcTemplate.query("""
+                SELECT service_id, resolution, bucket_start, sample_count, up_count, transition_count,
+                    latency_sum_ms, latency_max_ms
+                FROM health_rollup
+                WHERE service_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?
+                ORDER BY bucket_start""", ROLLUP_MAPPER, serviceId, resolution.name(), fromMillis, toMillis);
+    }
+}
@@ -0,0 +1,237 @@
+package se.valenzuela.monitoring.history.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.cluster.service.LeaderElection;
+import se.valenzuela.monitoring.config.HistoryProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.history.model.HealthRollup;
+import se.valenzuela.monitoring.history.model.HealthSample;
+import se.valenzuela.monitoring.history.model.Resolution;
+import se.valenzuela.monitoring.history.repository.HealthHistoryRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Records every health probe outcome and maintains 1-minute, 1-hour and 1-day rollups of them.
+ * <p>
+ * Probe threads only append to an in-memory buffer; a scheduled flush writes it with JDBC
+ * batch inserts. Rollups are recomputed in the database for buckets that closed since the
+ * last run, and expired rows are purged per table according to {@link HistoryProperties}.
+ * Queries over long ranges read rollups, so their cost depends on the range rather than on
+ * how many samples were taken.
+ * <p>
+ * Every node records and flushes the samples of the services it checks. Rollups and purges
+ * run only on the cluster leader, and their statements carry its fencing token so a leader
+ * that lost the lock while paused cannot write.
+ */
+@Slf4j
+@Service
+public class HealthHistoryService {
+
+    /**
+     * Buckets are rolled up only once they closed this long ago, so samples still sitting
+     * in the buffer when a bucket ends are included.
+     */
+    static final long SETTLE_MILLIS = Duration.ofMinutes(2).toMillis();
+    private static final int STARTUP_LOOKBACK_BUCKETS = 10;
+    private static final int DELETE_CHUNK_SIZE = 10_000;
+
+    private final HealthHistoryRepository repository;
+    private final HistoryProperties properties;
+    private final LeaderElection leaderElection;
+    private final ConcurrentLinkedQueue<HealthSample> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final Counter droppedSamples;
+    private final Map<Resolution, Long> rolledUpTo = new EnumMap<>(Resolution.class);
+
+    public HealthHistoryService(HealthHistoryRepository repository, HistoryProperties properties,
+                                LeaderElection leaderElection, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.leaderElection = leaderElection;
+        Gauge.builder("bootguard.history.buffered", buffered, AtomicInteger::get)
+                .description("Health samples waiting to be written")
+                .register(meterRegistry);
+        this.droppedSamples = Counter.builder("bootguard.history.dropped")
+                .description("Health samples discarded because the buffer was full or the write failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers the outcome of the probe that just completed for {@code service}.
+     *
+     * @param transition whether the probe flipped the service between healthy and unhealthy
+     */
+    public void record(MonitoredService service, boolean transition) {
+        if (!properties.enabled() || service.getId() == null) {
+            return;
+        }
+        if (buffered.incrementAndGet() > properties.maxBufferedSamples()) {
+            buffered.decrementAndGet();
+            droppedSamples.increment();
+            return;
+        }
+        Instant sampledAt = service.getLastUpdated() != null ? service.getLastUpdated() : Instant.now();
+        buffer.add(new HealthSample(service.getId(), sampledAt, service.isHealthStatus(),
+                service.getHealthResponseStatus(), service.getHealthHttpStatus(),
+                service.getHealthLatencyMillis(), transition));
+    }
+
+    @Scheduled(fixedDelayString = "${bootguard.history.flush-interval:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<HealthSample> samples = new ArrayList<>(buffered.get());
+        HealthSample sample;
+        while ((sample = buffer.poll()) != null) {
+            samples.add(sample);
+        }
+        if (samples.isEmpty()) {
+            return;
+        }
+        buffered.addAndGet(-samples.size());
+        try {
+            repository.insertSamples(samples, properties.batchSize());
+        } catch (Exception e) {
+            droppedSamples.increment(samples.size());
+            log.warn("Failed to write {} health samples: {}", samples.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bootguard.history.rollup-interval:60000}",
+            initialDelayString = "${bootguard.history.rollup-interval:60000}")
+    public void rollUp() {
+        Optional<Fence> fence = leaderElection.fence();
+        if (fence.isEmpty()) {
+            // A node that becomes leader later starts over from the usual lookback
+            clearRollupProgress();
+            return;
+        }
+        rollUp(System.currentTimeMillis(), fence.get());
+    }
+
+    private synchronized void clearRollupProgress() {
+        rolledUpTo.clear();
+    }
+
+    /**
+     * Rolls up, finest resolution first, every bucket that closed since the previous run so
+     * a day bucket is only computed after the hour buckets it is built from. Progress is only
+     * kept while {@code fence} is still this node's, since a fenced-off statement writes nothing.
+     */
+    synchronized void rollUp(long nowMillis, Fence fence) {
+        if (!properties.enabled()) {
+            return;
+        }
+        for (Resolution resolution : Resolution.values()) {
+            long to = resolution.bucketStart(nowMillis - SETTLE_MILLIS);
+            long from = rolledUpTo.getOrDefault(resolution, to - STARTUP_LOOKBACK_BUCKETS * resolution.bucketMillis());
+            if (from >= to) {
+                continue;
+            }
+            try {
+                int rows = repository.rollUp(resolution, from, to, fence);
+                if (leaderElection.fence().filter(fence::equals).isEmpty()) {
+                    // The write may have been refused; a later leader starts from the lookback
+                    rolledUpTo.clear();
+                    return;
+                }
+                rolledUpTo.put(resolution, to);
+                log.debug("Rolled up {} {} buckets in [{}, {})", rows, resolution,
+                        Instant.ofEpochMilli(from), Instant.ofEpochMilli(to));
+            } catch (Exception e) {
+                log.warn("Failed to roll up {} health history: {}", resolution, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${bootguard.history.purge-cron:0 17 * * * *}")
+    public void purge() {
+        leaderElection.fence().ifPresent(fence -> purge(System.currentTimeMillis(), fence));
+    }
+
+    void purge(long nowMillis, Fence fence) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long samplesBefore = nowMillis - properties.rawRetention().toMillis();
+        int deleted = deleteInChunks(limit -> repository.deleteSamplesBefore(samplesBefore, limit, fence));
+        for (Resolution resolution : Resolution.values()) {
+            long rollupsBefore = nowMillis - retention(resolution).toMillis();
+            deleted += deleteInChunks(limit -> repository.deleteRollupsBefore(resolution, rollupsBefore, limit, fence));
+        }
+        if (deleted > 0) {
+            log.info("Purged {} expired health history rows", deleted);
+        }
+    }
+
+    public List<HealthSample> getSamples(long serviceId, Instant from, Instant to) {
+        return repository.findSamples(serviceId, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * @return rollups covering {@code [from, to)} at the finest resolution suited to the range
+     */
+    public List<HealthRollup> getRollups(long serviceId, Instant from, Instant to) {
+        return getRollups(serviceId, Resolution.forRange(Duration.between(from, to)), from, to);
+    }
+
+    public List<HealthRollup> getRollups(long serviceId, Resolution resolution, Instant from, Instant to) {
+        return repository.findRollups(serviceId, resolution, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Sums the rollups at the range's resolution, plus the raw samples taken after the last
+     * rolled-up bucket, as buckets are only rolled up a while after they closed.
+     *
+     * @return how many times the service flipped between healthy and unhealthy in {@code [from, to)}
+     */
+    public int countTransitions(long serviceId, Instant from, Instant to) {
+        Resolution resolution = Resolution.forRange(Duration.between(from, to));
+        List<HealthRollup> rollups = getRollups(serviceId, resolution, from, to);
+        int transitions = rollups.stream()
+                .mapToInt(HealthRollup::transitionCount)
+                .sum();
+        long rolledUpTo = rollups.isEmpty()
+                ? from.toEpochMilli()
+                : rollups.getLast().bucketStart().toEpochMilli() + resolution.bucketMillis();
+        if (rolledUpTo < to.toEpochMilli()) {
+            transitions += repository.countTransitions(serviceId, rolledUpTo, to.toEpochMilli());
+        }
+        return transitions;
+    }
+
+    private Duration retention(Resolution resolution) {
+        return switch (resolution) {
+            case MINUTE -> properties.minuteRetention();
+            case HOUR -> properties.hourRetention();
+            case DAY -> properties.dayRetention();
+        };
+    }
+
+    private static int deleteInChunks(IntUnaryOperator deleteChunk) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = deleteChunk.applyAsInt(DELETE_CHUNK_SIZE);
+            total += deleted;
+        } while (deleted >= DELETE_CHUNK_SIZE);
+        return total;
+    }
+}
@@ -38,7 +38,15 @@ public class EmailNotificationChannel implements NotificationChannel {
     @Override
     public void send(MonitoringEvent event, String configJson) {
         try {
-            JsonNode config = jsonMapper.readTree(configJson);
+            send(event, jsonMapper.readTree(configJson));
+        } catch (Exception e) {
+            log.error("Failed to send email notification for service '{}'", serviceName(event), e);
+        }
+    }
+
+    @Override
+    public void send(MonitoringEvent event, JsonNode config) {
+        try {
             String recipients = config.path("recipients").asText("");
             String fromAddress = config.path("fromAddress").asText("bootguard@localhost");
             String subjectPrefix = config.path("subjectPrefix").asText("[BootGuard]");
@@ -94,6 +102,9 @@ public class EmailNotificationChannel implements NotificationChannel {
             case ServiceHealthChangedEvent e -> e.wentDown()
                     ? "%s Service DOWN: %s".formatted(prefix, serviceName(e))
                     : "%s Service UP: %s".formatted(prefix, serviceName(e));
+            case ServiceFlappingEvent e -> e.flapping()
+                    ? "%s Service FLAPPING: %s".formatted(prefix, serviceName(e))
+                    : "%s Service stopped flapping: %s".formatted(prefix, serviceName(e));
             case ServiceAddedEvent e -> "%s Service Added: %s".formatted(prefix, serviceName(e));
             case ServiceRemovedEvent e -> "%s Service Removed: %s".formatted(prefix, serviceName(e));
         };
@@ -106,6 +117,12 @@ public class EmailNotificationChannel implements NotificationChannel {
                     serviceName(e), e.service().getUrl(), e.timestamp())
                     : "Service '%s' (%s) is now UP.\nDetected at: %s".formatted(
                     serviceName(e), e.service().getUrl(), e.timestamp());
+            case ServiceFlappingEvent e -> e.flapping()
+                    ? ("Service '%s' (%s) is flapping: %d%% of its recent checks changed state.\n"
+                    + "UP/DOWN notifications are held back until it settles.\nDetected at: %s").formatted(
+                    serviceName(e), e.service().getUrl(), Math.round(e.changeRate() * 100), e.timestamp())
+                    : "Service '%s' (%s) has stopped flapping and is now %s.\nDetected at: %s".formatted(
+                    serviceName(e), e.service().getUrl(), e.currentlyHealthy() ? "UP" : "DOWN", e.timestamp());
             case ServiceAddedEvent e ->
                     "Service '%s' (%s) has been added to monitoring.\nAdded at: %s".formatted(
                             serviceName(e), e.service().getUrl(), e.timestamp());
@@ -1,6 +1,7 @@
 package se.valenzuela.monitoring.notification.channel;
 
 import se.valenzuela.monitoring.notification.event.MonitoringEvent;
+import tools.jackson.databind.JsonNode;
 
 import java.util.List;
 
@@ -12,6 +13,11 @@ public interface NotificationChannel {
 
     void send(MonitoringEvent event, String configJson);
 
+    /**
+     * Sends with an already parsed config, as resolved by the notification routing table.
+     */
+    void send(MonitoringEvent event, JsonNode config);
+
     boolean validate(String configJson);
 
     String configDescription();
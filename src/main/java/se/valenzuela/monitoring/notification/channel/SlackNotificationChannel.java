@@ -3,6 +3,7 @@ package se.valenzuela.monitoring.notification.channel;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.json.JsonMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import se.valenzuela.monitoring.core.model.MonitoredService;
@@ -19,7 +20,7 @@ public class SlackNotificationChannel implements NotificationChannel {
     private final RestClient restClient;
     private final JsonMapper jsonMapper;
 
-    public SlackNotificationChannel(RestClient restClient, JsonMapper jsonMapper) {
+    public SlackNotificationChannel(@Qualifier("notificationRestClient") RestClient restClient, JsonMapper jsonMapper) {
         this.restClient = restClient;
         this.jsonMapper = jsonMapper;
     }
@@ -37,7 +38,15 @@ public class SlackNotificationChannel implements NotificationChannel {
     @Override
     public void send(MonitoringEvent event, String configJson) {
         try {
-            JsonNode config = jsonMapper.readTree(configJson);
+            send(event, jsonMapper.readTree(configJson));
+        } catch (Exception e) {
+            log.error("Failed to send Slack notification for service '{}'", serviceName(event), e);
+        }
+    }
+
+    @Override
+    public void send(MonitoringEvent event, JsonNode config) {
+        try {
             String webhookUrl = config.path("webhookUrl").asText("");
 
             if (webhookUrl.isBlank()) {
@@ -90,6 +99,11 @@ public class SlackNotificationChannel implements NotificationChannel {
                     serviceName(e), e.service().getUrl(), e.timestamp())
                     : ":large_green_circle: *Service UP:* %s (%s)\n_%s_".formatted(
                     serviceName(e), e.service().getUrl(), e.timestamp());
+            case ServiceFlappingEvent e -> e.flapping()
+                    ? ":warning: *Service FLAPPING:* %s (%s), %d%% of recent checks changed state\n_%s_".formatted(
+                    serviceName(e), e.service().getUrl(), Math.round(e.changeRate() * 100), e.timestamp())
+                    : ":ok: *Service stopped flapping:* %s (%s), now %s\n_%s_".formatted(
+                    serviceName(e), e.service().getUrl(), e.currentlyHealthy() ? "UP" : "DOWN", e.timestamp());
             case ServiceAddedEvent e ->
                     ":new: *Service Added:* %s (%s)\n_%s_".formatted(
                             serviceName(e), e.service().getUrl(), e.timestamp());
@@ -5,7 +5,7 @@ import se.valenzuela.monitoring.core.model.MonitoredService;
 import java.time.Instant;
 
 public sealed interface MonitoringEvent
-        permits ServiceHealthChangedEvent, ServiceAddedEvent, ServiceRemovedEvent {
+        permits ServiceHealthChangedEvent, ServiceFlappingEvent, ServiceAddedEvent, ServiceRemovedEvent {
 
     MonitoredService service();
 
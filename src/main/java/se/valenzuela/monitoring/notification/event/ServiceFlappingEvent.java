@@ -0,0 +1,20 @@
+package se.valenzuela.monitoring.notification.event;
+
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.time.Instant;
+
+/**
+ * A service started or stopped flapping. While it flaps its UP/DOWN transitions are not
+ * published; the event that ends the flapping carries the state it settled in.
+ *
+ * @param changeRate share of the recent checks that changed state
+ */
+public record ServiceFlappingEvent(
+        MonitoredService service,
+        boolean flapping,
+        boolean currentlyHealthy,
+        double changeRate,
+        Instant timestamp
+) implements MonitoringEvent {
+}
@@ -0,0 +1,11 @@
+package se.valenzuela.monitoring.notification.model;
+
+import java.time.Instant;
+
+/**
+ * Last observed health of a service.
+ *
+ * @param changedAt when the service last switched to {@code healthy}, or was first observed
+ */
+public record HealthState(boolean healthy, Instant changedAt) {
+}
@@ -0,0 +1,46 @@
+package se.valenzuela.monitoring.notification.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import se.valenzuela.monitoring.notification.model.HealthState;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to the {@code service_health_state} table.
+ */
+@Repository
+public class HealthStateRepository {
+
+    // IGNORE turns the foreign key error for a service deleted since it was checked into a
+    // warning, so one removed service cannot fail the whole batch
+    private static final String UPSERT = """
+            INSERT IGNORE INTO service_health_state (service_id, healthy, changed_at) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE healthy = VALUES(healthy), changed_at = VALUES(changed_at)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HealthStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<Long, HealthState> findAll() {
+        Map<Long, HealthState> states = new HashMap<>();
+        jdbcTemplate.query("SELECT service_id, healthy, changed_at FROM service_health_state",
+                (RowCallbackHandler) rs -> states.put(rs.getLong("service_id"),
+                        new HealthState(rs.getBoolean("healthy"), rs.getTimestamp("changed_at").toInstant())));
+        return states;
+    }
+
+    public void saveAll(List<Map.Entry<Long, HealthState>> states, int batchSize) {
+        jdbcTemplate.batchUpdate(UPSERT, states, batchSize, (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setBoolean(2, entry.getValue().healthy());
+            ps.setTimestamp(3, Timestamp.from(entry.getValue().changedAt()));
+        });
+    }
+}
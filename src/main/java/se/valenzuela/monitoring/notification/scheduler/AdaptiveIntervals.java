@@ -0,0 +1,64 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.notification.model.HealthState;
+
+/**
+ * Derives a pull service's next interval from its configured one and its recent health.
+ * <ul>
+ *   <li>A failed check is followed by a quick re-check, and the delay doubles with every further
+ *       failure until it is back at the configured interval. Confirming a DOWN state over
+ *       several checks then takes seconds instead of several intervals.</li>
+ *   <li>A successful check of a service confirmed DOWN is re-checked just as quickly, so its
+ *       recovery is confirmed promptly too.</li>
+ *   <li>A service that has been UP without a change for {@code stableAfter} is checked half as
+ *       often, and half as often again after every further {@code stableAfter}, down to
+ *       {@code maxInterval}. The time of the last change is the persisted one, so a restart
+ *       does not reset the back-off.</li>
+ * </ul>
+ * A flapping service, or one without results since the last restart, keeps its configured interval.
+ */
+class AdaptiveIntervals {
+
+    /** Caps the shifts below, far beyond any interval that matters. */
+    private static final int MAX_DOUBLINGS = 30;
+
+    private final HealthCheckProperties.Adaptive properties;
+
+    AdaptiveIntervals(HealthCheckProperties.Adaptive properties) {
+        this.properties = properties;
+    }
+
+    boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * @param configuredMillis the service's configured interval
+     * @param streak           the service's latest run of equal results, or {@code null}
+     * @param confirmed        the service's confirmed state, or {@code null}
+     */
+    long intervalMillis(long configuredMillis, TransitionDetector.Streak streak, HealthState confirmed,
+                        long nowMillis) {
+        if (streak == null || confirmed == null || streak.flapping()) {
+            return configuredMillis;
+        }
+        long recheckMillis = Math.min(properties.failureRecheck().toMillis(), configuredMillis);
+        if (!streak.healthy()) {
+            int doublings = Math.min(streak.length() - 1, MAX_DOUBLINGS);
+            return Math.min(configuredMillis, recheckMillis << doublings);
+        }
+        if (!confirmed.healthy()) {
+            return recheckMillis;
+        }
+
+        long stableAfterMillis = properties.stableAfter().toMillis();
+        long stableMillis = nowMillis - confirmed.changedAt().toEpochMilli();
+        if (stableAfterMillis <= 0 || stableMillis < stableAfterMillis) {
+            return configuredMillis;
+        }
+        long maxMillis = Math.max(configuredMillis, properties.maxInterval().toMillis());
+        int doublings = (int) Math.min(stableMillis / stableAfterMillis, MAX_DOUBLINGS);
+        return Math.min(maxMillis, configuredMillis << doublings);
+    }
+}
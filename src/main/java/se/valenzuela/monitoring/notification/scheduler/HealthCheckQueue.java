@@ -0,0 +1,93 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Deadline-ordered queue of service ids, so finding the services that are due costs
+ * O(due · log N) instead of a scan over every registered service.
+ * <p>
+ * Rescheduling or removing a service does not touch the heap; the superseded entry stays
+ * behind and is skipped when it reaches the head. The heap is compacted once stale entries
+ * outnumber live ones.
+ */
+class HealthCheckQueue {
+
+    private record Entry(long dueAtMillis, long serviceId) {}
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingLong(Entry::dueAtMillis));
+    private final Map<Long, Long> deadlines = new HashMap<>();
+
+    synchronized void schedule(long serviceId, long dueAtMillis) {
+        deadlines.put(serviceId, dueAtMillis);
+        heap.add(new Entry(dueAtMillis, serviceId));
+        compactIfNeeded();
+    }
+
+    /**
+     * Moves the service's deadline forward if it is currently later than {@code dueAtMillis}.
+     */
+    synchronized void scheduleNoLaterThan(long serviceId, long dueAtMillis) {
+        Long current = deadlines.get(serviceId);
+        if (current == null || current > dueAtMillis) {
+            schedule(serviceId, dueAtMillis);
+        }
+    }
+
+    synchronized boolean contains(long serviceId) {
+        return deadlines.containsKey(serviceId);
+    }
+
+    synchronized void retainAll(Set<Long> serviceIds) {
+        deadlines.keySet().retainAll(serviceIds);
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes and returns every service whose deadline is at or before {@code nowMillis},
+     * earliest first. Returned services are no longer queued until they are scheduled again.
+     */
+    synchronized List<Long> pollDue(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        while (!heap.isEmpty() && heap.peek().dueAtMillis() <= nowMillis) {
+            Entry entry = heap.poll();
+            if (isCurrent(entry)) {
+                deadlines.remove(entry.serviceId());
+                due.add(entry.serviceId());
+            }
+        }
+        return due;
+    }
+
+    /**
+     * @return the earliest pending deadline, or {@link Long#MAX_VALUE} when nothing is queued
+     */
+    synchronized long nextDueAtMillis() {
+        while (!heap.isEmpty() && !isCurrent(heap.peek())) {
+            heap.poll();
+        }
+        return heap.isEmpty() ? Long.MAX_VALUE : heap.peek().dueAtMillis();
+    }
+
+    synchronized int size() {
+        return deadlines.size();
+    }
+
+    private boolean isCurrent(Entry entry) {
+        Long deadline = deadlines.get(entry.serviceId());
+        return deadline != null && deadline == entry.dueAtMillis();
+    }
+
+    private void compactIfNeeded() {
+        if (heap.size() <= 2 * deadlines.size() + 64) {
+            return;
+        }
+        heap.clear();
+        deadlines.forEach((serviceId, dueAt) -> heap.add(new Entry(dueAt, serviceId)));
+    }
+}
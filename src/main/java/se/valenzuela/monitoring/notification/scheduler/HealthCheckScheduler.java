@@ -1,19 +1,31 @@
 package se.valenzuela.monitoring.notification.scheduler;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.cluster.service.ClusterMembership;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.config.TransitionProperties;
+import se.valenzuela.monitoring.core.model.CheckMode;
 import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.history.service.HealthHistoryService;
 import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
 import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+import se.valenzuela.monitoring.notification.model.HealthState;
 import se.valenzuela.monitoring.core.service.MonitoringService;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,68 +34,244 @@ public class HealthCheckScheduler {
 
     private final MonitoringService monitoringService;
     private final ApplicationEventPublisher eventPublisher;
-    private final ConcurrentHashMap<Long, Boolean> previousHealthStates = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Long, Instant> lastCheckedTimes = new ConcurrentHashMap<>();
+    private final HealthCheckProperties properties;
+    private final HealthHistoryService historyService;
+    private final ClusterMembership clusterMembership;
+    private final HealthStateStore stateStore;
+    private final HealthCheckQueue queue = new HealthCheckQueue();
+    private final TransitionDetector transitionDetector;
+    private final AdaptiveIntervals adaptiveIntervals;
+    private final Timer roundTimer;
+    private final Timer lagTimer;
+    private final Counter overruns;
+    private final Counter checks;
+    private long seenRegistryVersion = -1;
+    private long seenMembershipVersion = -1;
 
     public HealthCheckScheduler(MonitoringService monitoringService,
-                                ApplicationEventPublisher eventPublisher) {
+                                ApplicationEventPublisher eventPublisher,
+                                HealthCheckProperties properties,
+                                HealthHistoryService historyService,
+                                ClusterMembership clusterMembership,
+                                HealthStateStore stateStore,
+                                TransitionProperties transitionProperties,
+                                MeterRegistry meterRegistry) {
         this.monitoringService = monitoringService;
         this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.historyService = historyService;
+        this.clusterMembership = clusterMembership;
+        this.stateStore = stateStore;
+        this.transitionDetector = new TransitionDetector(transitionProperties);
+        this.adaptiveIntervals = new AdaptiveIntervals(properties.adaptive());
+        this.roundTimer = Timer.builder("bootguard.scheduler.round")
+                .description("Duration of scheduler ticks that checked at least one service")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("bootguard.scheduler.lag")
+                .description("How long past its deadline the most overdue service of a round was checked")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.overruns = Counter.builder("bootguard.scheduler.overruns")
+                .description("Rounds that took longer than the tick interval, delaying later deadlines")
+                .register(meterRegistry);
+        this.checks = Counter.builder("bootguard.scheduler.checks")
+                .description("Services checked by the scheduler")
+                .register(meterRegistry);
+        Gauge.builder("bootguard.scheduler.queued", queue, HealthCheckQueue::size)
+                .description("Services with a pending deadline")
+                .register(meterRegistry);
+        Gauge.builder("bootguard.scheduler.flapping", transitionDetector, TransitionDetector::flappingCount)
+                .description("Services whose health is flapping, with their UP/DOWN notifications held back")
+                .register(meterRegistry);
     }
 
-    @Scheduled(fixedDelayString = "${bootguard.health-check.tick-interval:5000}",
+    /**
+     * Runs every tick but only does work for services whose deadline has passed. When the
+     * registry is unchanged and nothing is due, a tick is a version check and a heap peek.
+     */
+    @Scheduled(fixedDelayString = "${bootguard.health-check.tick-interval:1000}",
             initialDelayString = "${bootguard.health-check.initial-delay:10000}")
     public void checkHealth() {
         Instant now = Instant.now();
-        List<MonitoredService> allServices = monitoringService.getServicesWithEnvironments();
+        long nowMillis = now.toEpochMilli();
+        reconcileIfChanged(nowMillis);
 
-        List<MonitoredService> dueServices = allServices.stream()
-                .filter(service -> service.getId() != null && isDue(service, now))
+        long earliestDueAtMillis = queue.nextDueAtMillis();
+        if (earliestDueAtMillis > nowMillis) {
+            return;
+        }
+        long roundStart = System.nanoTime();
+        List<MonitoredService> dueServices = queue.pollDue(nowMillis).stream()
+                .map(monitoringService::getService)
+                .flatMap(Optional::stream)
                 .toList();
+        if (dueServices.isEmpty()) {
+            return;
+        }
 
-        if (!dueServices.isEmpty()) {
+        // Queued again before anything can fail, so a failed round cannot drop services from
+        // the queue; each deadline is adapted to the service's result once it is known
+        dueServices.forEach(service -> scheduleNext(service, nowMillis));
+        lagTimer.record(nowMillis - earliestDueAtMillis, TimeUnit.MILLISECONDS);
+        try {
             monitoringService.fetchHealthStatuses(dueServices);
-            // Always refresh the UI after polling so cert expiry, last-checked
-            // time, and other transient fields update without a page reload.
-            monitoringService.notifyListeners(dueServices.get(0));
+        } catch (Exception e) {
+            log.warn("Health check of {} services failed, retrying with their next deadline", dueServices.size(), e);
+            return;
         }
-
-        Set<Long> currentServiceIds = allServices.stream()
-                .map(MonitoredService::getId)
-                .collect(Collectors.toSet());
+        checks.increment(dueServices.size());
 
         for (MonitoredService service : dueServices) {
-            lastCheckedTimes.put(service.getId(), now);
+            try {
+                evaluate(service, now, nowMillis);
+            } catch (Exception e) {
+                log.warn("Failed to evaluate the health check of service '{}' (id={})",
+                        service.getName(), service.getId(), e);
+            }
+        }
 
-            boolean currentlyHealthy = service.isHealthStatus();
-            Boolean previouslyHealthy = previousHealthStates.put(service.getId(), currentlyHealthy);
+        long roundNanos = System.nanoTime() - roundStart;
+        roundTimer.record(roundNanos, TimeUnit.NANOSECONDS);
+        if (roundNanos > properties.tickInterval().toNanos()) {
+            overruns.increment();
+        }
+    }
 
-            if (previouslyHealthy == null) {
-                log.debug("First observation for service '{}' (id={}): healthy={}",
-                        service.getName(), service.getId(), currentlyHealthy);
-                continue;
+    /**
+     * Turns the service's check result into its confirmed state, schedules its next check and
+     * publishes the events the result calls for.
+     */
+    private void evaluate(MonitoredService service, Instant now, long nowMillis) {
+        HealthState previous = stateStore.current(service.getId());
+        Boolean previouslyHealthy = previous != null ? previous.healthy() : null;
+        TransitionDetector.Outcome outcome =
+                transitionDetector.observe(service.getId(), service.isHealthStatus(), previouslyHealthy);
+        boolean currentlyHealthy = outcome.healthy();
+        stateStore.record(service.getId(), currentlyHealthy, now);
+        scheduleNext(service, nowMillis);
+        monitoringService.updateFlapping(service, outcome.flapping());
+        historyService.record(service, previouslyHealthy != null && previouslyHealthy != currentlyHealthy);
+
+        if (outcome.flap() != TransitionDetector.Flapping.NONE) {
+            log.info("Service '{}' (id={}) {} flapping: {}% of recent checks changed state",
+                    service.getName(), service.getId(),
+                    outcome.flapping() ? "started" : "stopped", Math.round(outcome.changeRate() * 100));
+            var event = new ServiceFlappingEvent(
+                    service, outcome.flapping(), currentlyHealthy, outcome.changeRate(), Instant.now());
+            eventPublisher.publishEvent(new MonitoringEventCarrier(this, event));
+        }
+
+        if (previouslyHealthy == null) {
+            log.debug("First observation for service '{}' (id={}): healthy={}",
+                    service.getName(), service.getId(), currentlyHealthy);
+            return;
+        }
+
+        if (previouslyHealthy != currentlyHealthy) {
+            log.info("Health state changed for service '{}' (id={}): {} -> {}",
+                    service.getName(), service.getId(), previouslyHealthy, currentlyHealthy);
+
+            // A flapping service's changes are summed up by the flapping events instead
+            if (outcome.flapping() || outcome.flap() != TransitionDetector.Flapping.NONE) {
+                return;
             }
+            var event = new ServiceHealthChangedEvent(
+                    service, previouslyHealthy, currentlyHealthy, Instant.now());
+            eventPublisher.publishEvent(new MonitoringEventCarrier(this, event));
+        }
+    }
+
+    private void scheduleNext(MonitoredService service, long nowMillis) {
+        long intervalMillis = intervalMillis(service, nowMillis);
+        queue.schedule(service.getId(), nowMillis + intervalMillis + jitterMillis(intervalMillis));
+    }
+
+    /**
+     * Shows on this node's dashboard the health that other nodes confirmed for the services
+     * they check. Without clustering this node checks every service and there is nothing to do.
+     */
+    @Scheduled(fixedDelayString = "${bootguard.cluster.registry-sync-interval:30000}",
+            initialDelayString = "${bootguard.health-check.initial-delay:10000}")
+    public void showServicesCheckedElsewhere() {
+        if (!clusterMembership.isEnabled()) {
+            return;
+        }
+        List<MonitoredService> checkedElsewhere = monitoringService.getServices().stream()
+                .filter(service -> !clusterMembership.owns(service))
+                .toList();
+        if (checkedElsewhere.isEmpty()) {
+            return;
+        }
+        try {
+            monitoringService.applyHealthCheckedElsewhere(checkedElsewhere, stateStore.readStored());
+        } catch (Exception e) {
+            log.warn("Failed to read the health of {} services checked by other nodes: {}",
+                    checkedElsewhere.size(), e.getMessage());
+        }
+    }
 
-            if (previouslyHealthy != currentlyHealthy) {
-                log.info("Health state changed for service '{}' (id={}): {} -> {}",
-                        service.getName(), service.getId(), previouslyHealthy, currentlyHealthy);
+    /**
+     * Brings the queue in line with the registry after services were added, removed or
+     * edited, and with the cluster after services moved between nodes. New services get a
+     * randomised first deadline so a bulk registration does not turn into a burst; services
+     * whose interval was shortened are pulled forward. Services owned by another node are
+     * dropped from the queue.
+     */
+    private void reconcileIfChanged(long nowMillis) {
+        long registryVersion = monitoringService.getRegistryVersion();
+        long membershipVersion = clusterMembership.version();
+        if (registryVersion == seenRegistryVersion && membershipVersion == seenMembershipVersion) {
+            return;
+        }
+        if (seenMembershipVersion != -1 && membershipVersion != seenMembershipVersion) {
+            stateStore.reload();
+        }
+        seenRegistryVersion = registryVersion;
+        seenMembershipVersion = membershipVersion;
 
-                var event = new ServiceHealthChangedEvent(
-                        service, previouslyHealthy, currentlyHealthy, Instant.now());
-                eventPublisher.publishEvent(new MonitoringEventCarrier(this, event));
+        List<MonitoredService> ownedServices = monitoringService.getServicesWithEnvironments().stream()
+                .filter(clusterMembership::owns)
+                .toList();
+        for (MonitoredService service : ownedServices) {
+            if (service.getId() == null) {
+                continue;
+            }
+            long intervalMillis = intervalMillis(service, nowMillis);
+            if (queue.contains(service.getId())) {
+                queue.scheduleNoLaterThan(service.getId(), nowMillis + intervalMillis + maxJitterMillis(intervalMillis));
+            } else {
+                queue.schedule(service.getId(), nowMillis + jitterMillis(intervalMillis));
             }
         }
 
-        previousHealthStates.keySet().retainAll(currentServiceIds);
-        lastCheckedTimes.keySet().retainAll(currentServiceIds);
+        Set<Long> currentServiceIds = ownedServices.stream()
+                .map(MonitoredService::getId)
+                .collect(Collectors.toSet());
+        queue.retainAll(currentServiceIds);
+        stateStore.retainAll(currentServiceIds);
+        transitionDetector.retainAll(currentServiceIds);
     }
 
-    private boolean isDue(MonitoredService service, Instant now) {
-        Instant lastChecked = lastCheckedTimes.get(service.getId());
-        if (lastChecked == null) {
-            return true;
+    /**
+     * The service's configured interval, adapted to its recent health when adaptive intervals
+     * are enabled. Push services keep theirs: a check only looks at the heartbeat they sent.
+     */
+    private long intervalMillis(MonitoredService service, long nowMillis) {
+        long configuredMillis = service.getEffectiveHealthCheckIntervalSeconds() * 1000L;
+        if (!adaptiveIntervals.isEnabled() || service.getCheckMode() == CheckMode.PUSH) {
+            return configuredMillis;
         }
-        long intervalSeconds = service.getEffectiveHealthCheckIntervalSeconds();
-        return Duration.between(lastChecked, now).getSeconds() >= intervalSeconds;
+        return adaptiveIntervals.intervalMillis(configuredMillis, transitionDetector.streak(service.getId()),
+                stateStore.current(service.getId()), nowMillis);
+    }
+
+    private long maxJitterMillis(long intervalMillis) {
+        return (long) (intervalMillis * Math.max(0, properties.jitter()));
+    }
+
+    private long jitterMillis(long intervalMillis) {
+        long max = maxJitterMillis(intervalMillis);
+        return max > 0 ? ThreadLocalRandom.current().nextLong(max + 1) : 0;
     }
 }
@@ -0,0 +1,138 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.valenzuela.monitoring.notification.model.HealthState;
+import se.valenzuela.monitoring.notification.repository.HealthStateRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last observed health of every service checked by this node, kept across restarts.
+ * <p>
+ * All states are loaded with one query on first use. Recording an observation is a map
+ * lookup; only a changed state is queued, and the queue is written in JDBC batches by a
+ * scheduled flush. A service that has not changed since the last poll costs no write.
+ */
+@Slf4j
+@Component
+public class HealthStateStore {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final HealthStateRepository repository;
+    private final Map<Long, HealthState> states = new ConcurrentHashMap<>();
+    private final Map<Long, HealthState> changed = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public HealthStateStore(HealthStateRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return the last recorded state of the service, or {@code null} if it was never observed
+     */
+    public HealthState current(long serviceId) {
+        ensureLoaded();
+        return states.get(serviceId);
+    }
+
+    /**
+     * Records an observation of the service.
+     *
+     * @return the state before this observation, or {@code null} if the service was never
+     *         observed, not even before a restart
+     */
+    public HealthState record(long serviceId, boolean healthy, Instant observedAt) {
+        ensureLoaded();
+        HealthState previous = states.get(serviceId);
+        if (previous != null && previous.healthy() == healthy) {
+            return previous;
+        }
+        HealthState current = new HealthState(healthy, observedAt);
+        states.put(serviceId, current);
+        changed.put(serviceId, current);
+        return previous;
+    }
+
+    /**
+     * Forgets services that were removed or are now checked by another node. Their stored
+     * rows stay, so another node can pick up from them.
+     */
+    public void retainAll(Set<Long> serviceIds) {
+        ensureLoaded();
+        states.keySet().retainAll(serviceIds);
+        changed.keySet().retainAll(serviceIds);
+    }
+
+    /**
+     * Reads the states every node has written so far, without touching the ones kept for this
+     * node's own services.
+     */
+    public Map<Long, HealthState> readStored() {
+        return repository.findAll();
+    }
+
+    /**
+     * Re-reads all states, after services moved between nodes: a service taken over from
+     * another node continues from the state that node last wrote.
+     */
+    public synchronized void reload() {
+        flush();
+        try {
+            Map<Long, HealthState> stored = repository.findAll();
+            states.clear();
+            states.putAll(stored);
+            // Changes that could not be written yet are newer than what is stored
+            states.putAll(changed);
+            loaded = true;
+        } catch (Exception e) {
+            log.warn("Failed to reload health states, keeping {} in memory: {}", states.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bootguard.health-check.state-flush-interval:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Map.Entry<Long, HealthState>> pending = new ArrayList<>(changed.size());
+        for (Long serviceId : List.copyOf(changed.keySet())) {
+            HealthState state = changed.remove(serviceId);
+            if (state != null) {
+                pending.add(Map.entry(serviceId, state));
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            repository.saveAll(pending, BATCH_SIZE);
+        } catch (Exception e) {
+            // Retried with the next flush; a change recorded meanwhile takes precedence
+            pending.forEach(entry -> changed.putIfAbsent(entry.getKey(), entry.getValue()));
+            log.warn("Failed to write {} health states: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    try {
+                        states.putAll(repository.findAll());
+                        log.debug("Loaded {} stored health states", states.size());
+                    } catch (Exception e) {
+                        log.warn("Failed to load stored health states, starting without them: {}", e.getMessage());
+                    }
+                    loaded = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import se.valenzuela.monitoring.config.TransitionProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns raw check results into confirmed UP/DOWN states and detects flapping.
+ * <p>
+ * Each service keeps its last 64 results as the bits of a {@code long}, newest in bit 0, so
+ * the memory per service is fixed however long it is monitored. N-of-M confirmation and the
+ * change rate are bit counts over that ring. Confirmation only counts results since the
+ * confirmed state last changed, so failures before a recovery cannot help confirm the next
+ * outage. Results are not persisted: after a restart or a
+ * move to another node a service starts with an empty ring and the stored confirmed state.
+ */
+class TransitionDetector {
+
+    private static final int RING_SIZE = Long.SIZE;
+
+    enum Flapping { NONE, STARTED, STOPPED }
+
+    /**
+     * @param healthy    the confirmed state after this check
+     * @param flapping   whether the service is flapping after this check
+     * @param flap       whether this check started or stopped the flapping
+     * @param changeRate share of the checks in the flap window that changed state
+     */
+    record Outcome(boolean healthy, boolean flapping, Flapping flap, double changeRate) {}
+
+    /**
+     * @param healthy  the result of the latest check
+     * @param length   how many of the latest checks in a row had that result
+     * @param flapping whether the service is flapping
+     */
+    record Streak(boolean healthy, int length, boolean flapping) {}
+
+    private static final class Ring {
+        long results;
+        int observed;
+        /** Results since the confirmed state last changed, this one included. */
+        int sinceTransition;
+        boolean flapping;
+    }
+
+    private final int failureThreshold;
+    private final int failureWindow;
+    private final int recoveryThreshold;
+    private final int flapWindow;
+    private final double flapStartRate;
+    private final double flapStopRate;
+    private final Map<Long, Ring> rings = new HashMap<>();
+    private int flappingCount;
+
+    TransitionDetector(TransitionProperties properties) {
+        this.failureThreshold = clamp(properties.failureThreshold(), 1, RING_SIZE);
+        this.failureWindow = clamp(properties.failureWindow(), failureThreshold, RING_SIZE);
+        this.recoveryThreshold = clamp(properties.recoveryThreshold(), 1, RING_SIZE);
+        this.flapWindow = Math.min(properties.flapWindow(), RING_SIZE);
+        this.flapStartRate = properties.flapStartRate();
+        this.flapStopRate = properties.flapStopRate();
+    }
+
+    /**
+     * Records a check result.
+     *
+     * @param confirmedHealthy the confirmed state before this check, or {@code null} if there is
+     *                         none yet, in which case the result is taken as is
+     */
+    synchronized Outcome observe(long serviceId, boolean healthy, Boolean confirmedHealthy) {
+        Ring ring = rings.computeIfAbsent(serviceId, _ -> new Ring());
+        ring.results = (ring.results << 1) | (healthy ? 1 : 0);
+        ring.observed = Math.min(ring.observed + 1, RING_SIZE);
+        ring.sinceTransition = Math.min(ring.sinceTransition + 1, ring.observed);
+
+        boolean confirmed;
+        if (confirmedHealthy == null) {
+            confirmed = healthy;
+        } else if (confirmedHealthy) {
+            long failures = ~ring.results & mask(Math.min(failureWindow, ring.sinceTransition));
+            confirmed = Long.bitCount(failures) < failureThreshold;
+        } else {
+            long recent = mask(recoveryThreshold);
+            confirmed = ring.sinceTransition >= recoveryThreshold && (ring.results & recent) == recent;
+        }
+        if (confirmedHealthy == null || confirmed != confirmedHealthy) {
+            ring.sinceTransition = 0;
+        }
+
+        double changeRate = changeRate(ring);
+        Flapping flap = Flapping.NONE;
+        if (!ring.flapping && flapWindow >= 2 && changeRate >= flapStartRate) {
+            ring.flapping = true;
+            flappingCount++;
+            flap = Flapping.STARTED;
+        } else if (ring.flapping && changeRate < flapStopRate) {
+            ring.flapping = false;
+            flappingCount--;
+            flap = Flapping.STOPPED;
+        }
+        return new Outcome(confirmed, ring.flapping, flap, changeRate);
+    }
+
+    /**
+     * Forgets services that were removed or are now checked by another node.
+     */
+    synchronized void retainAll(Set<Long> serviceIds) {
+        rings.entrySet().removeIf(entry -> {
+            boolean remove = !serviceIds.contains(entry.getKey());
+            if (remove && entry.getValue().flapping) {
+                flappingCount--;
+            }
+            return remove;
+        });
+    }
+
+    /**
+     * @return the service's latest run of equal results, or {@code null} if it has none yet
+     */
+    synchronized Streak streak(long serviceId) {
+        Ring ring = rings.get(serviceId);
+        if (ring == null || ring.observed == 0) {
+            return null;
+        }
+        boolean healthy = (ring.results & 1) == 1;
+        int length = Long.numberOfTrailingZeros(healthy ? ~ring.results : ring.results);
+        return new Streak(healthy, Math.min(length, ring.observed), ring.flapping);
+    }
+
+    synchronized int flappingCount() {
+        return flappingCount;
+    }
+
+    /**
+     * State changes between consecutive results in the flap window, over the number of pairs
+     * in a full window, so a service with only a few results cannot reach the start rate early.
+     */
+    private double changeRate(Ring ring) {
+        if (flapWindow < 2) {
+            return 0;
+        }
+        int results = Math.min(flapWindow, ring.observed);
+        if (results < 2) {
+            return 0;
+        }
+        long changes = (ring.results ^ (ring.results >>> 1)) & mask(results - 1);
+        return (double) Long.bitCount(changes) / (flapWindow - 1);
+    }
+
+    private static long mask(int bits) {
+        return bits >= RING_SIZE ? -1L : (1L << bits) - 1;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
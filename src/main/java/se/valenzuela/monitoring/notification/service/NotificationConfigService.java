@@ -1,51 +1,82 @@
 package se.valenzuela.monitoring.notification.service;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import se.valenzuela.monitoring.notification.model.NotificationChannelConfig;
 import se.valenzuela.monitoring.notification.model.NotificationServiceOverride;
 import se.valenzuela.monitoring.notification.repository.NotificationChannelConfigRepository;
 import se.valenzuela.monitoring.notification.repository.NotificationServiceOverrideRepository;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 @Service
 public class NotificationConfigService {
 
+    /**
+     * Effective routing for one service and channel: the override where one is set, the
+     * global channel config otherwise, with the config JSON already parsed.
+     */
+    public record ResolvedRoute(boolean enabled, String configJson, JsonNode config) {}
+
+    private record RouteKey(Long serviceId, String channelType) {}
+
     private final NotificationChannelConfigRepository channelConfigRepository;
     private final NotificationServiceOverrideRepository overrideRepository;
+    private final JsonMapper jsonMapper;
+    private final Map<RouteKey, ResolvedRoute> routes = new ConcurrentHashMap<>();
+    /** Bumped by every eviction, so a route loaded before one is not cached after it. */
+    private final AtomicLong evictions = new AtomicLong();
 
     public NotificationConfigService(NotificationChannelConfigRepository channelConfigRepository,
-                                     NotificationServiceOverrideRepository overrideRepository) {
+                                     NotificationServiceOverrideRepository overrideRepository,
+                                     JsonMapper jsonMapper) {
         this.channelConfigRepository = channelConfigRepository;
         this.overrideRepository = overrideRepository;
+        this.jsonMapper = jsonMapper;
     }
 
-    public boolean isEnabledForService(String channelType, Long serviceId) {
-        Optional<NotificationServiceOverride> override =
-                overrideRepository.findByServiceIdAndChannelType(serviceId, channelType);
-
-        if (override.isPresent() && override.get().getEnabled() != null) {
-            return override.get().getEnabled();
+    /**
+     * Returns the effective route, resolving it from the database only the first time it is
+     * requested after startup, after a config change that affects it or after a
+     * {@link #refresh}. Dispatching an outage storm therefore costs no queries and no JSON
+     * parsing per event. The queries run outside the map, so a slow database never blocks
+     * lookups of other routes; two threads missing at once may both load, and the first
+     * result wins.
+     */
+    public ResolvedRoute resolveRoute(String channelType, Long serviceId) {
+        RouteKey key = new RouteKey(serviceId, channelType);
+        ResolvedRoute route = routes.get(key);
+        if (route != null) {
+            return route;
+        }
+        long evicted = evictions.get();
+        route = loadRoute(key);
+        ResolvedRoute cached = routes.putIfAbsent(key, route);
+        if (cached != null) {
+            return cached;
+        }
+        if (evictions.get() != evicted) {
+            // Config changed while loading; the next lookup reads it again
+            routes.remove(key, route);
         }
+        return route;
+    }
 
-        return channelConfigRepository.findByChannelType(channelType)
-                .map(NotificationChannelConfig::isEnabled)
-                .orElse(false);
+    public boolean isEnabledForService(String channelType, Long serviceId) {
+        return resolveRoute(channelType, serviceId).enabled();
     }
 
     public String getEffectiveConfigJson(String channelType, Long serviceId) {
-        Optional<NotificationServiceOverride> override =
-                overrideRepository.findByServiceIdAndChannelType(serviceId, channelType);
-
-        if (override.isPresent() && override.get().getConfigJson() != null
-                && !override.get().getConfigJson().isBlank()) {
-            return override.get().getConfigJson();
-        }
-
-        return channelConfigRepository.findByChannelType(channelType)
-                .map(NotificationChannelConfig::getConfigJson)
-                .orElse("{}");
+        return resolveRoute(channelType, serviceId).configJson();
     }
 
     public Optional<NotificationChannelConfig> getGlobalConfig(String channelType) {
@@ -53,7 +84,10 @@ public class NotificationConfigService {
     }
 
     public NotificationChannelConfig saveGlobalConfig(NotificationChannelConfig config) {
-        return channelConfigRepository.save(config);
+        NotificationChannelConfig saved = channelConfigRepository.save(config);
+        evictions.incrementAndGet();
+        routes.keySet().removeIf(key -> Objects.equals(key.channelType(), config.getChannelType()));
+        return saved;
     }
 
     public Optional<NotificationServiceOverride> getOverride(Long serviceId, String channelType) {
@@ -61,14 +95,76 @@ public class NotificationConfigService {
     }
 
     public NotificationServiceOverride saveOverride(NotificationServiceOverride override) {
-        return overrideRepository.save(override);
+        NotificationServiceOverride saved = overrideRepository.save(override);
+        evict(override);
+        return saved;
     }
 
     public void deleteOverride(NotificationServiceOverride override) {
         overrideRepository.delete(override);
+        evict(override);
     }
 
     public List<NotificationServiceOverride> getOverridesForService(Long serviceId) {
         return overrideRepository.findByServiceId(serviceId);
     }
+
+    /**
+     * Drops every cached route of a service, e.g. once it has been removed from monitoring.
+     */
+    public void evictService(Long serviceId) {
+        evictions.incrementAndGet();
+        routes.keySet().removeIf(key -> Objects.equals(key.serviceId(), serviceId));
+    }
+
+    /**
+     * Drops all cached routes, so config changes written by another instance are picked up.
+     */
+    @Scheduled(fixedDelayString = "${bootguard.notifications.route-refresh-interval:60000}",
+            initialDelayString = "${bootguard.notifications.route-refresh-interval:60000}")
+    public void refresh() {
+        evictions.incrementAndGet();
+        routes.clear();
+    }
+
+    private void evict(NotificationServiceOverride override) {
+        evictions.incrementAndGet();
+        Long serviceId = override.getService() != null ? override.getService().getId() : null;
+        if (serviceId == null) {
+            routes.clear();
+            return;
+        }
+        routes.remove(new RouteKey(serviceId, override.getChannelType()));
+    }
+
+    private ResolvedRoute loadRoute(RouteKey key) {
+        Optional<NotificationServiceOverride> override =
+                overrideRepository.findByServiceIdAndChannelType(key.serviceId(), key.channelType());
+        Boolean overrideEnabled = override.map(NotificationServiceOverride::getEnabled).orElse(null);
+        String overrideJson = override.map(NotificationServiceOverride::getConfigJson)
+                .filter(json -> !json.isBlank())
+                .orElse(null);
+
+        Optional<NotificationChannelConfig> global = overrideEnabled != null && overrideJson != null
+                ? Optional.empty()
+                : channelConfigRepository.findByChannelType(key.channelType());
+
+        boolean enabled = overrideEnabled != null
+                ? overrideEnabled
+                : global.map(NotificationChannelConfig::isEnabled).orElse(false);
+        String configJson = overrideJson != null
+                ? overrideJson
+                : global.map(NotificationChannelConfig::getConfigJson).orElse("{}");
+        return new ResolvedRoute(enabled, configJson, parse(configJson, key));
+    }
+
+    private JsonNode parse(String configJson, RouteKey key) {
+        try {
+            return jsonMapper.readTree(configJson);
+        } catch (Exception e) {
+            log.warn("Invalid {} notification config for service id={}: {}",
+                    key.channelType(), key.serviceId(), e.getMessage());
+            return jsonMapper.createObjectNode();
+        }
+    }
 }
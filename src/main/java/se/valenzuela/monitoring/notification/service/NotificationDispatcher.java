@@ -4,9 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import se.valenzuela.monitoring.cluster.service.TransitionClaims;
 import se.valenzuela.monitoring.notification.channel.NotificationChannel;
 import se.valenzuela.monitoring.notification.event.MonitoringEvent;
 import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
+import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+import se.valenzuela.monitoring.notification.event.ServiceRemovedEvent;
 
 import java.util.List;
 
@@ -16,11 +20,14 @@ public class NotificationDispatcher {
 
     private final List<NotificationChannel> channels;
     private final NotificationConfigService configService;
+    private final TransitionClaims transitionClaims;
 
     public NotificationDispatcher(List<NotificationChannel> channels,
-                                  NotificationConfigService configService) {
+                                  NotificationConfigService configService,
+                                  TransitionClaims transitionClaims) {
         this.channels = channels;
         this.configService = configService;
+        this.transitionClaims = transitionClaims;
     }
 
     @Async
@@ -28,20 +35,33 @@ public class NotificationDispatcher {
     public void onMonitoringEvent(MonitoringEventCarrier carrier) {
         MonitoringEvent event = carrier.getMonitoringEvent();
         Long serviceId = event.service().getId();
+        if (event instanceof ServiceHealthChangedEvent changed && !transitionClaims.claim(changed)) {
+            log.debug("Health transition of service id={} already notified by another node", serviceId);
+            return;
+        }
+        if (event instanceof ServiceFlappingEvent flapping && !transitionClaims.claimFlapping(flapping)) {
+            log.debug("Flapping change of service id={} already notified by another node", serviceId);
+            return;
+        }
 
         for (NotificationChannel channel : channels) {
             try {
-                if (!configService.isEnabledForService(channel.channelType(), serviceId)) {
+                NotificationConfigService.ResolvedRoute route =
+                        configService.resolveRoute(channel.channelType(), serviceId);
+                if (!route.enabled()) {
                     log.debug("Channel '{}' disabled for service id={}, skipping", channel.channelType(), serviceId);
                     continue;
                 }
 
-                String configJson = configService.getEffectiveConfigJson(channel.channelType(), serviceId);
-                channel.send(event, configJson);
+                channel.send(event, route.config());
             } catch (Exception e) {
                 log.error("Error dispatching to channel '{}' for service id={}",
                         channel.channelType(), serviceId, e);
             }
         }
+
+        if (event instanceof ServiceRemovedEvent) {
+            configService.evictService(serviceId);
+        }
     }
 }
@@ -1,9 +1,27 @@
 package se.valenzuela.monitoring.settings.service;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import se.valenzuela.monitoring.settings.model.AppSetting;
 import se.valenzuela.monitoring.settings.repository.AppSettingRepository;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Key/value settings served from an in-memory snapshot.
+ * <p>
+ * The snapshot is loaded with a single query on first use, replaced on every
+ * {@link #setValue} and reloaded periodically so changes written by another instance are
+ * picked up. Lookups never touch the database. Listeners are told the key of every setting
+ * whose value changed, whichever way the change arrived.
+ */
+@Slf4j
 @Service
 public class AppSettingService {
 
@@ -11,15 +29,15 @@ public class AppSettingService {
     public static final int DEFAULT_CERT_EXPIRY_WARNING_DAYS = 30;
 
     private final AppSettingRepository repository;
+    private final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Map<String, String> snapshot;
 
     public AppSettingService(AppSettingRepository repository) {
         this.repository = repository;
     }
 
     public String getValue(String key, String defaultValue) {
-        return repository.findById(key)
-                .map(AppSetting::getSettingValue)
-                .orElse(defaultValue);
+        return snapshot().getOrDefault(key, defaultValue);
     }
 
     public void setValue(String key, String value) {
@@ -27,6 +45,16 @@ public class AppSettingService {
                 .orElse(new AppSetting(key, value));
         setting.setSettingValue(value);
         repository.save(setting);
+
+        String previous;
+        synchronized (this) {
+            Map<String, String> updated = new HashMap<>(snapshot());
+            previous = value != null ? updated.put(key, value) : updated.remove(key);
+            snapshot = Map.copyOf(updated);
+        }
+        if (!Objects.equals(previous, value)) {
+            notifyListeners(key);
+        }
     }
 
     public int getCertExpiryWarningDays() {
@@ -37,4 +65,64 @@ public class AppSettingService {
             return DEFAULT_CERT_EXPIRY_WARNING_DAYS;
         }
     }
+
+    /**
+     * Registers a listener that receives the key of each setting whose value changed.
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reloads the snapshot from the database and notifies listeners of any differences.
+     */
+    @Scheduled(fixedDelayString = "${bootguard.settings.refresh-interval:60000}",
+            initialDelayString = "${bootguard.settings.refresh-interval:60000}")
+    public void refresh() {
+        Map<String, String> previous;
+        Map<String, String> loaded;
+        synchronized (this) {
+            previous = snapshot;
+            loaded = load();
+            snapshot = loaded;
+        }
+        if (previous == null) {
+            return;
+        }
+        loaded.keySet().stream()
+                .filter(key -> !Objects.equals(previous.get(key), loaded.get(key)))
+                .forEach(this::notifyListeners);
+        previous.keySet().stream()
+                .filter(key -> !loaded.containsKey(key))
+                .forEach(this::notifyListeners);
+    }
+
+    private Map<String, String> snapshot() {
+        Map<String, String> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Map<String, String> load() {
+        Map<String, String> loaded = repository.findAll().stream()
+                .filter(setting -> setting.getSettingValue() != null)
+                .collect(Collectors.toUnmodifiableMap(AppSetting::getSettingKey, AppSetting::getSettingValue));
+        log.debug("Loaded {} app settings", loaded.size());
+        return loaded;
+    }
+
+    private void notifyListeners(String key) {
+        listeners.forEach(listener -> listener.accept(key));
+    }
 }
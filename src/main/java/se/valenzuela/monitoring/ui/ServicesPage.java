@@ -1,8 +1,12 @@
 package se.valenzuela.monitoring.ui;
 
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.combobox.MultiSelectComboBox;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.Route;
@@ -36,7 +40,20 @@ public class ServicesPage extends Main {
 
         var addButton = new AddMonitoredServiceComponent(monitoringService, environmentService);
 
-        var actionBar = new HorizontalLayout(environmentFilter, addButton);
+        var refreshButton = new Button("Refresh", VaadinIcon.REFRESH.create());
+        refreshButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        refreshButton.setTooltipText("Check every service now");
+        refreshButton.addClickListener(_ -> {
+            // Results reach the cards through the change listener; this only re-enables the button
+            UI ui = UI.getCurrent();
+            refreshButton.setEnabled(false);
+            monitoringService.refreshNow().whenComplete((_, _) -> ui.access(() -> refreshButton.setEnabled(true)));
+        });
+
+        var actions = new HorizontalLayout(refreshButton, addButton);
+        actions.setAlignItems(HorizontalLayout.Alignment.END);
+
+        var actionBar = new HorizontalLayout(environmentFilter, actions);
         actionBar.setWidthFull();
         actionBar.setJustifyContentMode(HorizontalLayout.JustifyContentMode.BETWEEN);
         actionBar.setAlignItems(HorizontalLayout.Alignment.END);
@@ -10,16 +10,20 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import se.valenzuela.monitoring.core.model.Environment;
-import se.valenzuela.monitoring.core.model.MonitoredService;
 import se.valenzuela.monitoring.core.service.EnvironmentService;
 import se.valenzuela.monitoring.core.service.MonitoringService;
+import se.valenzuela.monitoring.core.service.ServiceChange;
+import se.valenzuela.monitoring.core.service.ServiceChangeSet;
+import se.valenzuela.monitoring.core.service.ServiceStatus;
 import se.valenzuela.monitoring.ui.component.ServiceCard;
 import se.valenzuela.monitoring.ui.component.ServiceDetailDialog;
 import se.valenzuela.monitoring.ui.component.ServiceEditDialog;
 import se.valenzuela.monitoring.ui.component.ServiceLoggersDialog;
 
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -29,7 +33,8 @@ public class ServicesView extends VerticalLayout {
     private final EnvironmentService environmentService;
 
     private Set<Environment> environmentFilter = Set.of();
-    private List<MonitoredService> currentServices;
+    private final Map<Long, ServiceStatus> currentServices = new LinkedHashMap<>();
+    private final Map<Long, ServiceCard> cards = new HashMap<>();
 
     private final HorizontalLayout summaryBar = new HorizontalLayout();
     private final Div cardGrid = new Div();
@@ -52,17 +57,13 @@ public class ServicesView extends VerticalLayout {
         add(summaryBar);
         addAndExpand(cardGrid);
 
-        currentServices = monitoringService.getServicesForDisplay();
-        renderAll(currentServices);
+        monitoringService.getStatuses().forEach(this::addCard);
+        renderSummaryBar();
 
         UI ui = UI.getCurrent();
-        Consumer<MonitoredService> listener = _ -> {
+        Consumer<ServiceChangeSet> listener = changes -> {
             if (ui != null && ui.isAttached()) {
-                List<MonitoredService> fresh = monitoringService.getServicesForDisplay();
-                ui.access(() -> {
-                    currentServices = fresh;
-                    renderAll(currentServices);
-                });
+                ui.access(() -> applyChanges(changes));
             }
         };
         monitoringService.addListener(listener);
@@ -71,41 +72,102 @@ public class ServicesView extends VerticalLayout {
 
     public void setEnvironmentFilter(Set<Environment> filter) {
         environmentFilter = filter != null ? filter : Set.of();
-        renderAll(currentServices);
+        currentServices.values().forEach(status -> applyPlacement(cards.get(status.serviceId()), status));
+        renderSummaryBar();
     }
 
     // ── rendering ─────────────────────────────────────────────────────────────
 
-    private void renderAll(List<MonitoredService> all) {
-        List<MonitoredService> visible = applyFilter(all);
-        renderSummaryBar(visible);
-        renderCards(sortByStatus(visible));
+    /**
+     * Patches only the cards named in the change set. A poll that merely moved the
+     * last-checked time touches a single span per card.
+     */
+    private void applyChanges(ServiceChangeSet changes) {
+        boolean summaryAffected = false;
+        for (ServiceChange change : changes.changes()) {
+            ServiceStatus status = change.status();
+            switch (change.type()) {
+                case ADDED -> addCard(status);
+                case REMOVED -> removeCard(status);
+                case UPDATED -> updateCard(status, change);
+            }
+            summaryAffected |= change.affectsAppearance();
+        }
+        if (summaryAffected) {
+            renderSummaryBar();
+        }
     }
 
-    private List<MonitoredService> sortByStatus(List<MonitoredService> services) {
-        return services.stream()
-                .sorted(Comparator.comparingInt(ServicesView::statusPriority))
-                .toList();
+    private void addCard(ServiceStatus status) {
+        if (cards.containsKey(status.serviceId())) {
+            updateCard(status, ServiceChange.added(status));
+            return;
+        }
+        Long id = status.serviceId();
+        var card = new ServiceCard(status,
+                () -> new ServiceDetailDialog(currentServices.get(id), monitoringService, environmentService).open(),
+                () -> monitoringService.getService(id)
+                        .ifPresent(service -> new ServiceEditDialog(service, monitoringService, environmentService).open()),
+                () -> monitoringService.getService(id)
+                        .ifPresent(service -> new ServiceLoggersDialog(service, monitoringService).open()),
+                () -> openDeleteDialog(id));
+        currentServices.put(id, status);
+        cards.put(id, card);
+        cardGrid.add(card);
+        applyPlacement(card, status);
+    }
+
+    private void removeCard(ServiceStatus status) {
+        currentServices.remove(status.serviceId());
+        ServiceCard card = cards.remove(status.serviceId());
+        if (card != null) {
+            cardGrid.remove(card);
+        }
+    }
+
+    private void updateCard(ServiceStatus status, ServiceChange change) {
+        ServiceCard card = cards.get(status.serviceId());
+        if (card == null) {
+            addCard(status);
+            return;
+        }
+        currentServices.put(status.serviceId(), status);
+        if (change.affectsAppearance()) {
+            card.update(status);
+            applyPlacement(card, status);
+        } else {
+            card.updateCheckedAt(status.checkedAt());
+        }
     }
 
-    private static int statusPriority(MonitoredService s) {
-        if (!s.isHealthStatus()) return 0;      // DOWN first
-        if (s.isCertExpiringSoon()) return 1;   // WARNING second
+    /**
+     * Sorts by status through the CSS {@code order} property rather than by moving cards in
+     * the DOM, and hides cards outside the environment filter instead of removing them.
+     */
+    private void applyPlacement(ServiceCard card, ServiceStatus status) {
+        card.getStyle().set("order", String.valueOf(statusPriority(status)));
+        card.setVisible(matchesFilter(status));
+    }
+
+    private static int statusPriority(ServiceStatus s) {
+        if (!s.healthy()) return 0;             // DOWN first
+        if (s.certExpiringSoon()) return 1;     // WARNING second
         return 2;                               // HEALTHY last
     }
 
-    private List<MonitoredService> applyFilter(List<MonitoredService> services) {
-        if (environmentFilter.isEmpty()) return services;
-        return services.stream()
-                .filter(s -> s.getEnvironments().stream().anyMatch(environmentFilter::contains))
-                .toList();
+    private boolean matchesFilter(ServiceStatus status) {
+        return environmentFilter.isEmpty()
+                || status.environments().stream().anyMatch(environmentFilter::contains);
     }
 
-    private void renderSummaryBar(List<MonitoredService> services) {
+    private void renderSummaryBar() {
+        List<ServiceStatus> statuses = currentServices.values().stream()
+                .filter(this::matchesFilter)
+                .toList();
         summaryBar.removeAll();
-        long healthy = services.stream().filter(s -> s.isHealthStatus() && !s.isCertExpiringSoon()).count();
-        long down    = services.stream().filter(s -> !s.isHealthStatus()).count();
-        long warning = services.stream().filter(s -> s.isHealthStatus() && s.isCertExpiringSoon()).count();
+        long healthy = statuses.stream().filter(s -> s.healthy() && !s.certExpiringSoon()).count();
+        long down    = statuses.stream().filter(s -> !s.healthy()).count();
+        long warning = statuses.stream().filter(s -> s.healthy() && s.certExpiringSoon()).count();
         summaryBar.add(
                 summaryChip("healthy", healthy + " Healthy"),
                 summaryChip("down",    down    + " Down"),
@@ -121,26 +183,21 @@ public class ServicesView extends VerticalLayout {
         return chip;
     }
 
-    private void renderCards(List<MonitoredService> services) {
-        cardGrid.removeAll();
-        services.forEach(service -> cardGrid.add(new ServiceCard(service,
-                () -> new ServiceDetailDialog(service, monitoringService, environmentService).open(),
-                () -> new ServiceEditDialog(service, monitoringService, environmentService).open(),
-                () -> new ServiceLoggersDialog(service, monitoringService).open(),
-                () -> openDeleteDialog(service))));
-    }
-
     // ── delete dialog ─────────────────────────────────────────────────────────
 
-    private void openDeleteDialog(MonitoredService service) {
+    private void openDeleteDialog(Long serviceId) {
+        ServiceStatus status = currentServices.get(serviceId);
+        if (status == null) {
+            return;
+        }
         var confirm = new ConfirmDialog();
-        confirm.setHeader("Delete " + (service.getName() != null ? service.getName() : service.getUrl()));
+        confirm.setHeader("Delete " + status.displayName());
         confirm.setText("This will permanently remove the service and all its configuration.");
         confirm.setCancelable(true);
         confirm.setConfirmText("Delete");
         confirm.setConfirmButtonTheme("error primary");
         confirm.addConfirmListener(_ -> {
-            monitoringService.removeService(service);
+            monitoringService.getService(serviceId).ifPresent(monitoringService::removeService);
             Notification.show("Service deleted", 3000, Notification.Position.BOTTOM_START)
                     .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
         });
@@ -16,14 +16,15 @@ import lombok.Getter;
 import org.springframework.stereotype.Component;
 import se.valenzuela.monitoring.core.model.Environment;
 import se.valenzuela.monitoring.core.model.MonitoredService;
-import se.valenzuela.monitoring.core.service.EnvironmentService;
 import se.valenzuela.monitoring.core.service.MonitoringService;
+import se.valenzuela.monitoring.core.service.ServiceChange;
+import se.valenzuela.monitoring.core.service.ServiceChangeSet;
+import se.valenzuela.monitoring.core.service.ServiceStatus;
 
 import java.util.Comparator;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -31,37 +32,40 @@ import java.util.function.Consumer;
 @Getter
 @UIScope
 @Component
-public class MonitoredServicesComponent extends Grid<MonitoredService> {
+public class MonitoredServicesComponent extends Grid<ServiceStatus> {
 
-    private final ListDataProvider<MonitoredService> dataProvider;
+    /** Rows by service id, so a new status replaces the row of the one it supersedes. */
+    private final Map<Long, ServiceStatus> rows = new LinkedHashMap<>();
+    private final ListDataProvider<ServiceStatus> dataProvider;
     private final MonitoringService monitoringService;
-    private final EnvironmentService environmentService;
-    private final Map<Long, Set<Environment>> environmentCache = new HashMap<>();
     private Set<Environment> environmentFilter = Set.of();
     private Consumer<MonitoredService> editListener;
 
-    public MonitoredServicesComponent(MonitoringService monitoringService, EnvironmentService environmentService) {
+    public MonitoredServicesComponent(MonitoringService monitoringService) {
         this.monitoringService = monitoringService;
-        this.environmentService = environmentService;
 
-        dataProvider = new ListDataProvider<>(new ArrayList<>(monitoringService.getServices()));
+        monitoringService.getStatuses().forEach(status -> rows.put(status.serviceId(), status));
+        dataProvider = new ListDataProvider<>(rows.values()) {
+            @Override
+            public Object getId(ServiceStatus status) {
+                return status.serviceId();
+            }
+        };
 
         setDataProvider(dataProvider);
-        addColumn(MonitoredService::getName).setSortable(true).setHeader("Service").setFlexGrow(1);
-        addColumn(MonitoredService::getVersion).setAutoWidth(true).setFlexGrow(0).setHeader("Version");
-        addColumn(MonitoredService::getUrl).setHeader("URL").setSortable(true).setFlexGrow(1);
+        addColumn(ServiceStatus::name).setSortable(true).setHeader("Service").setFlexGrow(1);
+        addColumn(ServiceStatus::version).setAutoWidth(true).setFlexGrow(0).setHeader("Version");
+        addColumn(ServiceStatus::url).setHeader("URL").setSortable(true).setFlexGrow(1);
 
-        addComponentColumn(service ->
-                ServiceViewUtils.statusIcon(service.isHealthStatus(), service.isCertExpiringSoon())
+        addComponentColumn(status ->
+                ServiceViewUtils.statusIcon(status.healthy(), status.certExpiringSoon())
         ).setHeader("Status").setAutoWidth(true).setFlexGrow(0).setSortable(true);
 
-        loadEnvironmentCache();
-
-        addComponentColumn(service -> {
+        addComponentColumn(status -> {
             HorizontalLayout badges = new HorizontalLayout();
             badges.setSpacing(true);
             badges.setPadding(false);
-            environmentCache.getOrDefault(service.getId(), Set.of()).stream()
+            status.environments().stream()
                     .sorted(Comparator.comparingInt(Environment::getDisplayOrder).thenComparing(Environment::getName))
                     .forEach(env -> {
                 Span badge = new Span(env.getName());
@@ -77,46 +81,40 @@ public class MonitoredServicesComponent extends Grid<MonitoredService> {
             return badges;
         }).setHeader("Environments").setAutoWidth(true).setFlexGrow(0);
 
-        addColumn(service -> {
-            if (service.getLastUpdated() == null) {
+        addColumn(status -> {
+            if (status.checkedAt() == null) {
                 return "-";
             }
 
             return DateTimeFormatter
                     .ofPattern("yyyy-MM-dd HH:mm:ss")
                     .withLocale(UI.getCurrent().getLocale())
-                    .format(service.getLastUpdated().atZone(ZoneId.systemDefault()));
+                    .format(status.checkedAt().atZone(ZoneId.systemDefault()));
         }).setHeader("Last updated").setAutoWidth(true).setFlexGrow(0).setSortable(true);
-        addColumn(new ComponentRenderer<>(service -> {
+        addColumn(new ComponentRenderer<>(status -> {
             Button editButton = new Button(VaadinIcon.EDIT.create(), _ -> {
                 if (editListener != null) {
-                    editListener.accept(service);
+                    monitoringService.getService(status.serviceId()).ifPresent(editListener);
                 }
             });
-            Button deleteButton = new Button(VaadinIcon.TRASH.create(), _ -> openDeleteDialog(service));
+            Button deleteButton = new Button(VaadinIcon.TRASH.create(), _ -> openDeleteDialog(status));
             HorizontalLayout actions = new HorizontalLayout(editButton, deleteButton);
             actions.setSpacing(true);
             actions.setPadding(false);
             return actions;
         })).setHeader("Actions").setAutoWidth(true).setFlexGrow(0);
         setPartNameGenerator(s -> {
-            if (!s.isInfoStatus()) return "unavailable";
-            if (s.isCertExpiringSoon()) return "cert-expiring";
+            if (!s.infoStatus()) return "unavailable";
+            if (s.certExpiringSoon()) return "cert-expiring";
             return null;
         });
         setSizeFull();
         addThemeVariants(GridVariant.LUMO_ROW_STRIPES);
 
         UI ui = UI.getCurrent();
-        Consumer<MonitoredService> listener = _ -> {
+        Consumer<ServiceChangeSet> listener = changes -> {
             if (ui != null && ui.isAttached()) {
-                var services = monitoringService.getServices();
-                loadEnvironmentCache();
-                ui.access(() -> {
-                    dataProvider.getItems().clear();
-                    dataProvider.getItems().addAll(services);
-                    applyEnvironmentFilter();
-                });
+                ui.access(() -> applyChanges(changes));
             }
         };
         monitoringService.addListener(listener);
@@ -133,37 +131,53 @@ public class MonitoredServicesComponent extends Grid<MonitoredService> {
         this.editListener = editListener;
     }
 
-    private void loadEnvironmentCache() {
-        environmentCache.clear();
-        for (MonitoredService service : dataProvider.getItems()) {
-            if (service.getId() != null) {
-                environmentCache.put(service.getId(), environmentService.getEnvironmentsForService(service.getId()));
+    /**
+     * Adds, removes or refreshes only the rows named in the change set.
+     */
+    private void applyChanges(ServiceChangeSet changes) {
+        boolean structural = false;
+        for (ServiceChange change : changes.changes()) {
+            ServiceStatus status = change.status();
+            switch (change.type()) {
+                case ADDED -> {
+                    rows.put(status.serviceId(), status);
+                    structural = true;
+                }
+                case REMOVED -> {
+                    rows.remove(status.serviceId());
+                    structural = true;
+                }
+                case UPDATED -> {
+                    if (rows.replace(status.serviceId(), status) != null) {
+                        dataProvider.refreshItem(status);
+                    }
+                }
             }
         }
+        if (structural) {
+            dataProvider.refreshAll();
+        }
     }
 
     private void applyEnvironmentFilter() {
         if (environmentFilter.isEmpty()) {
             dataProvider.clearFilters();
         } else {
-            dataProvider.setFilter(service -> {
-                Set<Environment> envs = environmentCache.getOrDefault(service.getId(), Set.of());
-                return environmentFilter.stream().anyMatch(envs::contains);
-            });
+            dataProvider.setFilter(status -> environmentFilter.stream().anyMatch(status.environments()::contains));
         }
     }
 
-    private void openDeleteDialog(MonitoredService service) {
+    private void openDeleteDialog(ServiceStatus status) {
         Dialog dialog = new Dialog();
         dialog.setHeaderTitle("Delete service");
 
         VerticalLayout content = new VerticalLayout();
         content.add("Are you sure you want to delete:");
-        content.add(new Span(service.getName() + " (" + service.getUrl() + ")"));
+        content.add(new Span(status.name() + " (" + status.url() + ")"));
         dialog.add(content);
 
         Button confirm = new Button("Delete", _ -> {
-            monitoringService.removeService(service);
+            monitoringService.getService(status.serviceId()).ifPresent(monitoringService::removeService);
 
             dataProvider.refreshAll();
             dialog.close();
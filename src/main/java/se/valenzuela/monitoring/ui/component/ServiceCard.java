@@ -8,7 +8,7 @@ import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import se.valenzuela.monitoring.core.model.Environment;
-import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.service.ServiceStatus;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -16,54 +16,88 @@ import java.util.Comparator;
 
 public class ServiceCard extends Div {
 
-    public ServiceCard(MonitoredService service, Runnable onDetail, Runnable onEdit,
-                       Runnable onLoggers, Runnable onDelete) {
+    private static final String[] STATUS_CLASSES =
+            {"service-card--down", "service-card--warning", "service-card--healthy"};
+
+    private final Runnable onDetail;
+    private Div cardBody;
+    private Span checkedSpan;
+
+    public ServiceCard(ServiceStatus status, Runnable onDetail,
+                       Runnable onEdit, Runnable onLoggers, Runnable onDelete) {
+        this.onDetail = onDetail;
         addClassName("service-card");
-        if (!service.isHealthStatus()) {
-            addClassName("service-card--down");
-        } else if (service.isCertExpiringSoon()) {
-            addClassName("service-card--warning");
+        applyStatusClass(status);
+        cardBody = buildCardBody(status);
+        add(cardBody, buildCardActions(onEdit, onLoggers, onDelete));
+    }
+
+    /**
+     * Re-renders the card body in place after the service's state or configuration changed.
+     */
+    public void update(ServiceStatus status) {
+        applyStatusClass(status);
+        Div updated = buildCardBody(status);
+        replace(cardBody, updated);
+        cardBody = updated;
+    }
+
+    /**
+     * Cheaper than {@link #update} when only the last-checked time moved.
+     */
+    public void updateCheckedAt(Instant lastUpdated) {
+        Span updated = ServiceViewUtils.buildLiveCheckedSpan(lastUpdated);
+        checkedSpan.getParent().ifPresent(footer -> ((Div) footer).replace(checkedSpan, updated));
+        checkedSpan = updated;
+    }
+
+    private void applyStatusClass(ServiceStatus status) {
+        removeClassNames(STATUS_CLASSES);
+        if (!status.healthy()) {
+            addClassName(STATUS_CLASSES[0]);
+        } else if (status.certExpiringSoon()) {
+            addClassName(STATUS_CLASSES[1]);
         } else {
-            addClassName("service-card--healthy");
+            addClassName(STATUS_CLASSES[2]);
         }
-        add(buildCardBody(service, onDetail), buildCardActions(onEdit, onLoggers, onDelete));
     }
 
-    private Div buildCardBody(MonitoredService service, Runnable onDetail) {
+    private Div buildCardBody(ServiceStatus status) {
         var body = new Div();
         body.addClassName("service-card-body");
         body.addClickListener(_ -> onDetail.run());
 
-        var dot = ServiceViewUtils.statusIcon(service.isHealthStatus(), service.isCertExpiringSoon());
-        var name = new Span(service.getName() != null ? service.getName() : service.getUrl());
+        var dot = ServiceViewUtils.statusIcon(status.healthy(), status.certExpiringSoon());
+        var name = new Span(status.displayName());
         name.addClassName("service-card-name");
-        var version = new Span(service.getVersion() != null ? service.getVersion() : "");
+        var version = new Span(status.version() != null ? status.version() : "");
         version.addClassName("service-card-version");
         var header = new Div(dot, name, version);
         header.addClassName("service-card-header");
 
-        var urlLink = new Anchor(service.getUrl(), service.getUrl());
+        var urlLink = new Anchor(status.url(), status.url());
         urlLink.setTarget("_blank");
         urlLink.addClassName("service-card-url");
         urlLink.getElement().executeJs("this.addEventListener('click', e => e.stopPropagation())");
 
         var badgesRow = new Div();
         badgesRow.addClassName("service-card-badges");
-        service.getEnvironments().stream()
+        status.environments().stream()
                 .sorted(Comparator.comparingInt(Environment::getDisplayOrder)
                         .thenComparing(Environment::getName))
                 .forEach(env -> badgesRow.add(ServiceViewUtils.envBadge(env)));
 
         var footer = new Div();
         footer.addClassName("service-card-footer");
-        if (service.getEarliestCertExpiry() != null) {
-            long days = Duration.between(Instant.now(), service.getEarliestCertExpiry()).toDays();
+        if (status.certExpiry() != null) {
+            long days = Duration.between(Instant.now(), status.certExpiry()).toDays();
             var certSpan = new Span("Cert · " + days + "d");
             certSpan.addClassName("service-card-cert");
-            if (service.isCertExpiringSoon()) certSpan.addClassName("service-card-cert--warning");
+            if (status.certExpiringSoon()) certSpan.addClassName("service-card-cert--warning");
             footer.add(certSpan);
         }
-        footer.add(ServiceViewUtils.buildLiveCheckedSpan(service.getLastUpdated()));
+        checkedSpan = ServiceViewUtils.buildLiveCheckedSpan(status.checkedAt());
+        footer.add(checkedSpan);
 
         body.add(header, urlLink, badgesRow, footer);
         return body;
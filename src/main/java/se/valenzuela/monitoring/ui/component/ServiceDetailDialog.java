@@ -4,27 +4,30 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.confirmdialog.ConfirmDialog;
+import com.vaadin.flow.component.details.Details;
 import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Hr;
+import com.vaadin.flow.component.html.Pre;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import se.valenzuela.monitoring.core.client.HealthEndpointResponse;
 import se.valenzuela.monitoring.core.client.HealthStatus;
 import se.valenzuela.monitoring.core.model.Environment;
-import se.valenzuela.monitoring.core.model.MonitoredService;
 import se.valenzuela.monitoring.core.service.EnvironmentService;
 import se.valenzuela.monitoring.core.service.MonitoringService;
+import se.valenzuela.monitoring.core.service.ProbeLatencyTracker;
+import se.valenzuela.monitoring.core.service.ServiceStatus;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
-import java.util.Set;
 
 public class ServiceDetailDialog extends BaseDialog {
 
@@ -33,32 +36,33 @@ public class ServiceDetailDialog extends BaseDialog {
     private static final DateTimeFormatter DATETIME_FMT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
 
-    public ServiceDetailDialog(MonitoredService service, MonitoringService monitoringService,
-                               EnvironmentService environmentService) {
-        super(service.getName() != null ? service.getName() : service.getUrl());
+    public ServiceDetailDialog(ServiceStatus status, MonitoringService monitoringService, EnvironmentService environmentService) {
+        super(status.displayName());
 
         var content = new VerticalLayout();
         content.setPadding(false);
         content.setSpacing(true);
 
         // health status + version hero row
-        var dot = ServiceViewUtils.statusIcon(service.isHealthStatus(), service.isCertExpiringSoon());
-        String healthText = service.getHealthResponseStatus() != null
-                ? service.getHealthResponseStatus()
-                : (service.isHealthStatus() ? HealthStatus.UP : HealthStatus.DOWN);
+        var dot = ServiceViewUtils.statusIcon(status.healthy(), status.certExpiringSoon());
+        String healthText = status.flapping() ? "FLAPPING"
+                : status.healthStatus() != null
+                ? status.healthStatus()
+                : (status.healthy() ? HealthStatus.UP : HealthStatus.DOWN);
         var healthLabel = new Span(healthText);
         healthLabel.addClassName("health-label");
-        if (!service.isHealthStatus())      healthLabel.addClassName("health-label--down");
-        else if (service.isCertExpiringSoon()) healthLabel.addClassName("health-label--warning");
+        if (status.flapping())              healthLabel.addClassName("health-label--warning");
+        else if (!status.healthy())         healthLabel.addClassName("health-label--down");
+        else if (status.certExpiringSoon()) healthLabel.addClassName("health-label--warning");
         else                                healthLabel.addClassName("health-label--healthy");
-        var versionLabel = new Span(service.getVersion() != null ? "v" + service.getVersion() : "");
+        var versionLabel = new Span(status.version() != null ? "v" + status.version() : "");
         versionLabel.addClassName("service-card-version");
         var statusRow = new HorizontalLayout(dot, healthLabel, versionLabel);
         statusRow.addClassName("detail-status-row");
         statusRow.setAlignItems(HorizontalLayout.Alignment.CENTER);
         statusRow.setSpacing(true);
 
-        var urlLink = new Anchor(service.getUrl(), service.getUrl());
+        var urlLink = new Anchor(status.url(), status.url());
         urlLink.setTarget("_blank");
         urlLink.addClassName("detail-url-link");
 
@@ -67,38 +71,62 @@ public class ServiceDetailDialog extends BaseDialog {
         // status details
         var detailsGrid = new Div();
         detailsGrid.addClassName("detail-grid");
-        addDetailRow(detailsGrid, "Info status", infoStatusSpan(service.isInfoStatus()));
-        addDetailRow(detailsGrid, "Last check", new Span(service.getLastUpdated() != null
-                ? DATETIME_FMT.format(service.getLastUpdated()) + "  (" + ServiceViewUtils.relativeTime(service.getLastUpdated()) + ")"
+        addDetailRow(detailsGrid, "Info status", infoStatusSpan(status.infoStatus()));
+        addDetailRow(detailsGrid, "Last check", new Span(status.checkedAt() != null
+                ? DATETIME_FMT.format(status.checkedAt()) + "  (" + ServiceViewUtils.relativeTime(status.checkedAt()) + ")"
                 : "—"));
-        if (service.getEarliestCertExpiry() != null) {
-            long days = Duration.between(Instant.now(), service.getEarliestCertExpiry()).toDays();
-            var certSpan = new Span(DATE_FMT.format(service.getEarliestCertExpiry()) + "  (" + days + " days)");
-            if (service.isCertExpiringSoon())
+        if (status.certExpiry() != null) {
+            long days = Duration.between(Instant.now(), status.certExpiry()).toDays();
+            var certSpan = new Span(DATE_FMT.format(status.certExpiry()) + "  (" + days + " days)");
+            if (status.certExpiringSoon())
                 certSpan.addClassName("cert-expiry--warning");
             addDetailRow(detailsGrid, "Cert expires", certSpan);
         }
+        monitoringService.getLatencyPercentiles(status.serviceId(), ProbeLatencyTracker.Endpoint.HEALTH)
+                .ifPresent(latency -> addDetailRow(detailsGrid, "Health latency", new Span(
+                        "p50 %.0f ms · p95 %.0f ms · p99 %.0f ms".formatted(latency.p50(), latency.p95(), latency.p99()))));
         content.add(detailsGrid, new Hr());
 
+        // health components, decoded on every poll; full details are fetched on demand
+        if (!status.components().isEmpty()) {
+            var componentsGrid = new Div();
+            componentsGrid.addClassName("detail-grid");
+            status.components().forEach((name, componentStatus) -> {
+                var statusSpan = new Span(componentStatus);
+                statusSpan.addClassName(HealthStatus.UP.equalsIgnoreCase(componentStatus)
+                        ? "health-label--healthy" : "health-label--down");
+                addDetailRow(componentsGrid, name, statusSpan);
+            });
+            var healthDetails = new Details("Full health response");
+            healthDetails.addOpenedChangeListener(e -> {
+                if (e.isOpened() && healthDetails.getContent().findAny().isEmpty()) {
+                    healthDetails.add(healthDetailsContent(status, monitoringService));
+                }
+            });
+            var componentsSection = new VerticalLayout(sectionLabel("Components"), componentsGrid, healthDetails);
+            componentsSection.setPadding(false);
+            componentsSection.setSpacing(false);
+            content.add(componentsSection, new Hr());
+        }
+
         // endpoints + interval
         var endpointsGrid = new Div();
         endpointsGrid.addClassName("detail-grid");
-        addDetailRow(endpointsGrid, "Info endpoint", new Span(service.getInfoEndpoint()));
-        addDetailRow(endpointsGrid, "Health endpoint", new Span(service.getHealthEndpoint()));
-        int effectiveInterval = service.getEffectiveHealthCheckIntervalSeconds();
-        String intervalLabel = service.getHealthCheckIntervalSeconds() != null
+        addDetailRow(endpointsGrid, "Info endpoint", new Span(status.infoEndpoint()));
+        addDetailRow(endpointsGrid, "Health endpoint", new Span(status.healthEndpoint()));
+        int effectiveInterval = status.effectiveIntervalSeconds();
+        String intervalLabel = status.healthCheckIntervalSeconds() != null
                 ? effectiveInterval + "s"
                 : effectiveInterval + "s (default)";
         addDetailRow(endpointsGrid, "Check interval", new Span(intervalLabel));
         content.add(endpointsGrid);
 
         // environments
-        Set<Environment> envs = service.getEnvironments();
-        if (!envs.isEmpty()) {
+        if (!status.environments().isEmpty()) {
             content.add(new Hr());
             var envRow = new Div();
             envRow.addClassName("detail-env-row");
-            envs.stream()
+            status.environments().stream()
                     .sorted(Comparator.comparingInt(Environment::getDisplayOrder)
                             .thenComparing(Environment::getName))
                     .forEach(env -> envRow.add(ServiceViewUtils.envBadge(env)));
@@ -112,34 +140,58 @@ public class ServiceDetailDialog extends BaseDialog {
 
         var editBtn = new Button("Edit", VaadinIcon.EDIT.create(), _ -> {
             close();
-            new ServiceEditDialog(service, monitoringService, environmentService).open();
+            monitoringService.getService(status.serviceId())
+                    .ifPresent(service -> new ServiceEditDialog(service, monitoringService, environmentService).open());
         });
         editBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
 
         var deleteBtn = new Button("Delete", VaadinIcon.TRASH.create(), _ -> {
             close();
-            showDeleteConfirm(service, monitoringService);
+            showDeleteConfirm(status, monitoringService);
         });
         deleteBtn.addThemeVariants(ButtonVariant.LUMO_ERROR);
 
         getFooter().add(closeButton(), deleteBtn, editBtn);
     }
 
-    private static void showDeleteConfirm(MonitoredService service, MonitoringService monitoringService) {
+    private static void showDeleteConfirm(ServiceStatus status, MonitoringService monitoringService) {
         var confirm = new ConfirmDialog();
-        confirm.setHeader("Delete " + (service.getName() != null ? service.getName() : service.getUrl()));
+        confirm.setHeader("Delete " + status.displayName());
         confirm.setText("This will permanently remove the service and all its configuration.");
         confirm.setCancelable(true);
         confirm.setConfirmText("Delete");
         confirm.setConfirmButtonTheme("error primary");
         confirm.addConfirmListener(_ -> {
-            monitoringService.removeService(service);
+            monitoringService.getService(status.serviceId()).ifPresent(monitoringService::removeService);
             Notification.show("Service deleted", 3000, Notification.Position.BOTTOM_START)
                     .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
         });
         confirm.open();
     }
 
+    private static Component healthDetailsContent(ServiceStatus status, MonitoringService monitoringService) {
+        HealthEndpointResponse response;
+        try {
+            response = monitoringService.fetchHealthDetails(status.serviceId());
+        } catch (Exception e) {
+            return new Span("Could not fetch the health endpoint.");
+        }
+        if (response == null || response.components() == null) {
+            return new Span("No component details returned.");
+        }
+        var details = new VerticalLayout();
+        details.setPadding(false);
+        details.setSpacing(false);
+        response.components().forEach((name, node) -> {
+            var label = new Span(name);
+            label.addClassName("detail-label");
+            var json = new Pre(node.toPrettyString());
+            json.addClassName("health-details-json");
+            details.add(label, json);
+        });
+        return details;
+    }
+
     private void addDetailRow(Div grid, String label, Component value) {
         var labelSpan = new Span(label);
         labelSpan.addClassName("detail-label");
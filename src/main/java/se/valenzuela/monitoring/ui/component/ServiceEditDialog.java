@@ -59,18 +59,14 @@ public class ServiceEditDialog extends BaseDialog {
         envGroup.setWidthFull();
 
         var saveBtn = new Button("Save", VaadinIcon.CHECK.create(), _ -> {
-            String newUrl = urlField.getValue().trim();
-            if (!newUrl.equals(originalUrl)) {
-                monitoringService.updateServiceUrl(service, newUrl);
-            }
-            service.setInfoEndpoint(infoField.getValue().trim());
-            service.setHealthEndpoint(healthField.getValue().trim());
-            service.setHealthCheckIntervalSeconds(intervalField.getValue());
-            if (service.getId() != null) {
-                environmentService.updateServiceEnvironments(service, envGroup.getValue());
-            }
-            monitoringService.saveService(service);
-            monitoringService.notifyListeners(service);
+            // Edits a copy, so the checks never see a half-applied edit, and saves it once
+            MonitoredService edited = service.copy();
+            edited.setUrl(urlField.getValue().trim());
+            edited.setInfoEndpoint(infoField.getValue().trim());
+            edited.setHealthEndpoint(healthField.getValue().trim());
+            edited.setHealthCheckIntervalSeconds(intervalField.getValue());
+            edited.setEnvironments(new HashSet<>(envGroup.getValue()));
+            monitoringService.saveService(edited);
             close();
             Notification.show("Service saved", 3000, Notification.Position.BOTTOM_START)
                     .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
@@ -0,0 +1,8 @@
+-- One row per running BootGuard node. Timestamps come from the database clock (NOW(6)),
+-- so nodes with skewed clocks still agree on which of them are alive.
+CREATE TABLE cluster_node (
+    node_id VARCHAR(128) NOT NULL PRIMARY KEY,
+    started_at TIMESTAMP(6) NOT NULL,
+    heartbeat_at TIMESTAMP(6) NOT NULL,
+    INDEX idx_cluster_node_heartbeat (heartbeat_at)
+);
@@ -0,0 +1,19 @@
+-- Named locks with fencing tokens. The token grows by one every time the lock changes hands,
+-- so work started under an older token can be recognised as stale. Expiry uses the database
+-- clock, like cluster_node.
+CREATE TABLE cluster_lock (
+    lock_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    owner VARCHAR(128),
+    fencing_token BIGINT NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+-- Last health state a notification was sent for, per service. Nodes claim a transition by
+-- flipping the row, so a transition seen by two nodes is only notified once.
+CREATE TABLE notification_claim (
+    service_id BIGINT NOT NULL PRIMARY KEY,
+    healthy BOOLEAN NOT NULL,
+    claimed_by VARCHAR(128) NOT NULL,
+    claimed_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_notification_claim_service FOREIGN KEY (service_id) REFERENCES monitored_service(id) ON DELETE CASCADE
+);
@@ -0,0 +1,8 @@
+-- Last observed health of each service and when it last changed, so transitions that happen
+-- while BootGuard restarts are still detected. Written only when the state changes.
+CREATE TABLE service_health_state (
+    service_id BIGINT NOT NULL PRIMARY KEY,
+    healthy BOOLEAN NOT NULL,
+    changed_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_health_state_service FOREIGN KEY (service_id) REFERENCES monitored_service(id) ON DELETE CASCADE
+);
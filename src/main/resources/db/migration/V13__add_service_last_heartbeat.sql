@@ -0,0 +1,4 @@
+-- Latest heartbeat received for each push-mode service, by whichever node received it, so the
+-- node that times the service out also sees the heartbeats sent to the other nodes.
+ALTER TABLE monitored_service ADD COLUMN last_heartbeat_at TIMESTAMP(6) NULL DEFAULT NULL;
+ALTER TABLE monitored_service ADD COLUMN last_heartbeat_status VARCHAR(32) DEFAULT NULL;
@@ -0,0 +1,4 @@
+-- Whether the last flapping notification sent for the service was a start or a stop, and when
+-- the transition happened, so a change in flapping seen by two nodes is only notified once.
+ALTER TABLE notification_claim ADD COLUMN flapping BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE notification_claim ADD COLUMN flapping_changed_at TIMESTAMP(6) NULL DEFAULT NULL;
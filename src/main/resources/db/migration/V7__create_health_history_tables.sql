@@ -0,0 +1,28 @@
+-- Timestamps are epoch milliseconds so bucket boundaries are plain integer arithmetic.
+-- No foreign key on service_id: the table is append-only and history of removed
+-- services ages out through retention.
+CREATE TABLE health_sample (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    service_id BIGINT NOT NULL,
+    sampled_at BIGINT NOT NULL,
+    healthy BOOLEAN NOT NULL,
+    status VARCHAR(32),
+    http_status SMALLINT,
+    latency_ms INT NOT NULL,
+    transition BOOLEAN NOT NULL DEFAULT FALSE,
+    INDEX idx_health_sample_service_time (service_id, sampled_at),
+    INDEX idx_health_sample_time (sampled_at)
+);
+
+CREATE TABLE health_rollup (
+    service_id BIGINT NOT NULL,
+    resolution VARCHAR(10) NOT NULL,
+    bucket_start BIGINT NOT NULL,
+    sample_count INT NOT NULL,
+    up_count INT NOT NULL,
+    transition_count INT NOT NULL,
+    latency_sum_ms BIGINT NOT NULL,
+    latency_max_ms INT NOT NULL,
+    PRIMARY KEY (service_id, resolution, bucket_start),
+    INDEX idx_health_rollup_time (resolution, bucket_start)
+);
@@ -0,0 +1,2 @@
+ALTER TABLE monitored_service ADD COLUMN check_mode VARCHAR(16) NOT NULL DEFAULT 'PULL';
+ALTER TABLE monitored_service ADD COLUMN heartbeat_interval_seconds INT DEFAULT NULL;
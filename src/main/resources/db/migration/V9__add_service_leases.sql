@@ -0,0 +1,2 @@
+ALTER TABLE monitored_service ADD COLUMN lease_seconds INT DEFAULT NULL;
+ALTER TABLE monitored_service ADD COLUMN lease_expires_at TIMESTAMP(6) NULL DEFAULT NULL;
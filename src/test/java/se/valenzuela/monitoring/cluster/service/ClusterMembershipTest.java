@@ -0,0 +1,102 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.cluster.repository.ClusterNodeRepository;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.service.MonitoringService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterMembershipTest {
+
+    @Mock
+    private ClusterNodeRepository repository;
+
+    @Mock
+    private MonitoringService monitoringService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ClusterMembership membership(boolean enabled) {
+        return new ClusterMembership(repository, monitoringService,
+                new ClusterProperties(enabled, "node-a", Duration.ofSeconds(15), 128), meterRegistry);
+    }
+
+    private static MonitoredService service(long id) {
+        var service = new MonitoredService("http://localhost:" + (8000 + id));
+        service.setId(id);
+        return service;
+    }
+
+    @Test
+    void disabled_ownsEverythingWithoutTouchingDatabase() {
+        ClusterMembership membership = membership(false);
+
+        membership.heartbeat();
+        membership.syncRegistry();
+        membership.leave();
+
+        assertTrue(LongStream.rangeClosed(1, 100).allMatch(id -> membership.owns(service(id))));
+        verifyNoInteractions(repository, monitoringService);
+    }
+
+    @Test
+    void heartbeat_nodeJoins_rebuildsRingOnce() {
+        ClusterMembership membership = membership(true);
+        when(repository.findLiveNodeIds(Duration.ofSeconds(15))).thenReturn(List.of("node-a", "node-b"));
+
+        membership.heartbeat();
+        membership.heartbeat();
+
+        verify(repository, times(2)).heartbeat("node-a");
+        assertEquals(Set.of("node-a", "node-b"), membership.getNodes());
+        assertEquals(1, membership.version());
+        assertEquals(1.0, meterRegistry.get("bootguard.cluster.rebalances").counter().count());
+        assertEquals(2.0, meterRegistry.get("bootguard.cluster.nodes").gauge().value());
+        long owned = LongStream.rangeClosed(1, 1000).filter(id -> membership.owns(service(id))).count();
+        assertTrue(owned > 300 && owned < 700, "owned " + owned);
+    }
+
+    @Test
+    void heartbeat_ownRowNotYetVisible_stillCountsItself() {
+        ClusterMembership membership = membership(true);
+        when(repository.findLiveNodeIds(any())).thenReturn(List.of("node-b"));
+
+        membership.heartbeat();
+
+        assertEquals(Set.of("node-a", "node-b"), membership.getNodes());
+    }
+
+    @Test
+    void heartbeat_databaseDown_keepsPreviousRing() {
+        ClusterMembership membership = membership(true);
+        when(repository.findLiveNodeIds(any())).thenReturn(List.of("node-a", "node-b"));
+        membership.heartbeat();
+        doThrow(new RuntimeException("Connection refused")).when(repository).heartbeat("node-a");
+
+        membership.heartbeat();
+
+        assertEquals(Set.of("node-a", "node-b"), membership.getNodes());
+        assertEquals(1, membership.version());
+    }
+
+    @Test
+    void leave_deletesOwnRow() {
+        membership(true).leave();
+
+        verify(repository).delete("node-a");
+    }
+}
@@ -0,0 +1,64 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    void singleNode_ownsEveryKey() {
+        HashRing ring = HashRing.of(List.of("node-a"), 16);
+
+        for (long key = 0; key < 100; key++) {
+            assertEquals("node-a", ring.ownerOf(key));
+        }
+    }
+
+    @Test
+    void sameMembership_sameOwnersRegardlessOfOrder() {
+        HashRing ring = HashRing.of(List.of("node-a", "node-b", "node-c"), 128);
+        HashRing reordered = HashRing.of(List.of("node-c", "node-a", "node-b"), 128);
+
+        for (long key = 0; key < KEYS; key++) {
+            assertEquals(ring.ownerOf(key), reordered.ownerOf(key));
+        }
+    }
+
+    @Test
+    void keysSpreadEvenlyAcrossNodes() {
+        HashRing ring = HashRing.of(List.of("node-a", "node-b", "node-c", "node-d"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long key = 0; key < KEYS; key++) {
+            counts.merge(ring.ownerOf(key), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertEquals(KEYS / 4.0, count, KEYS / 4.0 * 0.25));
+    }
+
+    @Test
+    void nodeLeaving_onlyMovesItsOwnKeys() {
+        HashRing before = HashRing.of(List.of("node-a", "node-b", "node-c"), 128);
+        HashRing after = HashRing.of(List.of("node-a", "node-b"), 128);
+
+        for (long key = 0; key < KEYS; key++) {
+            String owner = before.ownerOf(key);
+            if (!owner.equals("node-c")) {
+                assertEquals(owner, after.ownerOf(key));
+            }
+        }
+    }
+
+    @Test
+    void emptyMembership_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HashRing.of(List.of(), 128));
+    }
+}
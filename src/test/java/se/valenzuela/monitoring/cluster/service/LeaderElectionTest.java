@@ -0,0 +1,121 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.cluster.repository.ClusterLockRepository;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.config.ClusterProperties;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderElectionTest {
+
+    private static final Duration TTL = Duration.ofSeconds(15);
+
+    @Mock
+    private ClusterLockRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LeaderElection election(boolean enabled) {
+        var properties = new ClusterProperties(enabled, "node-a", TTL, 128);
+        var membership = new ClusterMembership(null, null, properties, meterRegistry);
+        return new LeaderElection(repository, membership, properties, meterRegistry);
+    }
+
+    @Test
+    void disabled_alwaysLeaderWithoutTouchingDatabase() {
+        LeaderElection election = election(false);
+
+        election.renewOrAcquire();
+
+        assertTrue(election.isLeader());
+        assertEquals(Optional.of(Fence.NONE), election.fence());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void acquire_becomesLeaderWithFencingToken() {
+        LeaderElection election = election(true);
+        assertFalse(election.isLeader());
+        when(repository.tryAcquire(LeaderElection.LEADER_LOCK, "node-a", TTL)).thenReturn(OptionalLong.of(7));
+
+        election.renewOrAcquire();
+
+        assertTrue(election.isLeader());
+        assertEquals(7, election.getFencingToken());
+        assertEquals(1.0, meterRegistry.get("bootguard.cluster.leader").gauge().value());
+    }
+
+    @Test
+    void renew_keepsTokenWithoutReacquiring() {
+        LeaderElection election = election(true);
+        when(repository.tryAcquire(LeaderElection.LEADER_LOCK, "node-a", TTL)).thenReturn(OptionalLong.of(7));
+        election.renewOrAcquire();
+        when(repository.renew(LeaderElection.LEADER_LOCK, "node-a", 7, TTL)).thenReturn(true);
+
+        election.renewOrAcquire();
+
+        assertEquals(7, election.getFencingToken());
+        verify(repository, times(1)).tryAcquire(any(), any(), any());
+    }
+
+    @Test
+    void renewRejected_lockTakenByOtherNode_losesLeadership() {
+        LeaderElection election = election(true);
+        when(repository.tryAcquire(LeaderElection.LEADER_LOCK, "node-a", TTL))
+                .thenReturn(OptionalLong.of(7), OptionalLong.empty());
+        election.renewOrAcquire();
+        when(repository.renew(LeaderElection.LEADER_LOCK, "node-a", 7, TTL)).thenReturn(false);
+
+        election.renewOrAcquire();
+
+        assertFalse(election.isLeader());
+        assertEquals(0, election.getFencingToken());
+    }
+
+    @Test
+    void databaseDown_staysLeaderUntilLeaseRunsOut() {
+        LeaderElection election = election(true);
+        when(repository.tryAcquire(LeaderElection.LEADER_LOCK, "node-a", TTL)).thenReturn(OptionalLong.of(7));
+        election.renewOrAcquire();
+        when(repository.renew(LeaderElection.LEADER_LOCK, "node-a", 7, TTL))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        election.renewOrAcquire();
+
+        assertTrue(election.isLeader());
+    }
+
+    @Test
+    void fence_carriesTokenOnlyWhileLeader() {
+        LeaderElection election = election(true);
+        assertEquals(Optional.empty(), election.fence());
+        when(repository.tryAcquire(LeaderElection.LEADER_LOCK, "node-a", TTL)).thenReturn(OptionalLong.of(7));
+
+        election.renewOrAcquire();
+
+        assertEquals(Optional.of(new Fence(LeaderElection.LEADER_LOCK, 7)), election.fence());
+    }
+
+    @Test
+    void resign_releasesLock() {
+        LeaderElection election = election(true);
+        when(repository.tryAcquire(LeaderElection.LEADER_LOCK, "node-a", TTL)).thenReturn(OptionalLong.of(7));
+        election.renewOrAcquire();
+
+        election.resign();
+
+        verify(repository).release(LeaderElection.LEADER_LOCK, "node-a", 7);
+        assertFalse(election.isLeader());
+    }
+}
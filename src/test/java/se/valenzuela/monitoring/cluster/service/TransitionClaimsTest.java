@@ -0,0 +1,76 @@
+package se.valenzuela.monitoring.cluster.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.cluster.repository.NotificationClaimRepository;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
+import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransitionClaimsTest {
+
+    @Mock
+    private NotificationClaimRepository repository;
+
+    private TransitionClaims claims(boolean enabled) {
+        var membership = new ClusterMembership(null, null,
+                new ClusterProperties(enabled, "node-a", Duration.ofSeconds(15), 128), new SimpleMeterRegistry());
+        return new TransitionClaims(repository, membership);
+    }
+
+    private static ServiceHealthChangedEvent wentDown() {
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        return new ServiceHealthChangedEvent(service, true, false, Instant.now());
+    }
+
+    @Test
+    void disabled_claimsWithoutTouchingDatabase() {
+        assertTrue(claims(false).claim(wentDown()));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void claimedByOtherNode_isRejected() {
+        when(repository.claim(1L, false, "node-a")).thenReturn(false);
+
+        assertFalse(claims(true).claim(wentDown()));
+    }
+
+    @Test
+    void databaseDown_notifiesAnyway() {
+        when(repository.claim(1L, false, "node-a")).thenThrow(new RuntimeException("Connection refused"));
+
+        assertTrue(claims(true).claim(wentDown()));
+    }
+
+    @Test
+    void settledFlapping_claimsWithSettledState() {
+        Instant settledAt = Instant.now();
+        var event = new ServiceFlappingEvent(wentDown().service(), false, true, 0.2, settledAt);
+        when(repository.claimFlapping(1L, false, true, settledAt, "node-a")).thenReturn(true);
+
+        assertTrue(claims(true).claimFlapping(event));
+    }
+
+    @Test
+    void flappingStartClaimedByOtherNode_isRejected() {
+        Instant startedAt = Instant.now();
+        var event = new ServiceFlappingEvent(wentDown().service(), true, false, 0.6, startedAt);
+        when(repository.claimFlapping(1L, true, false, startedAt, "node-a")).thenReturn(false);
+
+        assertFalse(claims(true).claimFlapping(event));
+    }
+}
@@ -0,0 +1,64 @@
+package se.valenzuela.monitoring.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import se.valenzuela.monitoring.core.service.Heartbeat;
+import se.valenzuela.monitoring.core.service.MonitoringService;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(HeartbeatController.class)
+class HeartbeatControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MonitoringService monitoringService;
+
+    @Test
+    void heartbeat_valid_returns202() throws Exception {
+        mockMvc.perform(post("/heartbeat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://orders:8080", "status": "UP", "components": {"db": "UP"},
+                                 "version": "2.1.0", "intervalSeconds": 15, "leaseSeconds": 60}
+                                """))
+                .andExpect(status().isAccepted());
+
+        verify(monitoringService).recordHeartbeat(new Heartbeat(
+                "http://orders:8080", "UP", Map.of("db", "UP"), null, "2.1.0", 15, 60));
+    }
+
+    @Test
+    void heartbeat_missingStatus_returns400() throws Exception {
+        mockMvc.perform(post("/heartbeat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://orders:8080"}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(monitoringService);
+    }
+
+    @Test
+    void heartbeat_nonPositiveInterval_returns400() throws Exception {
+        mockMvc.perform(post("/heartbeat")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://orders:8080", "status": "UP", "intervalSeconds": 0}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(monitoringService);
+    }
+}
@@ -7,9 +7,14 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import se.valenzuela.monitoring.core.service.MonitoringService;
+import se.valenzuela.monitoring.core.service.RegistrationResult;
+import se.valenzuela.monitoring.core.service.ServiceRegistration;
+
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ServiceRegistrationController.class)
@@ -22,17 +27,41 @@ class ServiceRegistrationControllerTest {
     private MonitoringService monitoringService;
 
     @Test
-    void register_validUrl_returns200() throws Exception {
-        when(monitoringService.addService("http://localhost:8080")).thenReturn(true);
+    void register_validUrl_returns202() throws Exception {
+        when(monitoringService.addService("http://localhost:8080", null)).thenReturn(true);
 
         mockMvc.perform(post("/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("""
                                 {"url": "http://localhost:8080"}
                                 """))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
+
+        verify(monitoringService).addService("http://localhost:8080", null);
+    }
+
+    @Test
+    void register_withLease_passesLeaseSeconds() throws Exception {
+        mockMvc.perform(post("/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://localhost:8080", "leaseSeconds": 90}
+                                """))
+                .andExpect(status().isAccepted());
+
+        verify(monitoringService).addService("http://localhost:8080", 90);
+    }
+
+    @Test
+    void register_nonPositiveLease_returns400() throws Exception {
+        mockMvc.perform(post("/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://localhost:8080", "leaseSeconds": 0}
+                                """))
+                .andExpect(status().isBadRequest());
 
-        verify(monitoringService).addService("http://localhost:8080");
+        verifyNoInteractions(monitoringService);
     }
 
     @Test
@@ -68,4 +97,65 @@ class ServiceRegistrationControllerTest {
 
         verifyNoInteractions(monitoringService);
     }
+
+    @Test
+    void registerBatch_returnsResultPerEntryInOrder() throws Exception {
+        when(monitoringService.addServices(List.of(
+                new ServiceRegistration("http://localhost:8081", 60), new ServiceRegistration("http://localhost:8082", null))))
+                .thenReturn(List.of(
+                        new RegistrationResult("http://localhost:8081", RegistrationResult.Status.REGISTERED, 7L, null),
+                        RegistrationResult.alreadyRegistered("http://localhost:8082", 3L)));
+
+        mockMvc.perform(post("/register/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"url": "http://localhost:8081", "leaseSeconds": 60}, {"url": "not-a-url"}, {"url": "http://localhost:8082"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("REGISTERED"))
+                .andExpect(jsonPath("$[0].serviceId").value(7))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].url").value("not-a-url"))
+                .andExpect(jsonPath("$[2].status").value("ALREADY_REGISTERED"));
+    }
+
+    @Test
+    void registerBatch_tooLarge_returns400() throws Exception {
+        String entry = "{\"url\": \"http://localhost:8080\"},";
+        String body = "[" + entry.repeat(ServiceRegistrationController.MAX_BATCH_SIZE) + entry.substring(0, entry.length() - 1) + "]";
+
+        mockMvc.perform(post("/register/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(monitoringService);
+    }
+
+    @Test
+    void deregister_knownUrl_returns204() throws Exception {
+        when(monitoringService.deregister("http://localhost:8080")).thenReturn(true);
+
+        mockMvc.perform(post("/deregister")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://localhost:8080"}
+                                """))
+                .andExpect(status().isNoContent());
+
+        verify(monitoringService).deregister("http://localhost:8080");
+    }
+
+    @Test
+    void deregister_unknownUrl_returns404() throws Exception {
+        when(monitoringService.deregister("http://localhost:8080")).thenReturn(false);
+
+        mockMvc.perform(post("/deregister")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"url": "http://localhost:8080"}
+                                """))
+                .andExpect(status().isNotFound());
+    }
 }
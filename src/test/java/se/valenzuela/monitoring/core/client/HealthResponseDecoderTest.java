@@ -0,0 +1,81 @@
+package se.valenzuela.monitoring.core.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthResponseDecoderTest {
+
+    private static HealthSummary decode(String json) {
+        return HealthResponseDecoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void decode_statusOnly() {
+        var summary = decode("{\"status\":\"UP\"}");
+
+        assertEquals("UP", summary.status());
+        assertTrue(summary.components().isEmpty());
+        assertNull(summary.earliestCertExpiry());
+    }
+
+    @Test
+    void decode_componentStatusesInOrder() {
+        var summary = decode("""
+                {"status":"DOWN","components":{
+                  "diskSpace":{"status":"UP","details":{"total":1000,"free":500,"threshold":10,"path":"/"}},
+                  "db":{"status":"DOWN","details":{"error":"Connection refused"}},
+                  "ping":{"status":"UP"}}}
+                """);
+
+        assertEquals("DOWN", summary.status());
+        assertEquals(List.of("diskSpace", "db", "ping"), List.copyOf(summary.components().keySet()));
+        assertEquals(Map.of("diskSpace", "UP", "db", "DOWN", "ping", "UP"), summary.components());
+    }
+
+    @Test
+    void decode_earliestExpiryAcrossAllChainTypes() {
+        var summary = decode("""
+                {"status":"UP","components":{"ssl":{"status":"UP","details":{
+                  "validChains":[{"alias":"a","certificates":[
+                    {"subject":"CN=a","validityStarts":"2025-01-01T00:00:00Z","validityEnds":"2027-06-01T00:00:00Z",
+                     "validity":{"status":"VALID"}},
+                    {"subject":"CN=ca","validityEnds":"2030-01-01T00:00:00Z"}]}],
+                  "expiringChains":[{"alias":"b","certificates":[{"validityEnds":"2026-12-01T00:00:00Z"}]}],
+                  "invalidChains":[]}}}}
+                """);
+
+        assertEquals(Instant.parse("2026-12-01T00:00:00Z"), summary.earliestCertExpiry());
+        assertEquals(Map.of("ssl", "UP"), summary.components());
+    }
+
+    @Test
+    void decode_ignoresValidityEndsOutsideSslChains() {
+        var summary = decode("""
+                {"status":"UP","components":{
+                  "custom":{"status":"UP","details":{"validChains":[{"certificates":[{"validityEnds":"2020-01-01T00:00:00Z"}]}]}},
+                  "ssl":{"status":"UP","details":{"other":{"validityEnds":"2020-01-01T00:00:00Z"},
+                    "validChains":[{"certificates":[{"validityEnds":"not-a-date"},{"validityEnds":"2028-01-01T00:00:00Z"}]}]}}}}
+                """);
+
+        assertEquals(Instant.parse("2028-01-01T00:00:00Z"), summary.earliestCertExpiry());
+    }
+
+    @Test
+    void decode_skipsUnknownRootFields() {
+        var summary = decode("{\"groups\":[\"liveness\",\"readiness\"],\"status\":\"OUT_OF_SERVICE\"}");
+
+        assertEquals("OUT_OF_SERVICE", summary.status());
+    }
+
+    @Test
+    void decode_nonObjectBody_hasNoStatus() {
+        assertNull(decode("[]").status());
+    }
+}
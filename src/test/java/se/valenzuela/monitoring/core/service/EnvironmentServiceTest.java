@@ -28,11 +28,14 @@ class EnvironmentServiceTest {
     @Mock
     private MonitoredServiceRepository serviceRepository;
 
+    @Mock
+    private ServiceRegistry registry;
+
     private EnvironmentService environmentService;
 
     @BeforeEach
     void setUp() {
-        environmentService = new EnvironmentService(environmentRepository, serviceRepository);
+        environmentService = new EnvironmentService(environmentRepository, serviceRepository, registry);
     }
 
     @Test
@@ -72,6 +75,7 @@ class EnvironmentServiceTest {
         environmentService.deleteEnvironment(env);
 
         verify(environmentRepository).delete(env);
+        verify(registry).environmentRemoved(env);
     }
 
     @Test
@@ -87,20 +91,24 @@ class EnvironmentServiceTest {
     void updateServiceEnvironments_refetchesAndReplacesSet() {
         var service = new MonitoredService("http://localhost:8080");
         service.setId(1L);
-        service.setEnvironments(new HashSet<>(Set.of(new Environment("Old", null, 0))));
+        service.setHealthStatus(true);
+        var managed = new MonitoredService("http://localhost:8080");
+        managed.setId(1L);
+        managed.setEnvironments(new HashSet<>(Set.of(new Environment("Old", null, 0))));
 
-        when(serviceRepository.findByIdWithEnvironments(1L)).thenReturn(Optional.of(service));
+        when(serviceRepository.findByIdWithEnvironments(1L)).thenReturn(Optional.of(managed));
         when(serviceRepository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         var newEnv = new Environment("Production", "#22C55E", 1);
         newEnv.setId(10L);
 
-        environmentService.updateServiceEnvironments(service, Set.of(newEnv));
+        MonitoredService saved = environmentService.updateServiceEnvironments(service, Set.of(newEnv));
 
-        verify(serviceRepository).findByIdWithEnvironments(1L);
-        verify(serviceRepository).save(service);
-        assertEquals(1, service.getEnvironments().size());
-        assertTrue(service.getEnvironments().contains(newEnv));
+        assertSame(managed, saved);
+        verify(serviceRepository).save(managed);
+        verify(registry).put(managed);
+        assertEquals(Set.of(newEnv), managed.getEnvironments());
+        assertTrue(managed.isHealthStatus());
     }
 
     @Test
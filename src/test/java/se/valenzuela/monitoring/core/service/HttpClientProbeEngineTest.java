@@ -0,0 +1,121 @@
+package se.valenzuela.monitoring.core.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.config.HttpClientProperties;
+import se.valenzuela.monitoring.core.client.HealthProbeResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientProbeEngineTest {
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private ProbeExecutor probeExecutor;
+    private HttpClientProbeEngine engine;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/actuator/health", exchange -> respond(exchange, 503,
+                "{\"status\":\"DOWN\",\"components\":{\"db\":{\"status\":\"DOWN\"}}}"));
+        server.createContext("/actuator/info", exchange -> respond(exchange, 200,
+                "{\"name\":\"test-app\",\"description\":\"A test app\",\"version\":\"1.0.0\"}"));
+        server.createContext("/broken/health", exchange -> respond(exchange, 500, "<html>oops</html>"));
+        server.createContext("/large/health", exchange -> respond(exchange, 200,
+                "{\"status\":\"UP\",\"details\":\"" + "x".repeat(4096) + "\"}"));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        var properties = new HttpClientProperties(
+                new HttpClientProperties.Client(10, 10, Duration.ofSeconds(2), Duration.ofSeconds(2),
+                        Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(5), DataSize.ofKilobytes(1)),
+                null);
+        httpClient = HttpClient.newHttpClient();
+        probeExecutor = new ProbeExecutor(new HealthCheckProperties(0, 4, 4, Duration.ofMinutes(10),
+                Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), new SimpleMeterRegistry());
+        engine = new HttpClientProbeEngine(httpClient, probeExecutor, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        probeExecutor.shutdown();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void fetchHealth_decodesErrorResponses() {
+        HealthProbeResult result = engine.fetchHealth(baseUrl + "/actuator/health").join();
+
+        assertEquals(503, result.httpStatus());
+        assertEquals("DOWN", result.summary().status());
+        assertEquals(Map.of("db", "DOWN"), result.summary().components());
+        assertEquals(0, probeExecutor.getQueueDepth());
+    }
+
+    @Test
+    void fetchHealth_undecodableBody_keepsStatusCode() {
+        HealthProbeResult result = engine.fetchHealth(baseUrl + "/broken/health").join();
+
+        assertEquals(500, result.httpStatus());
+        assertNull(result.summary());
+    }
+
+    @Test
+    void fetchHealth_bodyLargerThanLimit_fails() {
+        var future = engine.fetchHealth(baseUrl + "/large/health");
+
+        assertThrows(CompletionException.class, future::join);
+        assertEquals(0, probeExecutor.getQueueDepth());
+    }
+
+    @Test
+    void fetchInfo_decodesBody() {
+        var info = engine.fetchInfo(baseUrl + "/actuator/info").join();
+
+        assertEquals("test-app", info.name());
+        assertEquals("1.0.0", info.version());
+    }
+
+    @Test
+    void fetchInfo_nonSuccessStatus_fails() {
+        var future = engine.fetchInfo(baseUrl + "/missing");
+
+        assertThrows(CompletionException.class, future::join);
+    }
+
+    @Test
+    void fetchHealth_unreachable_fails() {
+        server.stop(0);
+
+        var future = engine.fetchHealth(baseUrl + "/actuator/health");
+
+        assertThrows(CompletionException.class, future::join);
+    }
+}
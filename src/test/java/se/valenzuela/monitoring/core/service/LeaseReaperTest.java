@@ -0,0 +1,107 @@
+package se.valenzuela.monitoring.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.cluster.repository.ClusterLockRepository;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.cluster.service.ClusterMembership;
+import se.valenzuela.monitoring.cluster.service.LeaderElection;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.config.LeaseProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseReaperTest {
+
+    @Mock
+    private MonitoringService monitoringService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LeaseReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reaper = reaper(false);
+    }
+
+    private LeaseReaper reaper(boolean clustered) {
+        var properties = new ClusterProperties(clustered, "node-a", Duration.ofSeconds(15), 128);
+        var clusterMembership = new ClusterMembership(null, monitoringService, properties, meterRegistry);
+        var leaderElection = new LeaderElection(mock(ClusterLockRepository.class), clusterMembership, properties,
+                meterRegistry);
+        return new LeaseReaper(monitoringService, clusterMembership, leaderElection, new LeaseProperties(2),
+                meterRegistry);
+    }
+
+    private static MonitoredService service(long id, Integer leaseSeconds, Instant leaseExpiresAt) {
+        var service = new MonitoredService("http://localhost:808" + id);
+        service.setId(id);
+        service.setLeaseSeconds(leaseSeconds);
+        service.setLeaseExpiresAt(leaseExpiresAt);
+        return service;
+    }
+
+    @Test
+    void reap_removesExpiredServicesInBatches() {
+        Instant now = Instant.now().plusSeconds(120);
+        var expired1 = service(1L, 30, now.minusSeconds(1));
+        var expired2 = service(2L, 30, now.minusSeconds(5));
+        var expired3 = service(3L, 30, now.minusSeconds(10));
+        var live = service(4L, 30, now.plusSeconds(10));
+        var unleased = service(5L, null, null);
+        when(monitoringService.getServices()).thenReturn(List.of(expired1, live, expired2, unleased, expired3));
+        when(monitoringService.removeServices(any(), eq(Fence.NONE))).thenReturn(true);
+
+        reaper.reap(now, Fence.NONE);
+
+        verify(monitoringService).removeServices(List.of(expired1, expired2), Fence.NONE);
+        verify(monitoringService).removeServices(List.of(expired3), Fence.NONE);
+        assertEquals(3.0, meterRegistry.get("bootguard.lease.evicted").counter().count());
+    }
+
+    @Test
+    void reap_fencedOff_stopsEvicting() {
+        Instant now = Instant.now().plusSeconds(120);
+        var fence = new Fence("leader", 7);
+        when(monitoringService.getServices()).thenReturn(List.of(service(1L, 30, now.minusSeconds(1)),
+                service(2L, 30, now.minusSeconds(1)), service(3L, 30, now.minusSeconds(1))));
+        when(monitoringService.removeServices(any(), eq(fence))).thenReturn(false);
+
+        reaper.reap(now, fence);
+
+        verify(monitoringService, times(1)).removeServices(any(), any());
+        assertEquals(0.0, meterRegistry.get("bootguard.lease.evicted").counter().count());
+    }
+
+    @Test
+    void reap_notLeader_doesNothing() {
+        reaper(true).reap();
+
+        verifyNoInteractions(monitoringService);
+    }
+
+    @Test
+    void reap_givesEveryLeaseOneFullTermAfterStartup() {
+        // Expired while BootGuard was down, so the service never had a chance to renew
+        Instant now = Instant.now().plusSeconds(10);
+        when(monitoringService.getServices()).thenReturn(List.of(service(1L, 30, now.minusSeconds(3600))));
+
+        reaper.reap(now, Fence.NONE);
+
+        verify(monitoringService, never()).removeServices(any(), any());
+    }
+}
@@ -0,0 +1,139 @@
+package se.valenzuela.monitoring.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.config.LeaseProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceJdbcRepository;
+import se.valenzuela.monitoring.core.repository.ReceivedHeartbeat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseTrackerTest {
+
+    @Mock
+    private MonitoredServiceJdbcRepository jdbcRepository;
+
+    private LeaseTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = newTracker(true);
+    }
+
+    private LeaseTracker newTracker(boolean clustered) {
+        return new LeaseTracker(jdbcRepository, new LeaseProperties(100),
+                new ClusterProperties(clustered, "node-a", Duration.ofSeconds(15), 128));
+    }
+
+    private static MonitoredService leasedService(long id, int leaseSeconds) {
+        var service = new MonitoredService("http://localhost:808" + id);
+        service.setId(id);
+        service.setLeaseSeconds(leaseSeconds);
+        service.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        return service;
+    }
+
+    @Test
+    void start_setsLeaseBeforeServiceIsStored() {
+        var service = new MonitoredService("http://localhost:8080");
+
+        tracker.start(service, 30);
+
+        assertEquals(30, service.getLeaseSeconds());
+        assertTrue(service.getLeaseExpiresAt().isAfter(Instant.now().plusSeconds(25)));
+    }
+
+    @Test
+    void renew_withoutLease_leavesServiceAlone() {
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+
+        tracker.renew(service, null);
+        tracker.flush();
+
+        assertNull(service.getLeaseExpiresAt());
+        verifyNoInteractions(jdbcRepository);
+    }
+
+    @Test
+    void flush_writesRenewalsInOneBatch() {
+        var first = leasedService(1L, 30);
+        var second = leasedService(2L, 30);
+
+        tracker.renew(first, null);
+        tracker.renew(second, 60);
+        tracker.renew(first, null);
+        tracker.flush();
+
+        verify(jdbcRepository).updateLeases(argThat(services -> services.size() == 2
+                && services.containsAll(List.of(first, second))), eq(100));
+        assertEquals(60, second.getLeaseSeconds());
+        assertTrue(second.getLeaseExpiresAt().isAfter(Instant.now().plusSeconds(55)));
+
+        tracker.flush();
+
+        verifyNoMoreInteractions(jdbcRepository);
+    }
+
+    @Test
+    void flush_failure_keepsRenewalsForNextFlush() {
+        var service = leasedService(1L, 30);
+        doThrow(new RuntimeException("Connection lost")).doNothing()
+                .when(jdbcRepository).updateLeases(anyList(), anyInt());
+
+        tracker.renew(service, null);
+        tracker.flush();
+        tracker.flush();
+
+        verify(jdbcRepository, times(2)).updateLeases(List.of(service), 100);
+    }
+
+    @Test
+    void forget_dropsPendingRenewal() {
+        var service = leasedService(1L, 30);
+
+        tracker.renew(service, null);
+        tracker.forget(service);
+        tracker.flush();
+
+        verifyNoInteractions(jdbcRepository);
+    }
+
+    @Test
+    void flush_writesLatestHeartbeatPerService() {
+        Instant now = Instant.now();
+        var latest = new ReceivedHeartbeat(1L, now, "DOWN");
+
+        tracker.heartbeat(new ReceivedHeartbeat(1L, now.minusSeconds(5), "UP"));
+        tracker.heartbeat(latest);
+        tracker.heartbeat(new ReceivedHeartbeat(1L, now.minusSeconds(1), "UP"));
+        tracker.flush();
+
+        verify(jdbcRepository).updateHeartbeats(List.of(latest), 100);
+        verify(jdbcRepository, never()).updateLeases(anyList(), anyInt());
+    }
+
+    @Test
+    void flush_withoutCluster_keepsHeartbeatsInMemory() {
+        tracker = newTracker(false);
+
+        tracker.heartbeat(new ReceivedHeartbeat(1L, Instant.now(), "UP"));
+        tracker.flush();
+
+        assertFalse(tracker.sharesHeartbeats());
+        verifyNoInteractions(jdbcRepository);
+    }
+}
@@ -1,29 +1,56 @@
 package se.valenzuela.monitoring.core.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.client.RestClient;
-import se.valenzuela.monitoring.core.client.HealthEndpointResponse;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.config.LeaseProperties;
 import se.valenzuela.monitoring.core.client.InfoEndpointResponse;
+import se.valenzuela.monitoring.core.model.CheckMode;
+import se.valenzuela.monitoring.core.model.Environment;
 import se.valenzuela.monitoring.core.model.MonitoredService;
 import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
 import se.valenzuela.monitoring.notification.event.ServiceAddedEvent;
 import se.valenzuela.monitoring.notification.event.ServiceRemovedEvent;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceJdbcRepository;
 import se.valenzuela.monitoring.core.repository.MonitoredServiceRepository;
+import se.valenzuela.monitoring.core.repository.ReceivedHeartbeat;
+import se.valenzuela.monitoring.notification.model.HealthState;
 import se.valenzuela.monitoring.settings.service.AppSettingService;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,39 +71,120 @@ class MonitoringServiceTest {
     @Mock
     private MonitoredServiceRepository repository;
 
+    @Mock
+    private MonitoredServiceJdbcRepository jdbcRepository;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
     @Mock
     private AppSettingService appSettingService;
 
+    private static final String UP_BODY = "{\"status\":\"UP\"}";
+
     private MonitoringService monitoringService;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private LeaseTracker leaseTracker;
+
+    private ProbeExecutor probeExecutor;
+
     @BeforeEach
     void setUp() {
-        monitoringService = new MonitoringService(restClient, repository, eventPublisher, appSettingService);
+        createMonitoringService(true);
+    }
+
+    private void createMonitoringService(boolean clustered) {
+        var properties = new HealthCheckProperties(0, 8, 4, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null);
+        meterRegistry = new SimpleMeterRegistry();
+        probeExecutor = new ProbeExecutor(properties, meterRegistry);
+        leaseTracker = new LeaseTracker(jdbcRepository, new LeaseProperties(500),
+                new ClusterProperties(clustered, "node-a", Duration.ofSeconds(15), 128));
+        monitoringService = new MonitoringService(restClient, repository, jdbcRepository, eventPublisher, appSettingService,
+                new ServiceRegistry(repository),
+                probeExecutor,
+                new RestClientProbeEngine(restClient, probeExecutor),
+                new ProbeLatencyTracker(meterRegistry),
+                leaseTracker,
+                meterRegistry,
+                properties);
     }
 
     @SuppressWarnings("unchecked")
     private void stubRestClient() {
         when(restClient.get()).thenReturn((RestClient.RequestHeadersUriSpec) requestHeadersUriSpec);
         doReturn(requestHeadersSpec).when(requestHeadersUriSpec).uri(anyString());
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        lenient().when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    /**
+     * Answers the health probe's {@code exchange()} with the given status code and JSON body.
+     */
+    private static Answer<Object> healthResponse(HttpStatus status, String json) {
+        return invocation -> {
+            RestClient.RequestHeadersSpec.ExchangeFunction<?> exchange = invocation.getArgument(0);
+            var response = mock(RestClient.RequestHeadersSpec.ConvertibleClientHttpResponse.class);
+            when(response.getStatusCode()).thenReturn(status);
+            when(response.getBody()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+            return exchange.exchange(null, response);
+        };
+    }
+
+    /**
+     * Probes every registered service the way a scheduler round does.
+     */
+    private List<MonitoredService> probeRegisteredServices() {
+        List<MonitoredService> services = monitoringService.getServices();
+        monitoringService.fetchHealthStatuses(services);
+        return services;
+    }
+
+    private void stubSaveAssigningId(long id) {
+        when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> {
+            MonitoredService service = invocation.getArgument(0);
+            service.setId(id);
+            return service;
+        });
+    }
+
+    private void awaitBackgroundInfoFetches() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (monitoringService.getPendingRegistrations() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, monitoringService.getPendingRegistrations());
     }
 
     @Test
-    void addService_successful() {
+    void addService_savesFirstThenStoresInfoInBackground() throws InterruptedException {
         stubRestClient();
         var info = new InfoEndpointResponse("test-app", "A test app", "1.0.0");
         when(responseSpec.body(InfoEndpointResponse.class)).thenReturn(info);
         when(repository.existsByUrl("http://localhost:8080")).thenReturn(false);
-        when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        stubSaveAssigningId(1L);
 
         boolean result = monitoringService.addService("http://localhost:8080");
+        awaitBackgroundInfoFetches();
 
         assertTrue(result);
-        verify(repository).save(argThat(service ->
-                "test-app".equals(service.getName()) && "1.0.0".equals(service.getVersion())));
+        var inOrder = inOrder(repository);
+        inOrder.verify(repository).save(any(MonitoredService.class));
+        inOrder.verify(repository).updateInfo(eq(1L), eq("test-app"), eq("1.0.0"), any(Instant.class));
+        MonitoredService service = monitoringService.getService(1L).orElseThrow();
+        assertTrue(service.isInfoStatus());
+        assertEquals("test-app", monitoringService.getStatus(1L).orElseThrow().name());
+    }
+
+    @Test
+    void addService_pendingGaugeDrainsOnceInfoFetchCompletes() throws InterruptedException {
+        when(repository.existsByUrl("http://localhost:8080")).thenReturn(false);
+        stubSaveAssigningId(1L);
+
+        monitoringService.addService("http://localhost:8080");
+        awaitBackgroundInfoFetches();
+
+        assertEquals(0.0, meterRegistry.get("bootguard.registration.pending").gauge().value());
     }
 
     @Test
@@ -88,58 +196,64 @@ class MonitoringServiceTest {
     }
 
     @Test
-    void addService_endpointDown_stillSaves() {
+    void addService_endpointDown_stillSavesAndLeavesInfoDue() throws InterruptedException {
         stubRestClient();
         when(repository.existsByUrl("http://localhost:9999")).thenReturn(false);
         when(responseSpec.body(InfoEndpointResponse.class)).thenThrow(new RuntimeException("Connection refused"));
-        when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        stubSaveAssigningId(1L);
 
         boolean result = monitoringService.addService("http://localhost:9999");
+        awaitBackgroundInfoFetches();
 
         assertTrue(result);
         verify(repository).save(any(MonitoredService.class));
+        verify(repository, never()).updateInfo(any(), any(), any(), any());
+        assertNull(monitoringService.getService(1L).orElseThrow().getInfoCheckedAt());
     }
 
     @Test
-    void addService_notifiesListeners() {
+    void addService_notifiesListenersOfAdditionThenInfo() throws InterruptedException {
         stubRestClient();
         var info = new InfoEndpointResponse("test-app", "A test app", "1.0.0");
         when(responseSpec.body(InfoEndpointResponse.class)).thenReturn(info);
         when(repository.existsByUrl("http://localhost:8080")).thenReturn(false);
-        when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        stubSaveAssigningId(1L);
 
-        AtomicReference<MonitoredService> notified = new AtomicReference<>();
-        monitoringService.addListener(notified::set);
+        List<ServiceChangeSet> notified = new CopyOnWriteArrayList<>();
+        monitoringService.addListener(notified::add);
 
         monitoringService.addService("http://localhost:8080");
-
-        assertNotNull(notified.get());
-        assertEquals("http://localhost:8080", notified.get().getUrl());
+        awaitBackgroundInfoFetches();
+
+        assertEquals(2, notified.size());
+        ServiceChange added = notified.getFirst().changes().getFirst();
+        assertEquals(ServiceChange.Type.ADDED, added.type());
+        assertEquals("http://localhost:8080", added.status().url());
+        ServiceChange updated = notified.get(1).changes().getFirst();
+        assertEquals(ServiceChange.Type.UPDATED, updated.type());
+        assertTrue(updated.fields().contains(ServiceChange.Field.INFO));
     }
 
     @Test
     void removeService_deletesAndNotifiesListeners() {
         MonitoredService service = new MonitoredService("http://localhost:8080");
 
-        AtomicReference<MonitoredService> notified = new AtomicReference<>();
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
         monitoringService.addListener(notified::set);
 
         monitoringService.removeService(service);
 
         verify(repository).delete(service);
-        assertNotNull(notified.get());
+        assertEquals(ServiceChangeSet.of(ServiceChange.removed(ServiceStatus.of(service))), notified.get());
     }
 
     @Test
     void removeListener_stopsNotifications() {
-        stubRestClient();
-        var info = new InfoEndpointResponse("test-app", "A test app", "1.0.0");
-        when(responseSpec.body(InfoEndpointResponse.class)).thenReturn(info);
         when(repository.existsByUrl("http://localhost:8080")).thenReturn(false);
         when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        AtomicReference<MonitoredService> notified = new AtomicReference<>();
-        Consumer<MonitoredService> listener = notified::set;
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
+        Consumer<ServiceChangeSet> listener = notified::set;
         monitoringService.addListener(listener);
         monitoringService.removeListener(listener);
 
@@ -149,17 +263,16 @@ class MonitoringServiceTest {
     }
 
     @Test
-    void getServices_fetchesLiveStatus() {
+    void fetchHealthStatuses_fetchesLiveStatus() {
         stubRestClient();
         var service = new MonitoredService("http://localhost:8080");
-        when(repository.findAll()).thenReturn(List.of(service));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
 
         var info = new InfoEndpointResponse("test-app", "A test app", "1.0.0");
-        var health = new HealthEndpointResponse("UP", null);
         when(responseSpec.body(InfoEndpointResponse.class)).thenReturn(info);
-        when(responseSpec.body(HealthEndpointResponse.class)).thenReturn(health);
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY)).when(requestHeadersSpec).exchange(any());
 
-        List<MonitoredService> services = monitoringService.getServices();
+        List<MonitoredService> services = probeRegisteredServices();
 
         assertEquals(1, services.size());
         MonitoredService result = services.getFirst();
@@ -171,14 +284,14 @@ class MonitoringServiceTest {
     }
 
     @Test
-    void getServices_serviceDown_setsStatusFalse() {
+    void fetchHealthStatuses_serviceDown_setsStatusFalse() {
         stubRestClient();
         var service = new MonitoredService("http://localhost:8080");
-        when(repository.findAll()).thenReturn(List.of(service));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
         when(responseSpec.body(InfoEndpointResponse.class)).thenThrow(new RuntimeException("Connection refused"));
-        when(responseSpec.body(HealthEndpointResponse.class)).thenThrow(new RuntimeException("Connection refused"));
+        doThrow(new RuntimeException("Connection refused")).when(requestHeadersSpec).exchange(any());
 
-        List<MonitoredService> services = monitoringService.getServices();
+        List<MonitoredService> services = probeRegisteredServices();
 
         MonitoredService result = services.getFirst();
         assertFalse(result.isInfoStatus());
@@ -186,26 +299,104 @@ class MonitoringServiceTest {
         assertEquals("DOWN", result.getHealthResponseStatus());
     }
 
+    @Test
+    void saveService_registersMergedEntityWithObservedState() {
+        MonitoredService detached = new MonitoredService("http://localhost:8080");
+        detached.setId(1L);
+        detached.setHealthStatus(true);
+        MonitoredService merged = new MonitoredService("http://localhost:8080");
+        merged.setId(1L);
+        when(repository.save(detached)).thenReturn(merged);
+
+        assertSame(merged, monitoringService.saveService(detached));
+
+        assertSame(merged, monitoringService.getService(1L).orElseThrow());
+        assertTrue(merged.isHealthStatus());
+    }
+
+    @Test
+    void saveService_publishesNewConfiguration() {
+        var service = storedService(1L, "http://localhost:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        when(repository.save(service)).thenReturn(service);
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
+        monitoringService.addListener(notified::set);
+
+        service.setHealthCheckIntervalSeconds(45);
+        monitoringService.saveService(service);
+
+        ServiceChange change = notified.get().changes().getFirst();
+        assertTrue(change.fields().contains(ServiceChange.Field.CONFIGURATION));
+        assertEquals(45, change.status().healthCheckIntervalSeconds());
+        assertSame(monitoringService.getStatus(1L).orElseThrow(), change.status());
+    }
+
+    @Test
+    void saveService_editedCopy_keepsLatestObservedState() {
+        var service = storedService(1L, "http://localhost:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        service.setHealthStatus(true);
+        MonitoredService edited = service.copy();
+        service.setHealthStatus(false); // checked again while the copy was being edited
+        edited.setHealthCheckIntervalSeconds(60);
+        var merged = edited.copy();
+        when(repository.save(edited)).thenReturn(merged);
+
+        monitoringService.saveService(edited);
+
+        assertSame(merged, monitoringService.getService(1L).orElseThrow());
+        assertEquals(60, merged.getHealthCheckIntervalSeconds());
+        assertFalse(merged.isHealthStatus());
+    }
+
+    @Test
+    void saveService_publishesNewEnvironments() {
+        var service = storedService(1L, "http://localhost:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        when(repository.save(service)).thenReturn(service);
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
+        monitoringService.addListener(notified::set);
+        var production = new Environment("Production", "#22C55E", 1);
+        production.setId(10L);
+
+        service.setEnvironments(new HashSet<>(Set.of(production)));
+        monitoringService.saveService(service);
+
+        ServiceChange change = notified.get().changes().getFirst();
+        assertTrue(change.fields().contains(ServiceChange.Field.CONFIGURATION));
+        assertEquals(Set.of(production), change.status().environments());
+    }
+
+    @Test
+    void updateFlapping_publishesStatusOnlyWhenItChanges() {
+        var service = storedService(1L, "http://localhost:8080");
+        List<ServiceChangeSet> notified = new CopyOnWriteArrayList<>();
+        monitoringService.addListener(notified::add);
+
+        monitoringService.updateFlapping(service, true);
+        monitoringService.updateFlapping(service, true);
+
+        assertEquals(1, notified.size());
+        assertTrue(monitoringService.getStatus(1L).orElseThrow().flapping());
+    }
+
     @Test
     void updateServiceUrl_savesAndNotifies() {
         MonitoredService service = new MonitoredService("http://localhost:8080");
         when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        AtomicReference<MonitoredService> notified = new AtomicReference<>();
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
         monitoringService.addListener(notified::set);
 
         monitoringService.updateServiceUrl(service, "http://localhost:9090");
 
         assertEquals("http://localhost:9090", service.getUrl());
         verify(repository).save(service);
-        assertNotNull(notified.get());
+        assertEquals(Set.of(ServiceChange.Field.CONFIGURATION), notified.get().changes().getFirst().fields());
     }
 
     @Test
     void addService_publishesServiceAddedEvent() {
-        stubRestClient();
-        var info = new InfoEndpointResponse("test-app", "A test app", "1.0.0");
-        when(responseSpec.body(InfoEndpointResponse.class)).thenReturn(info);
         when(repository.existsByUrl("http://localhost:8080")).thenReturn(false);
         when(repository.save(any(MonitoredService.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -216,6 +407,295 @@ class MonitoringServiceTest {
         assertInstanceOf(ServiceAddedEvent.class, captor.getValue().getMonitoringEvent());
     }
 
+    private static MonitoredService storedService(long id, String url) {
+        var service = new MonitoredService(url);
+        service.setId(id);
+        return service;
+    }
+
+    @Test
+    void addServices_insertsNewUrlsInOneBatchWithoutFetchingInfo() {
+        var existing = storedService(1L, "http://localhost:8081");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(existing));
+        when(repository.findAllWithEnvironmentsByUrlIn(any())).thenReturn(List.of(
+                storedService(2L, "http://localhost:8082"), storedService(3L, "http://localhost:8083")));
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
+        monitoringService.addListener(notified::set);
+
+        List<RegistrationResult> results = monitoringService.addServices(registrations(
+                "http://localhost:8082", "http://localhost:8081", "http://localhost:8083", "http://localhost:8082"));
+
+        assertEquals(List.of(
+                RegistrationResult.Status.REGISTERED, RegistrationResult.Status.ALREADY_REGISTERED,
+                RegistrationResult.Status.REGISTERED, RegistrationResult.Status.DUPLICATE),
+                results.stream().map(RegistrationResult::status).toList());
+        assertEquals(2L, results.getFirst().serviceId());
+        assertEquals(1L, results.get(1).serviceId());
+        verify(jdbcRepository).insertAll(argThat(services -> services.stream().map(MonitoredService::getUrl).toList()
+                .equals(List.of("http://localhost:8082", "http://localhost:8083"))), anyInt());
+        verify(repository, never()).save(any());
+        verifyNoInteractions(restClient);
+
+        assertNull(monitoringService.getService(3L).orElseThrow().getInfoCheckedAt());
+        assertEquals(2, notified.get().changes().size());
+        verify(eventPublisher, times(2)).publishEvent(any(MonitoringEventCarrier.class));
+    }
+
+    @Test
+    void addServices_allKnown_skipsDatabase() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(storedService(1L, "http://localhost:8081")));
+
+        List<RegistrationResult> results = monitoringService.addServices(registrations("http://localhost:8081"));
+
+        assertEquals(RegistrationResult.Status.ALREADY_REGISTERED, results.getFirst().status());
+        verifyNoInteractions(jdbcRepository);
+        verify(repository, never()).findAllWithEnvironmentsByUrlIn(any());
+    }
+
+    @Test
+    void addServices_rowIgnoredByDatabase_reportsAlreadyRegistered() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of());
+        when(repository.findAllWithEnvironmentsByUrlIn(any())).thenReturn(List.of());
+
+        List<RegistrationResult> results = monitoringService.addServices(registrations("http://localhost:8081"));
+
+        assertEquals(RegistrationResult.Status.ALREADY_REGISTERED, results.getFirst().status());
+        assertNull(results.getFirst().serviceId());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void addService_alreadyRegistered_renewsLeaseWithoutWriting() {
+        var service = storedService(1L, "http://localhost:8081");
+        service.setLeaseSeconds(60);
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        assertFalse(monitoringService.addService("http://localhost:8081", 120));
+
+        assertEquals(120, service.getLeaseSeconds());
+        assertTrue(service.getLeaseExpiresAt().isAfter(Instant.now().plusSeconds(100)));
+        verify(repository, never()).save(any());
+        verifyNoInteractions(jdbcRepository);
+
+        leaseTracker.flush();
+
+        verify(jdbcRepository).updateLeases(List.of(service), 500);
+    }
+
+    @Test
+    void addService_withLease_storesLeaseWithService() throws InterruptedException {
+        when(repository.existsByUrl("http://localhost:8081")).thenReturn(false);
+        stubSaveAssigningId(1L);
+
+        monitoringService.addService("http://localhost:8081", 60);
+        awaitBackgroundInfoFetches();
+
+        ArgumentCaptor<MonitoredService> captor = ArgumentCaptor.forClass(MonitoredService.class);
+        verify(repository).save(captor.capture());
+        assertEquals(60, captor.getValue().getLeaseSeconds());
+        assertNotNull(captor.getValue().getLeaseExpiresAt());
+    }
+
+    @Test
+    void removeServices_deletesInOneBatchAndNotifiesOnce() {
+        var first = storedService(1L, "http://localhost:8081");
+        var second = storedService(2L, "http://localhost:8082");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(first, second));
+        List<ServiceChangeSet> notified = new CopyOnWriteArrayList<>();
+        monitoringService.addListener(notified::add);
+
+        when(jdbcRepository.deleteAll(List.of(1L, 2L), Fence.NONE)).thenReturn(2);
+
+        assertTrue(monitoringService.removeServices(List.of(first, second), Fence.NONE));
+
+        verify(eventPublisher, times(2)).publishEvent(any(MonitoringEventCarrier.class));
+        assertEquals(1, notified.size());
+        assertEquals(2, notified.getFirst().changes().size());
+        assertTrue(monitoringService.getServices().isEmpty());
+        assertFalse(monitoringService.deregister("http://localhost:8081"));
+    }
+
+    @Test
+    void removeServices_fencedOff_keepsServicesAndStaysQuiet() {
+        var service = storedService(1L, "http://localhost:8081");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        var fence = new Fence("leader", 7);
+        when(jdbcRepository.deleteAll(List.of(1L), fence)).thenReturn(0);
+
+        assertFalse(monitoringService.removeServices(List.of(service), fence));
+
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, monitoringService.getServices().size());
+    }
+
+    @Test
+    void deregister_knownUrl_removesService() {
+        var service = storedService(1L, "http://localhost:8081");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        assertTrue(monitoringService.deregister("http://localhost:8081"));
+
+        verify(repository).delete(service);
+        assertTrue(monitoringService.getService(1L).isEmpty());
+    }
+
+    @Test
+    void syncRegistry_appliesChangesMadeByOtherNodes() {
+        var leased = storedService(1L, "http://localhost:8081");
+        leased.setLeaseSeconds(30);
+        leased.setLeaseExpiresAt(Instant.now());
+        var renewedElsewhere = storedService(1L, "http://localhost:8081");
+        renewedElsewhere.setLeaseSeconds(30);
+        renewedElsewhere.setLeaseExpiresAt(Instant.now().plusSeconds(30));
+        var removedElsewhere = storedService(2L, "http://localhost:8082");
+        var addedElsewhere = storedService(3L, "http://localhost:8083");
+        when(repository.findAllWithEnvironments())
+                .thenReturn(List.of(leased, removedElsewhere), List.of(renewedElsewhere, addedElsewhere));
+        monitoringService.getServices();
+        List<ServiceChangeSet> notified = new CopyOnWriteArrayList<>();
+        monitoringService.addListener(notified::add);
+
+        monitoringService.syncRegistry();
+
+        assertSame(leased, monitoringService.getService(1L).orElseThrow());
+        assertEquals(renewedElsewhere.getLeaseExpiresAt(), leased.getLeaseExpiresAt());
+        assertTrue(monitoringService.getService(2L).isEmpty());
+        assertTrue(monitoringService.getStatus(3L).isPresent());
+        assertEquals(1, notified.size());
+        assertEquals(Set.of(ServiceChange.Type.ADDED, ServiceChange.Type.REMOVED),
+                Set.copyOf(notified.getFirst().changes().stream().map(ServiceChange::type).toList()));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static List<ServiceRegistration> registrations(String... urls) {
+        return Arrays.stream(urls).map(url -> new ServiceRegistration(url, null)).toList();
+    }
+
+    private static MonitoredService pushService(long id, String url, Instant lastHeartbeatAt) {
+        var service = storedService(id, url);
+        service.setCheckMode(CheckMode.PUSH);
+        service.setHeartbeatIntervalSeconds(10);
+        service.setLastHeartbeatAt(lastHeartbeatAt);
+        service.setHealthStatus(true);
+        service.setHealthResponseStatus("UP");
+        return service;
+    }
+
+    @Test
+    void recordHeartbeat_unknownUrl_registersPushService() {
+        stubSaveAssigningId(5L);
+
+        MonitoredService service = monitoringService.recordHeartbeat(new Heartbeat(
+                "http://orders:8080", "up", Map.of("db", "UP"), "orders", "1.0.0", 15, null));
+
+        assertEquals(CheckMode.PUSH, service.getCheckMode());
+        assertEquals(15, service.getEffectiveHealthCheckIntervalSeconds());
+        ServiceStatus status = monitoringService.getStatus(5L).orElseThrow();
+        assertTrue(status.healthy());
+        assertEquals("UP", status.healthStatus());
+        assertEquals(Map.of("db", "UP"), status.components());
+        assertEquals("orders", status.name());
+        verify(repository).updateHeartbeatSettings(5L, CheckMode.PUSH, 15);
+        verify(repository).updateInfo(eq(5L), eq("orders"), eq("1.0.0"), any(Instant.class));
+        ArgumentCaptor<MonitoringEventCarrier> captor = ArgumentCaptor.forClass(MonitoringEventCarrier.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertInstanceOf(ServiceAddedEvent.class, captor.getValue().getMonitoringEvent());
+        verifyNoInteractions(restClient);
+    }
+
+    @Test
+    void recordHeartbeat_pullService_switchesToPush() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(storedService(1L, "http://orders:8080")));
+
+        monitoringService.recordHeartbeat(new Heartbeat("http://orders:8080", "UP", null, null, null, null, null));
+
+        assertEquals(CheckMode.PUSH, monitoringService.getService(1L).orElseThrow().getCheckMode());
+        verify(repository).updateHeartbeatSettings(1L, CheckMode.PUSH, null);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void recordHeartbeat_unchangedHealth_notifiesOnlyOnce() {
+        when(repository.findAllWithEnvironments())
+                .thenReturn(List.of(pushService(1L, "http://orders:8080", Instant.now())));
+        List<ServiceChangeSet> notified = new CopyOnWriteArrayList<>();
+        monitoringService.addListener(notified::add);
+
+        monitoringService.recordHeartbeat(new Heartbeat("http://orders:8080", "UP", Map.of(), null, null, 10, null));
+        monitoringService.recordHeartbeat(new Heartbeat("http://orders:8080", "UP", Map.of(), null, null, 10, null));
+
+        assertEquals(1, notified.size());
+        verify(repository, never()).updateHeartbeatSettings(any(), any(), any());
+    }
+
+    @Test
+    void fetchHealthStatuses_missedHeartbeats_marksPushServiceDownWithoutProbing() {
+        var silent = pushService(1L, "http://orders:8080", Instant.now().minusSeconds(31));
+        var reporting = pushService(2L, "http://billing:8080", Instant.now().minusSeconds(5));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(silent, reporting));
+
+        probeRegisteredServices();
+
+        assertFalse(silent.isHealthStatus());
+        assertEquals("DOWN", silent.getHealthResponseStatus());
+        assertTrue(reporting.isHealthStatus());
+        verifyNoInteractions(restClient);
+    }
+
+    @Test
+    void fetchHealthStatuses_heartbeatReceivedByAnotherNode_keepsPushServiceUp() {
+        var service = pushService(1L, "http://orders:8080", Instant.now().minusSeconds(31));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        Instant receivedElsewhere = Instant.now();
+        when(jdbcRepository.findHeartbeats(List.of(1L)))
+                .thenReturn(List.of(new ReceivedHeartbeat(1L, receivedElsewhere, "UP")));
+
+        probeRegisteredServices();
+
+        assertTrue(service.isHealthStatus());
+        assertEquals(receivedElsewhere, service.getLastHeartbeatAt());
+    }
+
+    @Test
+    void fetchHealthStatuses_withoutCluster_doesNotReadStoredHeartbeats() {
+        createMonitoringService(false);
+        var service = pushService(1L, "http://orders:8080", Instant.now().minusSeconds(31));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        probeRegisteredServices();
+
+        assertFalse(service.isHealthStatus());
+        verify(jdbcRepository, never()).findHeartbeats(anyList());
+    }
+
+    @Test
+    void recordHeartbeat_storesHeartbeatWithNextFlush() {
+        when(repository.findAllWithEnvironments())
+                .thenReturn(List.of(pushService(1L, "http://orders:8080", Instant.now())));
+
+        monitoringService.recordHeartbeat(new Heartbeat("http://orders:8080", "down", Map.of(), null, null, 10, null));
+        leaseTracker.flush();
+
+        verify(jdbcRepository).updateHeartbeats(argThat(heartbeats -> heartbeats.size() == 1
+                && heartbeats.getFirst().serviceId() == 1L && heartbeats.getFirst().status().equals("DOWN")), eq(500));
+    }
+
+    @Test
+    void applyHealthCheckedElsewhere_showsStoredStateAndNotifies() {
+        var service = storedService(1L, "http://orders:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        List<ServiceChangeSet> notified = new CopyOnWriteArrayList<>();
+        monitoringService.addListener(notified::add);
+
+        monitoringService.applyHealthCheckedElsewhere(List.of(service), Map.of(1L, new HealthState(false, Instant.now())));
+        monitoringService.applyHealthCheckedElsewhere(List.of(service), Map.of(1L, new HealthState(false, Instant.now())));
+
+        ServiceStatus status = monitoringService.getStatus(1L).orElseThrow();
+        assertFalse(status.healthy());
+        assertEquals("DOWN", status.healthStatus());
+        assertEquals(1, notified.size());
+    }
+
     @Test
     void removeService_publishesServiceRemovedEvent() {
         MonitoredService service = new MonitoredService("http://localhost:8080");
@@ -227,4 +707,225 @@ class MonitoringServiceTest {
         assertInstanceOf(ServiceRemovedEvent.class, captor.getValue().getMonitoringEvent());
         verify(repository).delete(service);
     }
+
+    @Test
+    void fetchHealthStatuses_infoFetchedOnlyWhenStale() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        when(responseSpec.body(InfoEndpointResponse.class))
+                .thenReturn(new InfoEndpointResponse("test-app", "A test app", "1.0.0"));
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY)).when(requestHeadersSpec).exchange(any());
+
+        probeRegisteredServices();
+        probeRegisteredServices();
+
+        verify(responseSpec, times(1)).body(InfoEndpointResponse.class);
+        verify(requestHeadersSpec, times(2)).exchange(any());
+    }
+
+    @Test
+    void fetchHealthStatuses_recoveryRefreshesInfo() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        when(responseSpec.body(InfoEndpointResponse.class))
+                .thenReturn(new InfoEndpointResponse("test-app", "A test app", "1.0.0"))
+                .thenReturn(new InfoEndpointResponse("test-app", "A test app", "1.1.0"));
+        doThrow(new RuntimeException("Connection refused"))
+                .doAnswer(healthResponse(HttpStatus.OK, UP_BODY))
+                .when(requestHeadersSpec).exchange(any());
+
+        probeRegisteredServices(); // DOWN, info fetched for the first time
+        probeRegisteredServices(); // back UP after a redeploy
+
+        verify(responseSpec, times(2)).body(InfoEndpointResponse.class);
+        assertEquals("1.1.0", service.getVersion());
+    }
+
+    @Test
+    void fetchHealthStatuses_recordsHttpStatusAndLatency() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        doAnswer(healthResponse(HttpStatus.SERVICE_UNAVAILABLE, "{\"status\":\"OUT_OF_SERVICE\"}"))
+                .when(requestHeadersSpec).exchange(any());
+
+        probeRegisteredServices();
+
+        assertEquals(503, service.getHealthHttpStatus());
+        assertEquals("OUT_OF_SERVICE", service.getHealthResponseStatus());
+        assertTrue(service.getHealthLatencyMillis() >= 0);
+        assertFalse(service.isHealthStatus());
+    }
+
+    @Test
+    void fetchHealthStatuses_latencyExcludesWaitForPermits() throws Exception {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY)).when(requestHeadersSpec).exchange(any());
+
+        // Hold all four permits of the host so the health probe has to queue behind them
+        var release = new CountDownLatch(1);
+        var blockers = IntStream.range(0, 4)
+                .mapToObj(_ -> probeExecutor.submit("http://localhost:9090", () -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }))
+                .toList();
+        var probe = CompletableFuture.runAsync(this::probeRegisteredServices);
+        Thread.sleep(300);
+        assertFalse(probe.isDone());
+        release.countDown();
+        probe.get(5, TimeUnit.SECONDS);
+        blockers.forEach(CompletableFuture::join);
+
+        assertTrue(service.getHealthLatencyMillis() < 300, "latency was " + service.getHealthLatencyMillis());
+        var timer = meterRegistry.get("bootguard.probe.latency").tag("service", "1").tag("endpoint", "health").timer();
+        assertTrue(timer.max(TimeUnit.MILLISECONDS) < 300, "max latency was " + timer.max(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void fetchHealthStatuses_tracksLatencyUntilServiceRemoved() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY)).when(requestHeadersSpec).exchange(any());
+
+        probeRegisteredServices();
+
+        var latency = monitoringService.getLatencyPercentiles(service, ProbeLatencyTracker.Endpoint.HEALTH);
+        assertEquals(1, latency.orElseThrow().count());
+        assertNotNull(meterRegistry.find("bootguard.probe.latency").tag("service", "1").timer());
+
+        monitoringService.removeService(service);
+
+        assertTrue(monitoringService.getLatencyPercentiles(service, ProbeLatencyTracker.Endpoint.HEALTH).isEmpty());
+        assertNull(meterRegistry.find("bootguard.probe.latency").tag("service", "1").timer());
+    }
+
+    @Test
+    void fetchHealthStatuses_decodesComponentsAndCertificateExpiry() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        when(appSettingService.getCertExpiryWarningDays()).thenReturn(30);
+        Instant expiry = Instant.now().plus(Duration.ofDays(10)).truncatedTo(ChronoUnit.SECONDS);
+        String body = """
+                {"status":"UP","components":{
+                  "db":{"status":"UP","details":{"database":"MariaDB"}},
+                  "ssl":{"status":"UP","details":{"validChains":[{"alias":"server",
+                    "certificates":[{"subject":"CN=app","validityEnds":"%s"}]}],"invalidChains":[]}}}}
+                """.formatted(expiry);
+        doAnswer(healthResponse(HttpStatus.OK, body)).when(requestHeadersSpec).exchange(any());
+
+        probeRegisteredServices();
+
+        assertTrue(service.isHealthStatus());
+        assertEquals(Map.of("db", "UP", "ssl", "UP"), service.getHealthComponents());
+        assertEquals(expiry, service.getEarliestCertExpiry());
+        assertTrue(service.isCertExpiringSoon());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void certWarningChange_reevaluatesExpiringSoonWithoutProbing() {
+        ArgumentCaptor<Consumer<String>> settingListener = ArgumentCaptor.forClass(Consumer.class);
+        verify(appSettingService).addListener(settingListener.capture());
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        service.setEarliestCertExpiry(Instant.now().plus(Duration.ofDays(20)));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
+        monitoringService.addListener(notified::set);
+
+        when(appSettingService.getCertExpiryWarningDays()).thenReturn(30);
+        settingListener.getValue().accept(AppSettingService.CERT_EXPIRY_WARNING_DAYS);
+        assertTrue(service.isCertExpiringSoon());
+        assertEquals(Set.of(ServiceChange.Field.CERTIFICATE), notified.get().changes().getFirst().fields());
+
+        when(appSettingService.getCertExpiryWarningDays()).thenReturn(7);
+        settingListener.getValue().accept(AppSettingService.CERT_EXPIRY_WARNING_DAYS);
+        assertFalse(service.isCertExpiringSoon());
+
+        verifyNoInteractions(restClient);
+    }
+
+    @Test
+    void getServices_returnsWithoutProbing() {
+        var service = new MonitoredService("http://localhost:8080");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        assertEquals(List.of(service), monitoringService.getServices());
+        assertEquals(List.of(ServiceStatus.of(service)), monitoringService.getStatuses());
+
+        verifyNoInteractions(restClient);
+    }
+
+    @Test
+    void fetchHealthStatuses_publishesStatusAndNotifiesChangedFields() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY))
+                .doAnswer(healthResponse(HttpStatus.SERVICE_UNAVAILABLE, "{\"status\":\"DOWN\"}"))
+                .when(requestHeadersSpec).exchange(any());
+        probeRegisteredServices();
+        assertTrue(monitoringService.getStatus(1L).orElseThrow().healthy());
+
+        AtomicReference<ServiceChangeSet> notified = new AtomicReference<>();
+        monitoringService.addListener(notified::set);
+        probeRegisteredServices();
+
+        ServiceStatus status = monitoringService.getStatus(1L).orElseThrow();
+        assertFalse(status.healthy());
+        assertEquals(503, status.httpStatus());
+        ServiceChange change = notified.get().changes().getFirst();
+        assertSame(status, change.status());
+        assertTrue(change.fields().contains(ServiceChange.Field.HEALTH));
+        assertFalse(change.fields().contains(ServiceChange.Field.INFO));
+    }
+
+    @Test
+    void refreshNow_coalescesCallsWithinInterval() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY)).when(requestHeadersSpec).exchange(any());
+
+        monitoringService.refreshNow().join();
+        monitoringService.refreshNow().join();
+
+        assertTrue(service.isHealthStatus());
+        verify(requestHeadersSpec, times(1)).exchange(any());
+    }
+
+    @Test
+    void removeService_dropsPublishedStatus() {
+        stubRestClient();
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        service.setInfoCheckedAt(Instant.now());
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+        doAnswer(healthResponse(HttpStatus.OK, UP_BODY)).when(requestHeadersSpec).exchange(any());
+        probeRegisteredServices();
+
+        monitoringService.removeService(service);
+
+        assertTrue(monitoringService.getStatus(1L).isEmpty());
+    }
 }
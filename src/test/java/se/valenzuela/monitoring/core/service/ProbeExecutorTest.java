@@ -0,0 +1,148 @@
+package se.valenzuela.monitoring.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProbeExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProbeExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private int runAndMeasurePeakConcurrency(List<String> urls) {
+        var inFlight = new AtomicInteger();
+        var peak = new AtomicInteger();
+        CompletableFuture.allOf(urls.stream()
+                        .map(url -> executor.submit(url, () -> {
+                            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                            try {
+                                Thread.sleep(20);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            inFlight.decrementAndGet();
+                        }))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        return peak.get();
+    }
+
+    @Test
+    void globalLimit_capsProbesAcrossHosts() {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 3, 10, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+
+        int peak = runAndMeasurePeakConcurrency(IntStream.range(0, 20)
+                .mapToObj(i -> "http://host-" + i + ":8080")
+                .toList());
+
+        assertTrue(peak <= 3, "peak concurrency was " + peak);
+    }
+
+    @Test
+    void completedProbes_leaveNoHostPermitsBehind() {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 4, 2, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+
+        runAndMeasurePeakConcurrency(IntStream.range(0, 50)
+                .mapToObj(i -> "http://host-" + (i % 10) + ":8080")
+                .toList());
+        executor.submitAsync("http://host-async:8080", () -> CompletableFuture.completedFuture("UP")).join();
+
+        assertEquals(0, executor.getTrackedHosts());
+    }
+
+    @Test
+    void perHostLimit_capsProbesAgainstOneHost() {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 50, 2, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+
+        int peak = runAndMeasurePeakConcurrency(IntStream.range(0, 10)
+                .mapToObj(i -> "http://same-host:" + (8080 + i))
+                .toList());
+
+        assertTrue(peak <= 2, "peak concurrency was " + peak);
+    }
+
+    @Test
+    void submit_returnsTaskResult() {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 1, 1, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+
+        assertEquals("UP", executor.submit("http://localhost:8080", () -> "UP").join());
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(1, meterRegistry.get("bootguard.probe.wait").timer().count());
+    }
+
+    @Test
+    void submitAsync_holdsPermitsUntilFutureCompletes() throws Exception {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 1, 1, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+        var firstResponse = new CompletableFuture<String>();
+        var secondStarted = new AtomicBoolean();
+
+        CompletableFuture<String> first = executor.submitAsync("http://host-a", () -> firstResponse);
+        CompletableFuture<String> second = executor.submitAsync("http://host-b", () -> {
+            secondStarted.set(true);
+            return CompletableFuture.completedFuture("UP");
+        });
+        Thread.sleep(100);
+        assertFalse(secondStarted.get());
+        assertEquals(1, executor.getQueueDepth());
+
+        firstResponse.complete("DOWN");
+
+        assertEquals("DOWN", first.join());
+        assertEquals("UP", second.get(5, TimeUnit.SECONDS));
+        assertTrue(secondStarted.get());
+    }
+
+    @Test
+    void timer_startsOnceThePermitsAreHeld() throws Exception {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 1, 1, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+        var firstResponse = new CompletableFuture<String>();
+        var timer = new ProbeTimer();
+
+        executor.submitAsync("http://host-a", () -> firstResponse);
+        CompletableFuture<String> second = executor.submit("http://host-a", timer, () -> "UP");
+        Thread.sleep(200);
+        assertFalse(timer.isStarted());
+
+        firstResponse.complete("DOWN");
+
+        assertEquals("UP", second.get(5, TimeUnit.SECONDS));
+        assertTrue(timer.isStarted());
+        assertTrue(timer.elapsedNanos() < TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void submitAsync_releasesPermitsWhenTaskThrows() {
+        executor = new ProbeExecutor(new HealthCheckProperties(0, 1, 1, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, null), meterRegistry);
+
+        CompletableFuture<String> failed = executor.submitAsync("http://host-a", () -> {
+            throw new IllegalArgumentException("bad url");
+        });
+
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals("UP", executor.submitAsync("http://host-a",
+                () -> CompletableFuture.completedFuture("UP")).join());
+    }
+
+    @Test
+    void hostOf_ignoresPortAndPath() {
+        assertEquals("example.com", ProbeExecutor.hostOf("https://example.com:8443/actuator"));
+        assertEquals("not a url", ProbeExecutor.hostOf("not a url"));
+    }
+}
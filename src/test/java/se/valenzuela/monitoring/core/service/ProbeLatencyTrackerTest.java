@@ -0,0 +1,72 @@
+package se.valenzuela.monitoring.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProbeLatencyTrackerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProbeLatencyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new ProbeLatencyTracker(meterRegistry);
+    }
+
+    private MonitoredService createService(Long id) {
+        var service = new MonitoredService("http://localhost:808" + id);
+        service.setId(id);
+        return service;
+    }
+
+    @Test
+    void percentiles_reflectRecordedDistribution() {
+        var service = createService(1L);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(service, ProbeLatencyTracker.Endpoint.HEALTH, Duration.ofMillis(i).toNanos());
+        }
+
+        var percentiles = tracker.getPercentiles(service, ProbeLatencyTracker.Endpoint.HEALTH).orElseThrow();
+
+        assertEquals(100, percentiles.count());
+        assertEquals(50, percentiles.p50(), 5);
+        assertEquals(95, percentiles.p95(), 5);
+        assertEquals(99, percentiles.p99(), 5);
+        assertTrue(tracker.getPercentiles(service, ProbeLatencyTracker.Endpoint.INFO).isEmpty());
+    }
+
+    @Test
+    void services_getSeparateTimers() {
+        tracker.record(createService(1L), ProbeLatencyTracker.Endpoint.HEALTH, 1_000_000);
+        tracker.record(createService(2L), ProbeLatencyTracker.Endpoint.HEALTH, 1_000_000);
+        tracker.record(createService(2L), ProbeLatencyTracker.Endpoint.INFO, 1_000_000);
+
+        assertEquals(3, meterRegistry.find(ProbeLatencyTracker.METRIC_NAME).timers().size());
+    }
+
+    @Test
+    void remove_unregistersTimers() {
+        var service = createService(1L);
+        tracker.record(service, ProbeLatencyTracker.Endpoint.HEALTH, 1_000_000);
+        tracker.record(service, ProbeLatencyTracker.Endpoint.INFO, 1_000_000);
+
+        tracker.remove(service);
+
+        assertTrue(meterRegistry.find(ProbeLatencyTracker.METRIC_NAME).timers().isEmpty());
+        assertTrue(tracker.getPercentiles(service, ProbeLatencyTracker.Endpoint.HEALTH).isEmpty());
+    }
+
+    @Test
+    void record_withoutId_isIgnored() {
+        tracker.record(new MonitoredService("http://localhost:8080"), ProbeLatencyTracker.Endpoint.HEALTH, 1_000_000);
+
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+package se.valenzuela.monitoring.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.core.model.Environment;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.core.repository.MonitoredServiceRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceRegistryTest {
+
+    @Mock
+    private MonitoredServiceRepository repository;
+
+    private ServiceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ServiceRegistry(repository);
+    }
+
+    private MonitoredService createService(Long id) {
+        var service = new MonitoredService("http://localhost:808" + id);
+        service.setId(id);
+        return service;
+    }
+
+    @Test
+    void getAll_loadsFromDatabaseOnlyOnce() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(createService(1L), createService(2L)));
+
+        assertEquals(2, registry.getAll().size());
+        assertEquals(2, registry.getAll().size());
+
+        verify(repository, times(1)).findAllWithEnvironments();
+    }
+
+    @Test
+    void putAndRemove_writeThroughWithoutQuerying() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of());
+        var service = createService(1L);
+
+        registry.put(service);
+        assertSame(service, registry.get(1L).orElseThrow());
+
+        registry.remove(service);
+        assertTrue(registry.get(1L).isEmpty());
+        verify(repository, times(1)).findAllWithEnvironments();
+    }
+
+    @Test
+    void reload_replacesServicesAndDropsDeletedOnes() {
+        var kept = createService(1L);
+        var deleted = createService(2L);
+        var reloaded = createService(1L);
+        reloaded.setUrl("http://localhost:9090");
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(kept, deleted), List.of(reloaded));
+        registry.getAll();
+
+        registry.reload();
+
+        assertEquals(List.of(reloaded), registry.getAll());
+        assertSame(reloaded, registry.findByUrl("http://localhost:9090").orElseThrow());
+        assertTrue(registry.findByUrl("http://localhost:8081").isEmpty());
+        assertTrue(registry.findByUrl("http://localhost:8082").isEmpty());
+    }
+
+    @Test
+    void put_withoutId_isIgnored() {
+        registry.put(new MonitoredService("http://localhost:8080"));
+
+        verifyNoInteractions(repository);
+        assertEquals(0, registry.version());
+    }
+
+    @Test
+    void writes_bumpVersion() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of());
+        registry.getAll();
+        long before = registry.version();
+
+        registry.put(createService(1L));
+
+        assertTrue(registry.version() > before);
+    }
+
+    @Test
+    void environmentUpdated_replacesStaleInstance() {
+        var staleEnv = new Environment("QA", null, 0);
+        staleEnv.setId(10L);
+        var service = createService(1L);
+        service.setEnvironments(new HashSet<>(Set.of(staleEnv)));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        var updatedEnv = new Environment("QA", null, 0);
+        updatedEnv.setId(10L);
+        updatedEnv.setHealthCheckIntervalSeconds(10);
+        registry.environmentUpdated(updatedEnv);
+
+        assertEquals(10, registry.get(1L).orElseThrow().getEffectiveHealthCheckIntervalSeconds());
+    }
+
+    @Test
+    void environmentRemoved_dropsItFromServices() {
+        var env = new Environment("QA", null, 0);
+        env.setId(10L);
+        var service = createService(1L);
+        service.setEnvironments(new HashSet<>(Set.of(env)));
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(service));
+
+        registry.environmentRemoved(env);
+
+        assertTrue(registry.get(1L).orElseThrow().getEnvironments().isEmpty());
+    }
+
+    @Test
+    void findByUrl_followsUrlEditsAndRemovals() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of(createService(1L)));
+        var service = registry.get(1L).orElseThrow();
+        assertTrue(registry.containsUrl("http://localhost:8081"));
+
+        service.setUrl("http://localhost:9091");
+        registry.put(service);
+        assertFalse(registry.containsUrl("http://localhost:8081"));
+        assertSame(service, registry.findByUrl("http://localhost:9091").orElseThrow());
+
+        registry.remove(service);
+        assertFalse(registry.containsUrl("http://localhost:9091"));
+    }
+
+    @Test
+    void putAll_bumpsVersionOnce() {
+        when(repository.findAllWithEnvironments()).thenReturn(List.of());
+        registry.size();
+        long before = registry.version();
+
+        registry.putAll(List.of(createService(1L), createService(2L)));
+
+        assertEquals(before + 1, registry.version());
+        assertTrue(registry.containsUrl("http://localhost:8082"));
+    }
+}
@@ -0,0 +1,89 @@
+package se.valenzuela.monitoring.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void run_concurrentCallersShareInFlightCall() {
+        var singleFlight = new SingleFlight<Long, String>(Duration.ZERO);
+        var pending = new CompletableFuture<String>();
+        var calls = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.run(1L, () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = singleFlight.run(1L, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        pending.complete("UP");
+
+        assertEquals(1, calls.get());
+        assertEquals("UP", first.join());
+        assertEquals("UP", second.join());
+    }
+
+    @Test
+    void run_reusesCompletedResultWithinTtl() {
+        var singleFlight = new SingleFlight<Long, String>(Duration.ofMinutes(1));
+        var calls = new AtomicInteger();
+
+        singleFlight.run(1L, () -> CompletableFuture.completedFuture("call-" + calls.incrementAndGet())).join();
+        String result = singleFlight.run(1L,
+                () -> CompletableFuture.completedFuture("call-" + calls.incrementAndGet())).join();
+
+        assertEquals("call-1", result);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void run_startsNewCallOnceTtlHasPassed() {
+        var singleFlight = new SingleFlight<Long, String>(Duration.ZERO);
+        var calls = new AtomicInteger();
+
+        singleFlight.run(1L, () -> CompletableFuture.completedFuture("call-" + calls.incrementAndGet())).join();
+        String result = singleFlight.run(1L,
+                () -> CompletableFuture.completedFuture("call-" + calls.incrementAndGet())).join();
+
+        assertEquals("call-2", result);
+    }
+
+    @Test
+    void run_doesNotReuseFailures() {
+        var singleFlight = new SingleFlight<Long, String>(Duration.ofMinutes(1));
+
+        CompletableFuture<String> failed = singleFlight.run(1L,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("refused")));
+        String result = singleFlight.run(1L, () -> CompletableFuture.completedFuture("UP")).join();
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("UP", result);
+    }
+
+    @Test
+    void run_keysAreIndependent() {
+        var singleFlight = new SingleFlight<Long, String>(Duration.ofMinutes(1));
+
+        singleFlight.run(1L, () -> CompletableFuture.completedFuture("one")).join();
+
+        assertEquals("two", singleFlight.run(2L, () -> CompletableFuture.completedFuture("two")).join());
+    }
+
+    @Test
+    void forget_dropsCachedResult() {
+        var singleFlight = new SingleFlight<Long, String>(Duration.ofMinutes(1));
+        singleFlight.run(1L, () -> CompletableFuture.completedFuture("old")).join();
+
+        singleFlight.forget(1L);
+
+        assertEquals("new", singleFlight.run(1L, () -> CompletableFuture.completedFuture("new")).join());
+    }
+}
@@ -0,0 +1,195 @@
+package se.valenzuela.monitoring.history.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.cluster.repository.Fence;
+import se.valenzuela.monitoring.cluster.service.LeaderElection;
+import se.valenzuela.monitoring.config.HistoryProperties;
+import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.history.model.HealthRollup;
+import se.valenzuela.monitoring.history.model.HealthSample;
+import se.valenzuela.monitoring.history.model.Resolution;
+import se.valenzuela.monitoring.history.repository.HealthHistoryRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HealthHistoryServiceTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Mock
+    private HealthHistoryRepository repository;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HealthHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        historyService = new HealthHistoryService(repository, properties(true, 100), leaderElection, meterRegistry);
+    }
+
+    private static HistoryProperties properties(boolean enabled, int maxBufferedSamples) {
+        return new HistoryProperties(enabled, maxBufferedSamples, 500, Duration.ofDays(2),
+                Duration.ofDays(14), Duration.ofDays(90), Duration.ofDays(730));
+    }
+
+    private MonitoredService createService(Long id, boolean healthy) {
+        var service = new MonitoredService("http://localhost:808" + id);
+        service.setId(id);
+        service.setHealthStatus(healthy);
+        service.setHealthResponseStatus(healthy ? "UP" : "DOWN");
+        service.setHealthHttpStatus(healthy ? 200 : 503);
+        service.setHealthLatencyMillis(42);
+        return service;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_writesBufferedSamplesInOneBatch() {
+        historyService.record(createService(1L, true), false);
+        historyService.record(createService(2L, false), true);
+
+        historyService.flush();
+
+        ArgumentCaptor<List<HealthSample>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).insertSamples(captor.capture(), eq(500));
+        List<HealthSample> samples = captor.getValue();
+        assertEquals(2, samples.size());
+        assertEquals(503, samples.get(1).httpStatus());
+        assertEquals(42, samples.get(1).latencyMillis());
+        assertTrue(samples.get(1).transition());
+    }
+
+    @Test
+    void flush_emptyBuffer_doesNotTouchDatabase() {
+        historyService.flush();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void record_whenDisabled_isIgnored() {
+        historyService = new HealthHistoryService(repository, properties(false, 100), leaderElection, meterRegistry);
+
+        historyService.record(createService(1L, true), false);
+        historyService.flush();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void record_fullBuffer_dropsAndCounts() {
+        var registry = new SimpleMeterRegistry();
+        historyService = new HealthHistoryService(repository, properties(true, 1), leaderElection, registry);
+
+        historyService.record(createService(1L, true), false);
+        historyService.record(createService(2L, true), false);
+
+        assertEquals(1.0, registry.get("bootguard.history.dropped").counter().count());
+    }
+
+    @Test
+    void rollUp_coversOnlyClosedBucketsAndResumesFromLastRun() {
+        long now = 100 * HOUR + Duration.ofMinutes(30).toMillis();
+        when(leaderElection.fence()).thenReturn(Optional.of(Fence.NONE));
+
+        historyService.rollUp(now, Fence.NONE);
+        long closedMinute = Resolution.MINUTE.bucketStart(now - HealthHistoryService.SETTLE_MILLIS);
+        verify(repository).rollUp(eq(Resolution.MINUTE), anyLong(), eq(closedMinute), eq(Fence.NONE));
+        verify(repository).rollUp(Resolution.HOUR, 90 * HOUR, 100 * HOUR, Fence.NONE);
+
+        clearInvocations(repository);
+        historyService.rollUp(now + Duration.ofMinutes(1).toMillis(), Fence.NONE);
+
+        verify(repository).rollUp(eq(Resolution.MINUTE), anyLong(), anyLong(), eq(Fence.NONE));
+        verify(repository, never()).rollUp(eq(Resolution.HOUR), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void rollUp_leadershipLostWhileWriting_forgetsProgress() {
+        long now = 100 * HOUR + Duration.ofMinutes(30).toMillis();
+        var fence = new Fence("leader", 7);
+        when(leaderElection.fence()).thenReturn(Optional.empty());
+
+        historyService.rollUp(now, fence);
+        verify(repository).rollUp(eq(Resolution.MINUTE), anyLong(), anyLong(), eq(fence));
+        verify(repository, never()).rollUp(eq(Resolution.HOUR), anyLong(), anyLong(), any());
+
+        when(leaderElection.fence()).thenReturn(Optional.of(fence));
+        historyService.rollUp(now, fence);
+
+        verify(repository).rollUp(Resolution.HOUR, 90 * HOUR, 100 * HOUR, fence);
+    }
+
+    @Test
+    void scheduledJobs_notLeader_doNothing() {
+        when(leaderElection.fence()).thenReturn(Optional.empty());
+
+        historyService.rollUp();
+        historyService.purge();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void purge_deletesInChunksUntilExhausted() {
+        when(repository.deleteSamplesBefore(anyLong(), anyInt(), eq(Fence.NONE))).thenReturn(10_000, 10_000, 3);
+
+        historyService.purge(Instant.parse("2026-01-10T00:00:00Z").toEpochMilli(), Fence.NONE);
+
+        verify(repository, times(3)).deleteSamplesBefore(Instant.parse("2026-01-08T00:00:00Z").toEpochMilli(), 10_000, Fence.NONE);
+        verify(repository).deleteRollupsBefore(eq(Resolution.DAY), anyLong(), anyInt(), eq(Fence.NONE));
+    }
+
+    @Test
+    void countTransitions_sumsRollupsAtRangeResolution() {
+        Instant to = Instant.parse("2026-01-10T00:00:00Z");
+        Instant from = to.minus(Duration.ofDays(7));
+        when(repository.findRollups(1L, Resolution.HOUR, from.toEpochMilli(), to.toEpochMilli())).thenReturn(List.of(
+                new HealthRollup(1L, Resolution.HOUR, from, 120, 118, 2, 1200, 40),
+                new HealthRollup(1L, Resolution.HOUR, from.plus(Duration.ofHours(1)), 120, 117, 3, 1200, 40)));
+
+        assertEquals(5, historyService.countTransitions(1L, from, to));
+    }
+
+    @Test
+    void countTransitions_addsSamplesNotYetRolledUp() {
+        Instant to = Instant.parse("2026-01-10T12:00:00Z");
+        Instant from = to.minus(Duration.ofHours(1));
+        Instant lastRolledUp = to.minus(Duration.ofMinutes(3));
+        when(repository.findRollups(1L, Resolution.MINUTE, from.toEpochMilli(), to.toEpochMilli())).thenReturn(List.of(
+                new HealthRollup(1L, Resolution.MINUTE, from, 12, 10, 1, 120, 20),
+                new HealthRollup(1L, Resolution.MINUTE, lastRolledUp, 12, 11, 2, 120, 20)));
+        when(repository.countTransitions(1L, lastRolledUp.plus(Duration.ofMinutes(1)).toEpochMilli(), to.toEpochMilli()))
+                .thenReturn(4);
+
+        assertEquals(7, historyService.countTransitions(1L, from, to));
+    }
+
+    @Test
+    void countTransitions_beforeFirstRollup_countsSamples() {
+        Instant to = Instant.parse("2026-01-10T12:00:00Z");
+        Instant from = to.minus(Duration.ofMinutes(30));
+        when(repository.countTransitions(1L, from.toEpochMilli(), to.toEpochMilli())).thenReturn(3);
+
+        assertEquals(3, historyService.countTransitions(1L, from, to));
+    }
+}
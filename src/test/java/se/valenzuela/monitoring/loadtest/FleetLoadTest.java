@@ -0,0 +1,213 @@
+package se.valenzuela.monitoring.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.web.servlet.MockMvc;
+import se.valenzuela.monitoring.core.service.MonitoringService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registers a {@link SimulatedFleet} through {@code /register}, lets the scheduler poll it and
+ * reports what a fleet of that size costs: poll throughput, scheduler rounds and overruns,
+ * heap and database statements.
+ * <p>
+ * Only runs when {@code bootguard.loadtest.services} is set. The registered services stay in
+ * the database, so point it at a throwaway one:
+ * <pre>
+ * docker compose up -d
+ * ./mvnw test -Dtest=FleetLoadTest -Dbootguard.loadtest.services=10000 \
+ *     -Dspring.datasource.url="jdbc:mariadb://localhost:3306/bootguard_loadtest?createDatabaseIfNotExist=true" \
+ *     -Dspring.datasource.username=root -Dspring.datasource.password=root
+ * </pre>
+ * The fleet's shape can be changed with {@code bootguard.loadtest.latency} (mean response
+ * time, default 20ms), {@code .failing} (share always DOWN, default 0.01), {@code .flapping}
+ * (share flapping, default 0.01), {@code .flap-period} (default 45s) and {@code .duration}
+ * (measurement window, default 2m).
+ */
+@SpringBootTest(properties = {
+        "bootguard.health-check.initial-delay=0",
+        // Every simulated service is on localhost, so the per-host limits would cap the whole fleet
+        "bootguard.health-check.max-concurrency-per-host=${bootguard.health-check.max-concurrency:64}",
+        "bootguard.http.probe.max-per-route=${bootguard.http.probe.max-total:100}",
+        "vaadin.launch-browser=false"
+})
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "bootguard.loadtest.services", matches = "\\d+")
+class FleetLoadTest {
+
+    private static final int REGISTRATION_CONCURRENCY = 64;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MonitoringService monitoringService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pollSimulatedFleet() throws Exception {
+        int services = Integer.getInteger("bootguard.loadtest.services");
+        Duration window = duration("bootguard.loadtest.duration", "2m");
+        var settings = new SimulatedFleet.Settings(services,
+                duration("bootguard.loadtest.latency", "20ms"),
+                Double.parseDouble(System.getProperty("bootguard.loadtest.failing", "0.01")),
+                Double.parseDouble(System.getProperty("bootguard.loadtest.flapping", "0.01")),
+                duration("bootguard.loadtest.flap-period", "45s"));
+
+        try (var fleet = new SimulatedFleet(settings)) {
+            long heapBefore = usedHeapAfterGc();
+            long registrationStart = System.nanoTime();
+            register(fleet, services);
+            Duration registration = Duration.ofNanos(System.nanoTime() - registrationStart);
+            assertEquals(services, monitoringService.getServices().size());
+
+            // Let the first deadlines (within the jitter of the 30s default interval) pass, so
+            // the window sees steady-state rounds rather than the initial sweep
+            Thread.sleep(Duration.ofSeconds(35));
+
+            Snapshot start = snapshot(fleet);
+            Thread.sleep(window);
+            Snapshot end = snapshot(fleet);
+            long heapAfter = usedHeapAfterGc();
+
+            report(fleet, settings, registration, start, end, heapBefore, heapAfter);
+        }
+    }
+
+    private void register(SimulatedFleet fleet, int services) throws InterruptedException {
+        var permits = new Semaphore(REGISTRATION_CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < services; i++) {
+                String url = fleet.serviceUrl(i);
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        mockMvc.perform(post("/register")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"url\":\"" + url + "\"}"))
+                                .andExpect(status().isAccepted());
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private record Snapshot(long nanos, double checks, long rounds, double roundNanos, double overruns,
+                            long healthRequests, long infoRequests, Map<String, Long> statements) {
+    }
+
+    private Snapshot snapshot(SimulatedFleet fleet) {
+        Timer round = meterRegistry.get("bootguard.scheduler.round").timer();
+        return new Snapshot(System.nanoTime(),
+                counter("bootguard.scheduler.checks"),
+                round.count(),
+                round.totalTime(TimeUnit.NANOSECONDS),
+                counter("bootguard.scheduler.overruns"),
+                fleet.healthRequests(),
+                fleet.infoRequests(),
+                statementCounts());
+    }
+
+    private double counter(String name) {
+        Counter counter = meterRegistry.find(name).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    /**
+     * Server-side statement counters. They count every client of the MariaDB server, so only
+     * the harness should be using it while it runs.
+     */
+    private Map<String, Long> statementCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SHOW GLOBAL STATUS WHERE Variable_name IN "
+                        + "('Questions', 'Com_select', 'Com_insert', 'Com_update', 'Com_delete')",
+                (RowCallbackHandler) row -> counts.put(row.getString(1), row.getLong(2)));
+        return counts;
+    }
+
+    private void report(SimulatedFleet fleet, SimulatedFleet.Settings settings, Duration registration,
+                        Snapshot start, Snapshot end, long heapBefore, long heapAfter) {
+        double seconds = (end.nanos() - start.nanos()) / 1e9;
+        long rounds = end.rounds() - start.rounds();
+        Timer round = meterRegistry.get("bootguard.scheduler.round").timer();
+        Timer lag = meterRegistry.get("bootguard.scheduler.lag").timer();
+
+        var out = new StringBuilder();
+        out.append("%n=== Fleet load test: %d services ===%n".formatted(settings.services()));
+        out.append("fleet            %d healthy, %d failing, %d flapping; mean latency %dms%n".formatted(
+                fleet.count(SimulatedFleet.Behaviour.HEALTHY), fleet.count(SimulatedFleet.Behaviour.FAILING),
+                fleet.count(SimulatedFleet.Behaviour.FLAPPING), settings.meanLatency().toMillis()));
+        double registrationSeconds = Math.max(0.001, registration.toMillis() / 1000.0);
+        out.append("registration     %.1fs (%.0f/s)%n".formatted(
+                registrationSeconds, settings.services() / registrationSeconds));
+        out.append("window           %.0fs%n".formatted(seconds));
+        out.append("checks           %.1f/s (health requests %.1f/s, info requests %.1f/s)%n".formatted(
+                (end.checks() - start.checks()) / seconds,
+                (end.healthRequests() - start.healthRequests()) / seconds,
+                (end.infoRequests() - start.infoRequests()) / seconds));
+        out.append("rounds           %d, mean %.1fms, max %.1fms, p99 %s%n".formatted(
+                rounds,
+                rounds > 0 ? (end.roundNanos() - start.roundNanos()) / rounds / 1e6 : 0.0,
+                round.max(TimeUnit.MILLISECONDS), p99(round)));
+        out.append("overruns         %.0f%n".formatted(end.overruns() - start.overruns()));
+        out.append("lag              max %.1fms, p99 %s%n".formatted(lag.max(TimeUnit.MILLISECONDS), p99(lag)));
+        out.append("heap after GC    %d MiB before, %d MiB after (%.1f KiB/service)%n".formatted(
+                heapBefore >> 20, heapAfter >> 20, (heapAfter - heapBefore) / 1024.0 / settings.services()));
+        for (String statement : new String[]{"Questions", "Com_select", "Com_insert", "Com_update", "Com_delete"}) {
+            long delta = end.statements().getOrDefault(statement, 0L) - start.statements().getOrDefault(statement, 0L);
+            out.append("%-16s %d (%.1f/s)%n".formatted(statement, delta, delta / seconds));
+        }
+        System.out.print(out);
+    }
+
+    private static String p99(Timer timer) {
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                return "%.1fms".formatted(percentile.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return "n/a";
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,184 @@
+package se.valenzuela.monitoring.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One local HTTP server pretending to be a fleet of Spring Boot services. Service {@code n}
+ * lives under {@code /svc-n}, so every service has its own URL, and answers
+ * {@code /svc-n/actuator/health} and {@code /svc-n/actuator/info}.
+ * <p>
+ * Each service draws its behaviour from a seeded random, so runs with the same settings see
+ * the same fleet:
+ * <ul>
+ *   <li>every response is delayed by an exponentially distributed latency,</li>
+ *   <li>a share of the services is always DOWN and answers 503,</li>
+ *   <li>a share of the services flaps between UP and DOWN, each with its own phase.</li>
+ * </ul>
+ */
+final class SimulatedFleet implements AutoCloseable {
+
+    private static final byte[] UP_BODY = """
+            {"status":"UP","components":{"db":{"status":"UP"},"diskSpace":{"status":"UP"},"ping":{"status":"UP"}}}
+            """.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DOWN_BODY = """
+            {"status":"DOWN","components":{"db":{"status":"DOWN"},"diskSpace":{"status":"UP"},"ping":{"status":"UP"}}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    enum Behaviour { HEALTHY, FAILING, FLAPPING }
+
+    private final Settings settings;
+    private final Behaviour[] behaviours;
+    private final long[] flapPhaseMillis;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong healthRequests = new AtomicLong();
+    private final AtomicLong infoRequests = new AtomicLong();
+
+    /**
+     * @param services        number of simulated services
+     * @param meanLatency     mean response time; individual responses are exponentially distributed
+     * @param failingFraction share of the services that are permanently DOWN
+     * @param flappingFraction share of the services that alternate between UP and DOWN
+     * @param flapPeriod      how long a flapping service stays in one state
+     */
+    record Settings(int services, Duration meanLatency, double failingFraction, double flappingFraction,
+                    Duration flapPeriod) {
+    }
+
+    SimulatedFleet(Settings settings) {
+        this.settings = settings;
+        this.behaviours = new Behaviour[settings.services()];
+        this.flapPhaseMillis = new long[settings.services()];
+        var random = new SplittableRandom(42);
+        long periodMillis = Math.max(1, settings.flapPeriod().toMillis());
+        for (int i = 0; i < behaviours.length; i++) {
+            double draw = random.nextDouble();
+            if (draw < settings.failingFraction()) {
+                behaviours[i] = Behaviour.FAILING;
+            } else if (draw < settings.failingFraction() + settings.flappingFraction()) {
+                behaviours[i] = Behaviour.FLAPPING;
+                flapPhaseMillis[i] = random.nextLong(2 * periodMillis);
+            } else {
+                behaviours[i] = Behaviour.HEALTHY;
+            }
+        }
+
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 8192);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Base URL of service {@code index}, as it would register itself.
+     */
+    String serviceUrl(int index) {
+        return "http://localhost:" + server.getAddress().getPort() + "/svc-" + index;
+    }
+
+    long healthRequests() {
+        return healthRequests.get();
+    }
+
+    long infoRequests() {
+        return infoRequests.get();
+    }
+
+    long count(Behaviour behaviour) {
+        long count = 0;
+        for (Behaviour b : behaviours) {
+            if (b == behaviour) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // /svc-<n>/actuator/<endpoint>
+            String[] segments = exchange.getRequestURI().getPath().split("/");
+            int index = segments.length == 4 && segments[1].startsWith("svc-")
+                    ? parseIndex(segments[1].substring(4)) : -1;
+            if (index < 0 || index >= behaviours.length || !"actuator".equals(segments[2])) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            simulateLatency();
+            switch (segments[3]) {
+                case "health" -> {
+                    healthRequests.incrementAndGet();
+                    boolean up = isUp(index, System.currentTimeMillis());
+                    respond(exchange, up ? 200 : 503, up ? UP_BODY : DOWN_BODY);
+                }
+                case "info" -> {
+                    infoRequests.incrementAndGet();
+                    respond(exchange, 200, ("{\"name\":\"svc-" + index
+                            + "\",\"description\":\"Simulated service\",\"version\":\"1.0.0\"}")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+                default -> exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private boolean isUp(int index, long nowMillis) {
+        return switch (behaviours[index]) {
+            case HEALTHY -> true;
+            case FAILING -> false;
+            case FLAPPING -> ((nowMillis + flapPhaseMillis[index]) / settings.flapPeriod().toMillis()) % 2 == 0;
+        };
+    }
+
+    private void simulateLatency() {
+        long meanMillis = settings.meanLatency().toMillis();
+        if (meanMillis <= 0) {
+            return;
+        }
+        double sample = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanMillis;
+        try {
+            Thread.sleep((long) sample);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int parseIndex(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.client.RestClient;
 import se.valenzuela.monitoring.core.model.MonitoredService;
 import se.valenzuela.monitoring.notification.event.ServiceAddedEvent;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
 import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
 
 import java.time.Instant;
@@ -103,6 +104,23 @@ class SlackNotificationChannelTest {
         assertTrue(((String) captor.getValue().get("text")).contains("Added"));
     }
 
+    @Test
+    void serviceFlapping_sendsFlappingMessage() {
+        stubRestClient();
+        var event = new ServiceFlappingEvent(createService(), true, false, 0.6, Instant.now());
+        String config = """
+                {"webhookUrl":"https://hooks.slack.com/services/T00/B00/xxx"}""";
+
+        channel.send(event, config);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(requestBodySpec).body(captor.capture());
+        String text = (String) captor.getValue().get("text");
+        assertTrue(text.contains("FLAPPING"));
+        assertTrue(text.contains("60%"));
+    }
+
     @Test
     void emptyWebhookUrl_skips() {
         var event = new ServiceHealthChangedEvent(createService(), true, false, Instant.now());
@@ -0,0 +1,62 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import org.junit.jupiter.api.Test;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.notification.model.HealthState;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveIntervalsTest {
+
+    private static final long CONFIGURED = 30_000;
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private final AdaptiveIntervals intervals = new AdaptiveIntervals(new HealthCheckProperties.Adaptive(
+            true, Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofSeconds(5)));
+
+    private long interval(TransitionDetector.Streak streak, HealthState confirmed) {
+        return intervals.intervalMillis(CONFIGURED, streak, confirmed, NOW.toEpochMilli());
+    }
+
+    private static HealthState up(Duration since) {
+        return new HealthState(true, NOW.minus(since));
+    }
+
+    @Test
+    void failures_areRecheckedQuicklyThenBackOffToConfiguredInterval() {
+        HealthState confirmed = up(Duration.ofDays(1));
+
+        assertEquals(5_000, interval(new TransitionDetector.Streak(false, 1, false), confirmed));
+        assertEquals(10_000, interval(new TransitionDetector.Streak(false, 2, false), confirmed));
+        assertEquals(20_000, interval(new TransitionDetector.Streak(false, 3, false), confirmed));
+        assertEquals(CONFIGURED, interval(new TransitionDetector.Streak(false, 4, false), confirmed));
+        assertEquals(CONFIGURED, interval(new TransitionDetector.Streak(false, 64, false), confirmed));
+    }
+
+    @Test
+    void unconfirmedRecovery_isRecheckedQuickly() {
+        var down = new HealthState(false, NOW.minus(Duration.ofMinutes(5)));
+
+        assertEquals(5_000, interval(new TransitionDetector.Streak(true, 1, false), down));
+    }
+
+    @Test
+    void stableService_backsOffToMaxInterval() {
+        var healthy = new TransitionDetector.Streak(true, 64, false);
+
+        assertEquals(CONFIGURED, interval(healthy, up(Duration.ofMinutes(30))));
+        assertEquals(60_000, interval(healthy, up(Duration.ofHours(1))));
+        assertEquals(240_000, interval(healthy, up(Duration.ofHours(3))));
+        assertEquals(300_000, interval(healthy, up(Duration.ofDays(30))));
+    }
+
+    @Test
+    void flappingOrUnknownService_keepsConfiguredInterval() {
+        assertEquals(CONFIGURED, interval(new TransitionDetector.Streak(false, 1, true), up(Duration.ofDays(1))));
+        assertEquals(CONFIGURED, interval(null, up(Duration.ofDays(1))));
+        assertEquals(CONFIGURED, interval(new TransitionDetector.Streak(true, 1, false), null));
+    }
+}
@@ -0,0 +1,63 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthCheckQueueTest {
+
+    private final HealthCheckQueue queue = new HealthCheckQueue();
+
+    @Test
+    void pollDue_returnsOnlyExpiredDeadlinesInOrder() {
+        queue.schedule(1L, 300);
+        queue.schedule(2L, 100);
+        queue.schedule(3L, 900);
+
+        assertEquals(List.of(2L, 1L), queue.pollDue(500));
+        assertEquals(900, queue.nextDueAtMillis());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void reschedule_supersedesEarlierDeadline() {
+        queue.schedule(1L, 100);
+        queue.schedule(1L, 1_000);
+
+        assertTrue(queue.pollDue(500).isEmpty());
+        assertEquals(List.of(1L), queue.pollDue(1_000));
+    }
+
+    @Test
+    void scheduleNoLaterThan_onlyMovesDeadlineForward() {
+        queue.schedule(1L, 1_000);
+
+        queue.scheduleNoLaterThan(1L, 5_000);
+        assertEquals(1_000, queue.nextDueAtMillis());
+
+        queue.scheduleNoLaterThan(1L, 200);
+        assertEquals(200, queue.nextDueAtMillis());
+        assertEquals(List.of(1L), queue.pollDue(200));
+        assertTrue(queue.pollDue(1_000).isEmpty());
+    }
+
+    @Test
+    void retainAll_dropsRemovedServices() {
+        queue.schedule(1L, 100);
+        queue.schedule(2L, 100);
+
+        queue.retainAll(Set.of(2L));
+
+        assertFalse(queue.contains(1L));
+        assertEquals(List.of(2L), queue.pollDue(100));
+    }
+
+    @Test
+    void emptyQueue_hasNoDeadline() {
+        assertEquals(Long.MAX_VALUE, queue.nextDueAtMillis());
+        assertTrue(queue.pollDue(Long.MAX_VALUE).isEmpty());
+    }
+}
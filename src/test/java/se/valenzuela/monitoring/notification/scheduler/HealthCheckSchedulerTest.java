@@ -1,5 +1,6 @@
 package se.valenzuela.monitoring.notification.scheduler;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,12 +8,30 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import se.valenzuela.monitoring.cluster.repository.ClusterNodeRepository;
+import se.valenzuela.monitoring.cluster.service.ClusterMembership;
+import se.valenzuela.monitoring.config.ClusterProperties;
+import se.valenzuela.monitoring.config.HealthCheckProperties;
+import se.valenzuela.monitoring.config.TransitionProperties;
 import se.valenzuela.monitoring.core.model.MonitoredService;
+import se.valenzuela.monitoring.history.service.HealthHistoryService;
+import se.valenzuela.monitoring.notification.event.MonitoringEvent;
 import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
 import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+import se.valenzuela.monitoring.notification.model.HealthState;
+import se.valenzuela.monitoring.notification.repository.HealthStateRepository;
 import se.valenzuela.monitoring.core.service.MonitoringService;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,17 +39,66 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class HealthCheckSchedulerTest {
 
+    /** Every observed change is a transition, without confirmation or flap detection. */
+    private static final TransitionProperties IMMEDIATE = new TransitionProperties(1, 1, 1, 0, 0.5, 0.25);
+
+    private static final TransitionProperties CONFIRMED = new TransitionProperties(3, 5, 2, 20, 0.5, 0.25);
+
+    private static final HealthCheckProperties.Adaptive ADAPTIVE_OFF = new HealthCheckProperties.Adaptive(
+            false, Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofSeconds(5));
+
     @Mock
     private MonitoringService monitoringService;
 
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private HealthHistoryService historyService;
+
+    @Mock
+    private ClusterNodeRepository nodeRepository;
+
+    @Mock
+    private HealthStateRepository stateRepository;
+
+    private HealthStateStore stateStore;
+
     private HealthCheckScheduler scheduler;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicLong registryVersion = new AtomicLong();
+
     @BeforeEach
     void setUp() {
-        scheduler = new HealthCheckScheduler(monitoringService, eventPublisher);
+        stateStore = new HealthStateStore(stateRepository);
+        scheduler = newScheduler(IMMEDIATE);
+    }
+
+    private HealthCheckScheduler newScheduler(TransitionProperties transitions) {
+        return newScheduler(transitions, ADAPTIVE_OFF);
+    }
+
+    private HealthCheckScheduler newScheduler(TransitionProperties transitions, HealthCheckProperties.Adaptive adaptive) {
+        var properties = new HealthCheckProperties(0, 8, 4, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, adaptive);
+        meterRegistry = new SimpleMeterRegistry();
+        var clusterMembership = new ClusterMembership(null, monitoringService,
+                new ClusterProperties(false, "node-a", Duration.ofSeconds(15), 128), meterRegistry);
+        return new HealthCheckScheduler(monitoringService, eventPublisher, properties, historyService,
+                clusterMembership, stateStore, transitions, meterRegistry);
+    }
+
+    /**
+     * Simulates a registry write: the scheduler sees a new version and the given services.
+     */
+    private void givenRegistry(MonitoredService... services) {
+        long version = registryVersion.incrementAndGet();
+        lenient().when(monitoringService.getRegistryVersion()).thenReturn(version);
+        lenient().when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(services));
+        for (MonitoredService service : services) {
+            lenient().when(monitoringService.getService(service.getId())).thenReturn(Optional.of(service));
+        }
     }
 
     private MonitoredService createService(Long id, String name, boolean healthy) {
@@ -44,7 +112,7 @@ class HealthCheckSchedulerTest {
     @Test
     void firstRun_recordsStateButNoEvent() {
         var service = createService(1L, "app", true);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service));
+        givenRegistry(service);
 
         scheduler.checkHealth();
 
@@ -54,7 +122,7 @@ class HealthCheckSchedulerTest {
     @Test
     void stableState_noEvent() {
         var service = createService(1L, "app", true);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service));
+        givenRegistry(service);
 
         scheduler.checkHealth(); // first observation
 
@@ -71,12 +139,12 @@ class HealthCheckSchedulerTest {
         // Use a very short interval so the service is always due
         var serviceUp = createService(1L, "app", true);
         serviceUp.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(serviceUp));
+        givenRegistry(serviceUp);
         scheduler.checkHealth(); // first observation
 
         var serviceDown = createService(1L, "app", false);
         serviceDown.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(serviceDown));
+        givenRegistry(serviceDown);
         scheduler.checkHealth(); // state change
 
         ArgumentCaptor<MonitoringEventCarrier> captor = ArgumentCaptor.forClass(MonitoringEventCarrier.class);
@@ -85,6 +153,9 @@ class HealthCheckSchedulerTest {
         var event = (ServiceHealthChangedEvent) captor.getValue().getMonitoringEvent();
         assertTrue(event.wentDown());
         assertFalse(event.cameUp());
+
+        verify(historyService).record(serviceUp, false);
+        verify(historyService).record(serviceDown, true);
         assertTrue(event.previouslyHealthy());
         assertFalse(event.currentlyHealthy());
     }
@@ -93,12 +164,12 @@ class HealthCheckSchedulerTest {
     void downToUp_publishesEvent() {
         var serviceDown = createService(1L, "app", false);
         serviceDown.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(serviceDown));
+        givenRegistry(serviceDown);
         scheduler.checkHealth(); // first observation
 
         var serviceUp = createService(1L, "app", true);
         serviceUp.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(serviceUp));
+        givenRegistry(serviceUp);
         scheduler.checkHealth(); // state change
 
         ArgumentCaptor<MonitoringEventCarrier> captor = ArgumentCaptor.forClass(MonitoringEventCarrier.class);
@@ -115,13 +186,13 @@ class HealthCheckSchedulerTest {
         service1.setHealthCheckIntervalSeconds(0);
         var service2 = createService(2L, "app2", true);
         service2.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service1, service2));
+        givenRegistry(service1, service2);
         scheduler.checkHealth(); // record both
 
         // service2 removed
         service1 = createService(1L, "app1", true);
         service1.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service1));
+        givenRegistry(service1);
         scheduler.checkHealth();
 
         // Now re-add service2 — should be treated as first observation (no event)
@@ -129,7 +200,7 @@ class HealthCheckSchedulerTest {
         service1.setHealthCheckIntervalSeconds(0);
         var service2Again = createService(2L, "app2", false);
         service2Again.setHealthCheckIntervalSeconds(0);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service1, service2Again));
+        givenRegistry(service1, service2Again);
         scheduler.checkHealth();
 
         verifyNoInteractions(eventPublisher);
@@ -140,15 +211,244 @@ class HealthCheckSchedulerTest {
         // Service with 3600s interval — after first check, it should not be due again immediately
         var service = createService(1L, "app", true);
         service.setHealthCheckIntervalSeconds(3600);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service));
+        givenRegistry(service);
 
         scheduler.checkHealth(); // first run — always due
         verify(monitoringService).fetchHealthStatuses(anyList());
 
         reset(monitoringService);
-        when(monitoringService.getServicesWithEnvironments()).thenReturn(List.of(service));
+        givenRegistry(service);
 
         scheduler.checkHealth(); // second run — not due (3600s hasn't passed)
         verify(monitoringService, never()).fetchHealthStatuses(anyList());
     }
+
+    @Test
+    void failedCheck_isRetriedOnALaterTick() {
+        var service = createService(1L, "app", true);
+        service.setHealthCheckIntervalSeconds(0);
+        givenRegistry(service);
+        doThrow(new RuntimeException("connection pool exhausted"))
+                .doNothing()
+                .when(monitoringService).fetchHealthStatuses(anyList());
+
+        scheduler.checkHealth(); // fails
+        scheduler.checkHealth();
+
+        verify(monitoringService, times(2)).fetchHealthStatuses(anyList());
+        assertNotNull(stateStore.current(1L));
+    }
+
+    @Test
+    void unchangedRegistry_isNotRescanned() {
+        var service = createService(1L, "app", true);
+        service.setHealthCheckIntervalSeconds(3600);
+        givenRegistry(service);
+
+        scheduler.checkHealth();
+        scheduler.checkHealth();
+        scheduler.checkHealth();
+
+        verify(monitoringService, times(1)).getServicesWithEnvironments();
+    }
+
+    @Test
+    void shortenedInterval_pullsDeadlineForward() {
+        var service = createService(1L, "app", true);
+        service.setHealthCheckIntervalSeconds(3600);
+        givenRegistry(service);
+        scheduler.checkHealth();
+
+        service.setHealthCheckIntervalSeconds(0);
+        givenRegistry(service); // edit saved through the registry
+        scheduler.checkHealth();
+
+        verify(monitoringService, times(2)).fetchHealthStatuses(anyList());
+    }
+
+    @Test
+    void removedService_isNoLongerChecked() {
+        var service = createService(1L, "app", true);
+        service.setHealthCheckIntervalSeconds(0);
+        givenRegistry(service);
+        scheduler.checkHealth();
+
+        givenRegistry();
+        clearInvocations(monitoringService);
+        scheduler.checkHealth();
+
+        verify(monitoringService, never()).fetchHealthStatuses(anyList());
+    }
+
+    @Test
+    void checkHealth_recordsRoundMetrics() {
+        givenRegistry(createService(1L, "a", true), createService(2L, "b", true));
+
+        scheduler.checkHealth();
+        scheduler.checkHealth(); // nothing due: not counted as a round
+
+        assertEquals(2.0, meterRegistry.get("bootguard.scheduler.checks").counter().count());
+        assertEquals(1, meterRegistry.get("bootguard.scheduler.round").timer().count());
+        assertEquals(1, meterRegistry.get("bootguard.scheduler.lag").timer().count());
+        assertEquals(2.0, meterRegistry.get("bootguard.scheduler.queued").gauge().value());
+        assertEquals(0.0, meterRegistry.get("bootguard.scheduler.overruns").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nodeJoins_servicesOwnedByOtherNodeAreDropped() {
+        var membership = new ClusterMembership(nodeRepository, monitoringService,
+                new ClusterProperties(true, "node-a", Duration.ofSeconds(15), 128), new SimpleMeterRegistry());
+        var properties = new HealthCheckProperties(0, 8, 4, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, ADAPTIVE_OFF);
+        scheduler = new HealthCheckScheduler(monitoringService, eventPublisher, properties, historyService,
+                membership, stateStore, IMMEDIATE, new SimpleMeterRegistry());
+        MonitoredService[] services = LongStream.rangeClosed(1, 20)
+                .mapToObj(id -> createService(id, "app-" + id, true))
+                .peek(service -> service.setHealthCheckIntervalSeconds(0))
+                .toArray(MonitoredService[]::new);
+        givenRegistry(services);
+        scheduler.checkHealth(); // alone in the cluster: checks everything
+
+        when(nodeRepository.findLiveNodeIds(any())).thenReturn(List.of("node-a", "node-b"));
+        membership.heartbeat();
+        clearInvocations(monitoringService);
+        scheduler.checkHealth();
+
+        ArgumentCaptor<List<MonitoredService>> captor = ArgumentCaptor.forClass(List.class);
+        verify(monitoringService).fetchHealthStatuses(captor.capture());
+        List<MonitoredService> owned = Arrays.stream(services).filter(membership::owns).toList();
+        assertEquals(Set.copyOf(owned), Set.copyOf(captor.getValue()));
+        assertTrue(owned.size() > 0 && owned.size() < services.length);
+    }
+
+    @Test
+    void servicesCheckedElsewhere_showStoredState() {
+        var membership = new ClusterMembership(nodeRepository, monitoringService,
+                new ClusterProperties(true, "node-a", Duration.ofSeconds(15), 128), new SimpleMeterRegistry());
+        var properties = new HealthCheckProperties(0, 8, 4, Duration.ofMinutes(10), Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(1), 3, ADAPTIVE_OFF);
+        scheduler = new HealthCheckScheduler(monitoringService, eventPublisher, properties, historyService,
+                membership, stateStore, IMMEDIATE, new SimpleMeterRegistry());
+        List<MonitoredService> services = LongStream.rangeClosed(1, 20)
+                .mapToObj(id -> createService(id, "app-" + id, true))
+                .toList();
+        when(monitoringService.getServices()).thenReturn(services);
+        when(nodeRepository.findLiveNodeIds(any())).thenReturn(List.of("node-a", "node-b"));
+        membership.heartbeat();
+        Map<Long, HealthState> stored = Map.of(1L, new HealthState(false, Instant.EPOCH));
+        when(stateRepository.findAll()).thenReturn(stored);
+
+        scheduler.showServicesCheckedElsewhere();
+
+        List<MonitoredService> elsewhere = services.stream().filter(service -> !membership.owns(service)).toList();
+        verify(monitoringService).applyHealthCheckedElsewhere(elsewhere, stored);
+    }
+
+    @Test
+    void stateStoredBeforeRestart_changeIsPublishedOnFirstCheck() {
+        when(stateRepository.findAll()).thenReturn(Map.of(1L, new HealthState(true, Instant.EPOCH)));
+        givenRegistry(createService(1L, "app", false));
+
+        scheduler.checkHealth();
+
+        ArgumentCaptor<MonitoringEventCarrier> captor = ArgumentCaptor.forClass(MonitoringEventCarrier.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertTrue(((ServiceHealthChangedEvent) captor.getValue().getMonitoringEvent()).wentDown());
+        verify(stateRepository, times(1)).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unchangedState_isWrittenOnlyOnce() {
+        var service = createService(1L, "app", true);
+        service.setHealthCheckIntervalSeconds(0);
+        givenRegistry(service);
+
+        scheduler.checkHealth();
+        stateStore.flush();
+        scheduler.checkHealth();
+        stateStore.flush();
+
+        ArgumentCaptor<List<Map.Entry<Long, HealthState>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stateRepository, times(1)).saveAll(captor.capture(), anyInt());
+        assertEquals(1L, captor.getValue().getFirst().getKey());
+        assertTrue(captor.getValue().getFirst().getValue().healthy());
+    }
+
+    /**
+     * Checks the service once per call, reporting the given result.
+     */
+    private void checkWith(boolean... results) {
+        for (boolean healthy : results) {
+            var service = createService(1L, "app", healthy);
+            service.setHealthCheckIntervalSeconds(0);
+            givenRegistry(service);
+            scheduler.checkHealth();
+        }
+    }
+
+    private List<MonitoringEvent> publishedEvents() {
+        ArgumentCaptor<MonitoringEventCarrier> captor = ArgumentCaptor.forClass(MonitoringEventCarrier.class);
+        verify(eventPublisher, atLeast(0)).publishEvent(captor.capture());
+        return captor.getAllValues().stream().map(MonitoringEventCarrier::getMonitoringEvent).toList();
+    }
+
+    @Test
+    void singleFailure_isNotPublishedUntilConfirmed() {
+        scheduler = newScheduler(CONFIRMED);
+
+        checkWith(true, false, true, false);
+        assertTrue(publishedEvents().isEmpty());
+
+        checkWith(false); // third failure within the last five checks
+        var event = (ServiceHealthChangedEvent) publishedEvents().getFirst();
+        assertTrue(event.wentDown());
+
+        clearInvocations(eventPublisher);
+        checkWith(true);
+        assertTrue(publishedEvents().isEmpty());
+        checkWith(true); // second consecutive success
+        assertTrue(((ServiceHealthChangedEvent) publishedEvents().getFirst()).cameUp());
+    }
+
+    @Test
+    void flappingService_publishesFlappingEventsInsteadOfTransitions() {
+        scheduler = newScheduler(new TransitionProperties(1, 1, 1, 10, 0.5, 0.25));
+
+        checkWith(true, false, true, false, true, false);
+        List<MonitoringEvent> events = publishedEvents();
+        // Changes 1-4 are published; the fifth brings the rate to 5/9 and starts the flapping
+        assertEquals(5, events.size());
+        var started = (ServiceFlappingEvent) events.getLast();
+        assertTrue(started.flapping());
+        assertEquals(5 / 9.0, started.changeRate(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("bootguard.scheduler.flapping").gauge().value());
+
+        clearInvocations(eventPublisher);
+        checkWith(true, false, true, false);
+        assertTrue(publishedEvents().isEmpty());
+
+        checkWith(false, false, false, false, false, false, false);
+        var stopped = (ServiceFlappingEvent) publishedEvents().getLast();
+        assertFalse(stopped.flapping());
+        assertFalse(stopped.currentlyHealthy());
+        assertEquals(1, publishedEvents().size());
+        assertEquals(0.0, meterRegistry.get("bootguard.scheduler.flapping").gauge().value());
+    }
+
+    @Test
+    void adaptive_failedCheckIsRecheckedBeforeItsInterval() {
+        when(stateRepository.findAll()).thenReturn(Map.of(1L, new HealthState(true, Instant.EPOCH)));
+        scheduler = newScheduler(CONFIRMED, new HealthCheckProperties.Adaptive(
+                true, Duration.ofHours(1), Duration.ofMinutes(5), Duration.ZERO));
+        var service = createService(1L, "app", false);
+        service.setHealthCheckIntervalSeconds(3600);
+        givenRegistry(service);
+
+        scheduler.checkHealth();
+        scheduler.checkHealth();
+        scheduler.checkHealth(); // third failure confirms DOWN
+
+        verify(monitoringService, times(3)).fetchHealthStatuses(anyList());
+        assertTrue(((ServiceHealthChangedEvent) publishedEvents().getFirst()).wentDown());
+    }
 }
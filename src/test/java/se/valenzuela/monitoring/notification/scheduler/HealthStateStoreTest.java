@@ -0,0 +1,75 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.notification.model.HealthState;
+import se.valenzuela.monitoring.notification.repository.HealthStateRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HealthStateStoreTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private HealthStateRepository repository;
+
+    private HealthStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new HealthStateStore(repository);
+    }
+
+    @Test
+    void record_returnsStoredStateAndKeepsChangeTime() {
+        when(repository.findAll()).thenReturn(Map.of(1L, new HealthState(false, T0)));
+
+        HealthState previous = store.record(1L, false, T0.plusSeconds(60));
+
+        assertEquals(new HealthState(false, T0), previous);
+        store.flush();
+        verify(repository, never()).saveAll(anyList(), anyInt());
+    }
+
+    @Test
+    void flush_failure_keepsChangesForNextFlush() {
+        store.record(1L, true, T0);
+        doThrow(new RuntimeException("Connection lost")).doNothing().when(repository).saveAll(anyList(), anyInt());
+
+        store.flush();
+        store.flush();
+
+        verify(repository, times(2)).saveAll(List.of(Map.entry(1L, new HealthState(true, T0))), 500);
+    }
+
+    @Test
+    void loadFailure_startsEmptyWithoutRetryingEveryCall() {
+        when(repository.findAll()).thenThrow(new RuntimeException("Connection refused"));
+
+        assertNull(store.record(1L, true, T0));
+        assertEquals(new HealthState(true, T0), store.record(1L, false, T0.plusSeconds(1)));
+
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void reload_picksUpStateWrittenByAnotherNode() {
+        when(repository.findAll()).thenReturn(Map.of(), Map.of(2L, new HealthState(false, T0)));
+        store.retainAll(Set.of(1L));
+
+        store.reload();
+
+        assertEquals(new HealthState(false, T0), store.record(2L, true, T0.plusSeconds(5)));
+    }
+}
@@ -0,0 +1,82 @@
+package se.valenzuela.monitoring.notification.scheduler;
+
+import org.junit.jupiter.api.Test;
+import se.valenzuela.monitoring.config.TransitionProperties;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransitionDetectorTest {
+
+    private final TransitionDetector detector =
+            new TransitionDetector(new TransitionProperties(3, 5, 2, 20, 0.5, 0.25));
+
+    private TransitionDetector.Outcome observeAll(Boolean confirmed, boolean... results) {
+        TransitionDetector.Outcome outcome = null;
+        for (boolean healthy : results) {
+            outcome = detector.observe(1L, healthy, confirmed);
+            confirmed = outcome.healthy();
+        }
+        return outcome;
+    }
+
+    @Test
+    void firstResult_isTakenAsIs() {
+        assertFalse(detector.observe(1L, false, null).healthy());
+    }
+
+    @Test
+    void down_needsThresholdFailuresWithinWindow() {
+        assertTrue(observeAll(true, false, true, false, true).healthy());
+        assertFalse(observeAll(true, false).healthy());
+    }
+
+    @Test
+    void failuresOutsideWindow_areNotCounted() {
+        assertTrue(observeAll(true, false, false, true, true, true, false).healthy());
+    }
+
+    @Test
+    void up_needsConsecutiveSuccesses() {
+        assertFalse(observeAll(false, true, false, true).healthy());
+        assertTrue(observeAll(false, true).healthy());
+    }
+
+    @Test
+    void failuresBeforeRecovery_doNotConfirmNextOutage() {
+        assertFalse(observeAll(true, false, false, false).healthy());
+        assertTrue(observeAll(false, true, true).healthy());
+
+        assertTrue(observeAll(true, false).healthy());
+        assertTrue(observeAll(true, false).healthy());
+        assertFalse(observeAll(true, false).healthy());
+    }
+
+    @Test
+    void frequentChanges_startAndStopFlapping() {
+        var outcome = observeAll(true, true, false, true, false, true, false, true, false, true, false, true);
+        assertTrue(outcome.flapping());
+        assertEquals(1, detector.flappingCount());
+
+        for (int i = 0; i < 30; i++) {
+            outcome = detector.observe(1L, true, outcome.healthy());
+            if (outcome.flap() == TransitionDetector.Flapping.STOPPED) {
+                break;
+            }
+        }
+        assertFalse(outcome.flapping());
+        assertTrue(outcome.healthy());
+        assertEquals(0, detector.flappingCount());
+    }
+
+    @Test
+    void retainAll_forgetsRemovedServices() {
+        observeAll(true, true, false, true, false, true, false, true, false, true, false, true);
+
+        detector.retainAll(Set.of(2L));
+
+        assertEquals(0, detector.flappingCount());
+        assertEquals(TransitionDetector.Flapping.NONE, detector.observe(1L, true, true).flap());
+    }
+}
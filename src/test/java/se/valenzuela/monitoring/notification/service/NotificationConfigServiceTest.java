@@ -11,10 +11,13 @@ import se.valenzuela.monitoring.notification.model.NotificationServiceOverride;
 import se.valenzuela.monitoring.notification.repository.NotificationChannelConfigRepository;
 import se.valenzuela.monitoring.notification.repository.NotificationServiceOverrideRepository;
 
+import tools.jackson.databind.json.JsonMapper;
+
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationConfigServiceTest {
@@ -31,7 +34,7 @@ class NotificationConfigServiceTest {
 
     @BeforeEach
     void setUp() {
-        configService = new NotificationConfigService(channelConfigRepository, overrideRepository);
+        configService = new NotificationConfigService(channelConfigRepository, overrideRepository, JsonMapper.builder().build());
     }
 
     private NotificationServiceOverride createOverride() {
@@ -105,4 +108,92 @@ class NotificationConfigServiceTest {
 
         assertEquals("{\"global\":true}", configService.getEffectiveConfigJson("EMAIL", 1L));
     }
+
+    @Test
+    void resolveRoute_isCachedAndParsedOnce() {
+        var global = new NotificationChannelConfig("EMAIL", true, "{\"recipients\":\"a@b.com\"}");
+        when(channelConfigRepository.findByChannelType("EMAIL")).thenReturn(Optional.of(global));
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.empty());
+
+        var first = configService.resolveRoute("EMAIL", 1L);
+        var second = configService.resolveRoute("EMAIL", 1L);
+
+        assertSame(first, second);
+        assertTrue(first.enabled());
+        assertEquals("a@b.com", first.config().path("recipients").asString());
+        verify(channelConfigRepository, times(1)).findByChannelType("EMAIL");
+        verify(overrideRepository, times(1)).findByServiceIdAndChannelType(1L, "EMAIL");
+    }
+
+    @Test
+    void saveGlobalConfig_invalidatesRoutesOfThatChannel() {
+        var global = new NotificationChannelConfig("EMAIL", false, "{}");
+        when(channelConfigRepository.findByChannelType("EMAIL")).thenReturn(Optional.of(global));
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.empty());
+        assertFalse(configService.isEnabledForService("EMAIL", 1L));
+
+        var enabled = new NotificationChannelConfig("EMAIL", true, "{}");
+        when(channelConfigRepository.save(any())).thenReturn(enabled);
+        when(channelConfigRepository.findByChannelType("EMAIL")).thenReturn(Optional.of(enabled));
+        configService.saveGlobalConfig(enabled);
+
+        assertTrue(configService.isEnabledForService("EMAIL", 1L));
+    }
+
+    @Test
+    void saveOverride_invalidatesThatRoute() {
+        dummyService.setId(1L);
+        when(channelConfigRepository.findByChannelType("EMAIL")).thenReturn(Optional.empty());
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.empty());
+        assertFalse(configService.isEnabledForService("EMAIL", 1L));
+
+        var override = createOverride();
+        override.setEnabled(true);
+        when(overrideRepository.save(override)).thenReturn(override);
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.of(override));
+        configService.saveOverride(override);
+
+        assertTrue(configService.isEnabledForService("EMAIL", 1L));
+    }
+
+    @Test
+    void refresh_picksUpChangesWrittenElsewhere() {
+        when(channelConfigRepository.findByChannelType("EMAIL"))
+                .thenReturn(Optional.of(new NotificationChannelConfig("EMAIL", false, "{}")));
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.empty());
+        assertFalse(configService.isEnabledForService("EMAIL", 1L));
+
+        when(channelConfigRepository.findByChannelType("EMAIL"))
+                .thenReturn(Optional.of(new NotificationChannelConfig("EMAIL", true, "{}")));
+        assertFalse(configService.isEnabledForService("EMAIL", 1L));
+
+        configService.refresh();
+
+        assertTrue(configService.isEnabledForService("EMAIL", 1L));
+    }
+
+    @Test
+    void routeLoadedDuringEviction_isNotCached() {
+        when(channelConfigRepository.findByChannelType("EMAIL")).thenAnswer(_ -> {
+            configService.evictService(1L);
+            return Optional.of(new NotificationChannelConfig("EMAIL", false, "{}"));
+        });
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.empty());
+
+        configService.resolveRoute("EMAIL", 1L);
+        configService.resolveRoute("EMAIL", 1L);
+
+        verify(channelConfigRepository, times(2)).findByChannelType("EMAIL");
+    }
+
+    @Test
+    void invalidConfigJson_resolvesToEmptyConfig() {
+        var global = new NotificationChannelConfig("EMAIL", true, "{not json");
+        when(channelConfigRepository.findByChannelType("EMAIL")).thenReturn(Optional.of(global));
+        when(overrideRepository.findByServiceIdAndChannelType(1L, "EMAIL")).thenReturn(Optional.empty());
+
+        var route = configService.resolveRoute("EMAIL", 1L);
+
+        assertTrue(route.config().isEmpty());
+    }
 }
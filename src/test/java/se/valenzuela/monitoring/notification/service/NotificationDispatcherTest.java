@@ -5,10 +5,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.cluster.service.TransitionClaims;
 import se.valenzuela.monitoring.core.model.MonitoredService;
 import se.valenzuela.monitoring.notification.channel.NotificationChannel;
 import se.valenzuela.monitoring.notification.event.MonitoringEventCarrier;
+import se.valenzuela.monitoring.notification.event.ServiceFlappingEvent;
 import se.valenzuela.monitoring.notification.event.ServiceHealthChangedEvent;
+import se.valenzuela.monitoring.notification.event.ServiceRemovedEvent;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.time.Instant;
 import java.util.List;
@@ -27,11 +32,18 @@ class NotificationDispatcherTest {
     @Mock
     private NotificationConfigService configService;
 
+    @Mock
+    private TransitionClaims transitionClaims;
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
     private NotificationDispatcher dispatcher;
 
     @BeforeEach
     void setUp() {
-        dispatcher = new NotificationDispatcher(List.of(channel1, channel2), configService);
+        lenient().when(transitionClaims.claim(any())).thenReturn(true);
+        lenient().when(transitionClaims.claimFlapping(any())).thenReturn(true);
+        dispatcher = new NotificationDispatcher(List.of(channel1, channel2), configService, transitionClaims);
     }
 
     private MonitoringEventCarrier createCarrier() {
@@ -42,47 +54,86 @@ class NotificationDispatcherTest {
         return new MonitoringEventCarrier(this, event);
     }
 
+    private static NotificationConfigService.ResolvedRoute route(boolean enabled, String configJson) {
+        return new NotificationConfigService.ResolvedRoute(enabled, configJson, JSON_MAPPER.readTree(configJson));
+    }
+
     @Test
     void enabledChannel_sendsNotification() {
+        var emailRoute = route(true, "{\"recipients\":\"a@b.com\"}");
         when(channel1.channelType()).thenReturn("EMAIL");
-        when(configService.isEnabledForService("EMAIL", 1L)).thenReturn(true);
-        when(configService.getEffectiveConfigJson("EMAIL", 1L)).thenReturn("{\"recipients\":\"a@b.com\"}");
+        when(configService.resolveRoute("EMAIL", 1L)).thenReturn(emailRoute);
         when(channel2.channelType()).thenReturn("DISCORD");
-        when(configService.isEnabledForService("DISCORD", 1L)).thenReturn(false);
+        when(configService.resolveRoute("DISCORD", 1L)).thenReturn(route(false, "{}"));
 
         dispatcher.onMonitoringEvent(createCarrier());
 
-        verify(channel1).send(any(), eq("{\"recipients\":\"a@b.com\"}"));
-        verify(channel2, never()).send(any(), any());
+        verify(channel1).send(any(), eq(emailRoute.config()));
+        verify(channel2, never()).send(any(), any(JsonNode.class));
     }
 
     @Test
     void disabledChannel_skips() {
         when(channel1.channelType()).thenReturn("EMAIL");
-        when(configService.isEnabledForService("EMAIL", 1L)).thenReturn(false);
+        when(configService.resolveRoute("EMAIL", 1L)).thenReturn(route(false, "{}"));
         when(channel2.channelType()).thenReturn("DISCORD");
-        when(configService.isEnabledForService("DISCORD", 1L)).thenReturn(false);
+        when(configService.resolveRoute("DISCORD", 1L)).thenReturn(route(false, "{}"));
 
         dispatcher.onMonitoringEvent(createCarrier());
 
-        verify(channel1, never()).send(any(), any());
-        verify(channel2, never()).send(any(), any());
+        verify(channel1, never()).send(any(), any(JsonNode.class));
+        verify(channel2, never()).send(any(), any(JsonNode.class));
     }
 
     @Test
     void channelException_doesNotAffectOthers() {
         when(channel1.channelType()).thenReturn("EMAIL");
-        when(configService.isEnabledForService("EMAIL", 1L)).thenReturn(true);
-        when(configService.getEffectiveConfigJson("EMAIL", 1L)).thenReturn("{}");
-        doThrow(new RuntimeException("send failed")).when(channel1).send(any(), any());
+        when(configService.resolveRoute("EMAIL", 1L)).thenReturn(route(true, "{}"));
+        doThrow(new RuntimeException("send failed")).when(channel1).send(any(), any(JsonNode.class));
+
+        when(channel2.channelType()).thenReturn("DISCORD");
+        when(configService.resolveRoute("DISCORD", 1L)).thenReturn(route(true, "{}"));
 
+        dispatcher.onMonitoringEvent(createCarrier());
+
+        verify(channel1).send(any(), any(JsonNode.class));
+        verify(channel2).send(any(), any(JsonNode.class));
+    }
+
+    @Test
+    void serviceRemoved_evictsCachedRoutesAfterDispatch() {
+        when(channel1.channelType()).thenReturn("EMAIL");
+        when(configService.resolveRoute("EMAIL", 1L)).thenReturn(route(true, "{}"));
         when(channel2.channelType()).thenReturn("DISCORD");
-        when(configService.isEnabledForService("DISCORD", 1L)).thenReturn(true);
-        when(configService.getEffectiveConfigJson("DISCORD", 1L)).thenReturn("{}");
+        when(configService.resolveRoute("DISCORD", 1L)).thenReturn(route(false, "{}"));
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+
+        dispatcher.onMonitoringEvent(new MonitoringEventCarrier(this, new ServiceRemovedEvent(service, Instant.now())));
+
+        var inOrder = inOrder(channel1, configService);
+        inOrder.verify(channel1).send(any(), any(JsonNode.class));
+        inOrder.verify(configService).evictService(1L);
+    }
+
+    @Test
+    void flappingClaimedByAnotherNode_isNotSent() {
+        var service = new MonitoredService("http://localhost:8080");
+        service.setId(1L);
+        var event = new ServiceFlappingEvent(service, true, false, 0.6, Instant.now());
+        when(transitionClaims.claimFlapping(event)).thenReturn(false);
+
+        dispatcher.onMonitoringEvent(new MonitoringEventCarrier(this, event));
+
+        verifyNoInteractions(channel1, channel2, configService);
+    }
+
+    @Test
+    void transitionClaimedByAnotherNode_isNotSent() {
+        when(transitionClaims.claim(any())).thenReturn(false);
 
         dispatcher.onMonitoringEvent(createCarrier());
 
-        verify(channel1).send(any(), any());
-        verify(channel2).send(any(), any());
+        verifyNoInteractions(channel1, channel2, configService);
     }
 }
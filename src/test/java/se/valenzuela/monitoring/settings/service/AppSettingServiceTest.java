@@ -0,0 +1,95 @@
+package se.valenzuela.monitoring.settings.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.valenzuela.monitoring.settings.model.AppSetting;
+import se.valenzuela.monitoring.settings.repository.AppSettingRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppSettingServiceTest {
+
+    @Mock
+    private AppSettingRepository repository;
+
+    private AppSettingService appSettingService;
+
+    @BeforeEach
+    void setUp() {
+        appSettingService = new AppSettingService(repository);
+    }
+
+    @Test
+    void getValue_loadsAllSettingsOnce() {
+        when(repository.findAll()).thenReturn(List.of(
+                new AppSetting(AppSettingService.CERT_EXPIRY_WARNING_DAYS, "14")));
+
+        assertEquals(14, appSettingService.getCertExpiryWarningDays());
+        assertEquals(14, appSettingService.getCertExpiryWarningDays());
+        assertEquals("fallback", appSettingService.getValue("missing", "fallback"));
+
+        verify(repository, times(1)).findAll();
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void getCertExpiryWarningDays_invalidValue_fallsBackToDefault() {
+        when(repository.findAll()).thenReturn(List.of(
+                new AppSetting(AppSettingService.CERT_EXPIRY_WARNING_DAYS, "soon")));
+
+        assertEquals(AppSettingService.DEFAULT_CERT_EXPIRY_WARNING_DAYS, appSettingService.getCertExpiryWarningDays());
+    }
+
+    @Test
+    void setValue_updatesSnapshotAndNotifies() {
+        when(repository.findAll()).thenReturn(List.of());
+        when(repository.findById(AppSettingService.CERT_EXPIRY_WARNING_DAYS)).thenReturn(Optional.empty());
+        List<String> changedKeys = new ArrayList<>();
+        appSettingService.addListener(changedKeys::add);
+
+        appSettingService.setValue(AppSettingService.CERT_EXPIRY_WARNING_DAYS, "7");
+
+        verify(repository).save(any(AppSetting.class));
+        assertEquals(7, appSettingService.getCertExpiryWarningDays());
+        assertEquals(List.of(AppSettingService.CERT_EXPIRY_WARNING_DAYS), changedKeys);
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void setValue_sameValue_doesNotNotify() {
+        when(repository.findAll()).thenReturn(List.of(new AppSetting("key", "value")));
+        when(repository.findById("key")).thenReturn(Optional.of(new AppSetting("key", "value")));
+        List<String> changedKeys = new ArrayList<>();
+        appSettingService.addListener(changedKeys::add);
+
+        appSettingService.setValue("key", "value");
+
+        assertTrue(changedKeys.isEmpty());
+    }
+
+    @Test
+    void refresh_picksUpExternalChangesAndNotifies() {
+        when(repository.findAll())
+                .thenReturn(List.of(new AppSetting("a", "1"), new AppSetting("b", "2")))
+                .thenReturn(List.of(new AppSetting("a", "1"), new AppSetting("c", "3")));
+        appSettingService.getValue("a", null);
+        List<String> changedKeys = new ArrayList<>();
+        appSettingService.addListener(changedKeys::add);
+
+        appSettingService.refresh();
+
+        assertEquals("3", appSettingService.getValue("c", null));
+        assertNull(appSettingService.getValue("b", null));
+        assertEquals(List.of("b", "c"), changedKeys.stream().sorted().toList());
+    }
+}